@@ -2,10 +2,16 @@ package com.deharri.ums.agency;
 
 import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.agency.entity.AgencyMember;
+import com.deharri.ums.agency.entity.AgencyMember.MembershipStatus;
 import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.entity.Worker.WorkerType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,11 +23,46 @@ public interface AgencyMemberRepository extends JpaRepository<AgencyMember, UUID
 
     List<AgencyMember> findByAgency(Agency agency);
 
-    /** Ordered for the "members history" view: ACTIVE first (most recent stint), then past. */
-    List<AgencyMember> findByAgencyOrderByMembershipStatusAscJoinedAtDesc(Agency agency);
+    String MEMBERSHIP_HISTORY_SELECT =
+            "SELECT m.memberId AS memberId, u.userId AS userId, w.workerId AS workerId, " +
+            "u.username AS username, u.firstName AS firstName, u.lastName AS lastName, " +
+            "w.workerType AS workerType, m.membershipStatus AS membershipStatus, " +
+            "m.joinedAt AS joinedAt, m.leftAt AS leftAt " +
+            "FROM AgencyMember m JOIN m.coreUser u LEFT JOIN Worker w ON w.coreUser = u " +
+            "WHERE m.agency = :agency ";
+
+    // ACTIVE first, then past stints; most recent first within each, member id breaks ties
+    String MEMBERSHIP_HISTORY_ORDER = "ORDER BY m.membershipStatus ASC, m.joinedAt DESC, m.memberId ASC";
+
+    /** First page of the "members history" view, with each member's worker profile joined in. */
+    @Query(MEMBERSHIP_HISTORY_SELECT + MEMBERSHIP_HISTORY_ORDER)
+    List<MembershipHistoryRow> findMembershipHistory(@Param("agency") Agency agency, Pageable pageable);
+
+    /** The "members history" rows that sort after the given one. */
+    @Query(MEMBERSHIP_HISTORY_SELECT +
+            "AND (m.membershipStatus > :status OR (m.membershipStatus = :status AND " +
+            "(m.joinedAt < :joinedAt OR (m.joinedAt = :joinedAt AND m.memberId > :memberId)))) " +
+            MEMBERSHIP_HISTORY_ORDER)
+    List<MembershipHistoryRow> findMembershipHistoryAfter(@Param("agency") Agency agency,
+                                                          @Param("status") MembershipStatus status,
+                                                          @Param("joinedAt") Instant joinedAt,
+                                                          @Param("memberId") UUID memberId,
+                                                          Pageable pageable);
 
     List<AgencyMember> findByCoreUser(CoreUser coreUser);
 
     boolean existsByAgencyAndCoreUser(Agency agency, CoreUser coreUser);
 
+    interface MembershipHistoryRow {
+        UUID getMemberId();
+        UUID getUserId();
+        UUID getWorkerId();
+        String getUsername();
+        String getFirstName();
+        String getLastName();
+        WorkerType getWorkerType();
+        MembershipStatus getMembershipStatus();
+        Instant getJoinedAt();
+        Instant getLeftAt();
+    }
 }
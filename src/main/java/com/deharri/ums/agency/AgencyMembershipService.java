@@ -0,0 +1,81 @@
+package com.deharri.ums.agency;
+
+import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.util.LruCache;
+import com.deharri.ums.worker.WorkerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Answers "is this worker in this agency" for job-service's dispatch checks.
+ *
+ * <p>A check is one existence query that finds the worker by primary key or unique user_id and
+ * compares its agency, so it costs the same whatever the agency's size. Answers are cached per
+ * (agencyId, id as asked) in a bounded LRU. {@link AgencyService} evicts a worker's entries when
+ * it joins or leaves an agency, and a TTL bounds staleness from writes that bypass it, such as
+ * another instance of this service.
+ */
+@Service
+public class AgencyMembershipService {
+
+    private final WorkerRepository workerRepository;
+    private final AgencyRepository agencyRepository;
+    private final LruCache<MembershipKey, CachedAnswer> answers;
+    private final long ttlNanos;
+
+    public AgencyMembershipService(WorkerRepository workerRepository,
+                                   AgencyRepository agencyRepository,
+                                   @Value("${agency.membership-cache.max-entries:10000}") int maxEntries,
+                                   @Value("${agency.membership-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.workerRepository = workerRepository;
+        this.agencyRepository = agencyRepository;
+        this.answers = new LruCache<>(maxEntries);
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+    }
+
+    /** {@code workerOrUserId} may be the worker id or the worker's user id. */
+    public boolean isMember(UUID agencyId, UUID workerOrUserId) {
+        MembershipKey key = new MembershipKey(agencyId, workerOrUserId);
+        CachedAnswer cached = answers.get(key);
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            return cached.member();
+        }
+
+        boolean member = workerRepository.existsInAgency(agencyId, workerOrUserId);
+        if (!member && !agencyRepository.existsById(agencyId)) {
+            throw new ResourceNotFoundException("Agency not found: " + agencyId);
+        }
+        answers.put(key, new CachedAnswer(member, System.nanoTime() + ttlNanos));
+        return member;
+    }
+
+    /**
+     * Drops cached answers for a worker whose membership of {@code agencyId} changed. Runs again
+     * after commit so a check racing the transaction cannot re-cache the old answer.
+     */
+    public void evict(UUID agencyId, UUID workerId, UUID userId) {
+        Runnable eviction = () -> {
+            answers.remove(new MembershipKey(agencyId, workerId));
+            answers.remove(new MembershipKey(agencyId, userId));
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private record MembershipKey(UUID agencyId, UUID workerOrUserId) {
+    }
+
+    private record CachedAnswer(boolean member, long expiresAt) {
+    }
+}
@@ -2,11 +2,19 @@ package com.deharri.ums.agency;
 
 import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.enums.AgencySubscriptionStatus;
+import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.user.entity.CoreUser;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,7 +26,181 @@ public interface AgencyRepository extends JpaRepository<Agency, UUID> {
 
     boolean existsByAgencyName(String agencyName);
 
-    List<Agency> findAllBySubscriptionStatusAndSubscriptionExpiresAtBefore(
-            AgencySubscriptionStatus status, LocalDateTime cutoff);
+    /** Active-only listing; served by idx_agency_subscription instead of filtering in Java. */
+    List<Agency> findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+            AgencySubscriptionStatus status, LocalDateTime now);
 
+    @Query("SELECT a.agencyId FROM Agency a " +
+            "WHERE a.subscriptionStatus = :status AND a.subscriptionExpiresAt < :cutoff")
+    List<UUID> findIdsBySubscriptionStatusAndSubscriptionExpiresAtBefore(
+            @Param("status") AgencySubscriptionStatus status,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
+    /**
+     * Set-based expiry for one chunk. The status/expiry predicate is repeated so an agency
+     * renewed between the id scan and this update is left untouched.
+     */
+    @Modifying
+    @Query("UPDATE Agency a SET a.subscriptionStatus = com.deharri.ums.enums.AgencySubscriptionStatus.EXPIRED, " +
+            "a.lastUpdatedAt = :now " +
+            "WHERE a.agencyId IN :ids " +
+            "AND a.subscriptionStatus = com.deharri.ums.enums.AgencySubscriptionStatus.ACTIVE " +
+            "AND a.subscriptionExpiresAt < :now")
+    int expireSubscriptions(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // The ids of a chunk that expireSubscriptions actually expired at :now
+    @Query("SELECT a.agencyId FROM Agency a WHERE a.agencyId IN :ids " +
+            "AND a.subscriptionStatus = com.deharri.ums.enums.AgencySubscriptionStatus.EXPIRED " +
+            "AND a.lastUpdatedAt = :now")
+    List<UUID> findIdsExpiredAt(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Applies a worker-count delta in one statement, so concurrent joins and leaves never
+     * overwrite each other and the agency is not loaded. Never drops below zero.
+     */
+    @Modifying
+    @Query("UPDATE Agency a SET a.totalWorkers = CASE WHEN COALESCE(a.totalWorkers, 0) + :delta < 0 THEN 0 " +
+            "ELSE COALESCE(a.totalWorkers, 0) + :delta END, a.lastUpdatedAt = :now " +
+            "WHERE a.agencyId = :agencyId")
+    int adjustTotalWorkers(@Param("agencyId") UUID agencyId, @Param("delta") int delta,
+                           @Param("now") LocalDateTime now);
+
+    // Agencies whose stored worker count disagrees with their active worker memberships; the
+    // owner's AGENCY_ADMIN row is not a worker and is left out, as it is by the join/leave deltas
+    @Query("SELECT a.agencyId FROM Agency a WHERE COALESCE(a.totalWorkers, -1) <> " +
+            "(SELECT COUNT(m) FROM AgencyMember m WHERE m.agency = a " +
+            "AND m.membershipStatus = com.deharri.ums.agency.entity.AgencyMember$MembershipStatus.ACTIVE " +
+            "AND m.agencyRole = com.deharri.ums.enums.AgencyRole.AGENCY_WORKER)")
+    List<UUID> findIdsWithDriftedTotalWorkers(Pageable pageable);
+
+    /** Recomputes the worker count of one chunk of agencies from their active worker memberships. */
+    @Modifying
+    @Query("UPDATE Agency a SET a.totalWorkers = " +
+            "(SELECT CAST(COUNT(m) AS Integer) FROM AgencyMember m WHERE m.agency = a " +
+            "AND m.membershipStatus = com.deharri.ums.agency.entity.AgencyMember$MembershipStatus.ACTIVE " +
+            "AND m.agencyRole = com.deharri.ums.enums.AgencyRole.AGENCY_WORKER), " +
+            "a.lastUpdatedAt = :now WHERE a.agencyId IN :ids")
+    int recountTotalWorkers(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // Keyset page of the agency change feed, ordered by (lastUpdatedAt, agencyId)
+    @Query("SELECT a FROM Agency a LEFT JOIN FETCH a.coreUser u LEFT JOIN FETCH u.userData " +
+            "WHERE a.lastUpdatedAt < :until " +
+            "AND (a.lastUpdatedAt > :after OR (a.lastUpdatedAt = :after AND a.agencyId > :afterId)) " +
+            "ORDER BY a.lastUpdatedAt, a.agencyId")
+    List<Agency> findChangedAfter(@Param("after") LocalDateTime after,
+                                  @Param("afterId") UUID afterId,
+                                  @Param("until") LocalDateTime until,
+                                  Pageable pageable);
+
+    // Summaries for a batch lookup in one query; each id may be an agency id or its owner's user id
+    @Query("SELECT a.agencyId AS agencyId, a.agencyName AS agencyName, u.userId AS ownerUserId, " +
+            "u.username AS ownerUsername, a.subscriptionStatus AS subscriptionStatus, " +
+            "a.subscriptionExpiresAt AS subscriptionExpiresAt " +
+            "FROM Agency a LEFT JOIN a.coreUser u " +
+            "WHERE a.agencyId IN :ids OR u.userId IN :ids")
+    List<SummaryRow> findSummariesByAgencyOrOwnerIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Discovery page of active agencies, best rated first. City and service city are optional;
+     * the subscription predicate is served by idx_agency_subscription and the service city by
+     * idx_agency_service_city.
+     */
+    @Query(value = "SELECT a.agencyId AS agencyId, a.agencyName AS agencyName, a.city AS city, " +
+            "a.verificationStatus AS verificationStatus, a.totalWorkers AS totalWorkers, " +
+            "a.averageRating AS averageRating, a.totalJobsCompleted AS totalJobsCompleted " +
+            "FROM Agency a " +
+            "WHERE a.subscriptionStatus = com.deharri.ums.enums.AgencySubscriptionStatus.ACTIVE " +
+            "AND a.subscriptionExpiresAt > :now " +
+            "AND (:city IS NULL OR a.city = :city) " +
+            "AND (:serviceCity IS NULL OR :serviceCity MEMBER OF a.serviceCities) " +
+            "ORDER BY a.averageRating DESC NULLS LAST, a.agencyId",
+            countQuery = "SELECT COUNT(a) FROM Agency a " +
+                    "WHERE a.subscriptionStatus = com.deharri.ums.enums.AgencySubscriptionStatus.ACTIVE " +
+                    "AND a.subscriptionExpiresAt > :now " +
+                    "AND (:city IS NULL OR a.city = :city) " +
+                    "AND (:serviceCity IS NULL OR :serviceCity MEMBER OF a.serviceCities)")
+    Page<DiscoveryRow> searchActive(@Param("city") PakistanCity city,
+                                    @Param("serviceCity") PakistanCity serviceCity,
+                                    @Param("now") LocalDateTime now,
+                                    Pageable pageable);
+
+    /**
+     * Discovery page of active agencies within {@code radiusKm} of a point, nearest first. The
+     * bounding box is a plain range on idx_agency_location, so the exact great-circle distance
+     * is only computed for agencies already close by. Enum filters are passed by name, and the id
+     * is read as text because not every driver returns a native UUID column as one.
+     */
+    @Query(value = """
+        SELECT * FROM (
+            SELECT CAST(a.agency_id AS VARCHAR(36)) AS agencyId, a.agency_name AS agencyName, a.city AS city,
+                a.verification_status AS verificationStatus, a.total_workers AS totalWorkers,
+                a.average_rating AS averageRating, a.total_jobs_completed AS totalJobsCompleted,
+                (6371 * acos(LEAST(1.0,
+                    cos(radians(:lat)) * cos(radians(a.latitude)) *
+                    cos(radians(a.longitude) - radians(:lng)) +
+                    sin(radians(:lat)) * sin(radians(a.latitude))
+                ))) AS distanceKm
+            FROM agency a
+            WHERE a.subscription_status = 'ACTIVE'
+            AND a.subscription_expires_at > :now
+            AND a.latitude BETWEEN :minLat AND :maxLat
+            AND a.longitude BETWEEN :minLng AND :maxLng
+            AND (:city IS NULL OR a.city = :city)
+            AND (:serviceCity IS NULL OR EXISTS (
+                SELECT 1 FROM agency_service_cities c
+                WHERE c.agency_id = a.agency_id AND c.city = :serviceCity))
+        ) nearby
+        WHERE nearby.distanceKm <= :radiusKm
+        ORDER BY nearby.distanceKm, nearby.agencyId
+        """, countQuery = """
+        SELECT COUNT(*) FROM agency a
+        WHERE a.subscription_status = 'ACTIVE'
+        AND a.subscription_expires_at > :now
+        AND a.latitude BETWEEN :minLat AND :maxLat
+        AND a.longitude BETWEEN :minLng AND :maxLng
+        AND (:city IS NULL OR a.city = :city)
+        AND (:serviceCity IS NULL OR EXISTS (
+            SELECT 1 FROM agency_service_cities c
+            WHERE c.agency_id = a.agency_id AND c.city = :serviceCity))
+        AND (6371 * acos(LEAST(1.0,
+            cos(radians(:lat)) * cos(radians(a.latitude)) *
+            cos(radians(a.longitude) - radians(:lng)) +
+            sin(radians(:lat)) * sin(radians(a.latitude))
+        ))) <= :radiusKm
+        """, nativeQuery = true)
+    Page<NearbyDiscoveryRow> searchActiveNearby(@Param("lat") double lat,
+                                                @Param("lng") double lng,
+                                                @Param("radiusKm") double radiusKm,
+                                                @Param("minLat") double minLat,
+                                                @Param("maxLat") double maxLat,
+                                                @Param("minLng") double minLng,
+                                                @Param("maxLng") double maxLng,
+                                                @Param("city") String city,
+                                                @Param("serviceCity") String serviceCity,
+                                                @Param("now") LocalDateTime now,
+                                                Pageable pageable);
+
+    interface DiscoveryRow {
+        UUID getAgencyId();
+        String getAgencyName();
+        PakistanCity getCity();
+        Agency.VerificationStatus getVerificationStatus();
+        Integer getTotalWorkers();
+        BigDecimal getAverageRating();
+        Integer getTotalJobsCompleted();
+    }
+
+    interface NearbyDiscoveryRow extends DiscoveryRow {
+        Double getDistanceKm();
+    }
+
+    interface SummaryRow {
+        UUID getAgencyId();
+        String getAgencyName();
+        UUID getOwnerUserId();
+        String getOwnerUsername();
+        AgencySubscriptionStatus getSubscriptionStatus();
+        LocalDateTime getSubscriptionExpiresAt();
+    }
 }
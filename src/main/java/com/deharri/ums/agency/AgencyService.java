@@ -5,43 +5,84 @@ import com.deharri.ums.agency.dto.request.UpdateAgencyDto;
 import com.deharri.ums.agency.dto.response.AgencyListItemDto;
 import com.deharri.ums.agency.dto.response.AgencyMembershipHistoryDto;
 import com.deharri.ums.agency.dto.response.AgencyProfileResponseDto;
+import com.deharri.ums.agency.dto.response.AgencySearchPageDto;
 import com.deharri.ums.agency.dto.response.AgencySentInvitationDto;
+import com.deharri.ums.agency.dto.response.BulkInviteResultDto;
+import com.deharri.ums.agency.dto.response.KeysetPageDto;
 import com.deharri.ums.agency.dto.response.WorkerInvitationDto;
 import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.agency.entity.AgencyMember;
 import com.deharri.ums.agency.entity.WorkerAgencyInvitation;
 import com.deharri.ums.agency.mapper.AgencyMapper;
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.upload.MediaUploadService;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
+import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.error.exception.AuthorizationException;
 import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
 import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.outbox.EventTypes;
+import com.deharri.ums.outbox.OutboxWriter;
+import com.deharri.ums.outbox.payload.AgencyMembershipChangedPayload;
 import com.deharri.ums.permission.PermissionService;
 import com.deharri.ums.user.dto.response.ResponseMessageDto;
+import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.worker.WorkerRepository;
 import com.deharri.ums.worker.dto.response.WorkerListItemDto;
 import com.deharri.ums.worker.mapper.WorkerMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class AgencyService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_VIEW_PAGE_SIZE = 100;
+    private static final double MAX_SEARCH_RADIUS_KM = 200;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.045;
+    private static final int MAX_BULK_INVITE_WORKERS = 200;
+
+    private static final String INSERT_PENDING_INVITATION =
+            "INSERT INTO worker_agency_invitations " +
+            "(invitation_id, worker_id, agency_id, status, created_at, last_updated_at) " +
+            "VALUES (?, ?, ?, 'PENDING', ?, ?)";
+
     private final AgencyRepository agencyRepository;
     private final AgencyMemberRepository agencyMemberRepository;
     private final AgencyMapper agencyMapper;
     private final PermissionService permissionService;
     private final S3Service s3Service;
+    private final MediaUploadService mediaUploadService;
+    private final StorageDeletionQueue storageDeletionQueue;
     private final WorkerRepository workerRepository;
     private final WorkerMapper workerMapper;
     private final WorkerAgencyInvitationRepository invitationRepository;
+    private final AgencyMembershipService agencyMembershipService;
+    private final OutboxWriter outboxWriter;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional
     public ResponseMessageDto createAgency(CreateAgencyDto createAgencyDto) {
@@ -74,12 +115,61 @@ public class AgencyService {
     }
 
     public List<AgencyListItemDto> getAllAgencies() {
-        return agencyRepository.findAll().stream()
-                .filter(Agency::isSubscriptionActive)
+        return agencyRepository
+                .findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+                        AgencySubscriptionStatus.ACTIVE, LocalDateTime.now())
+                .stream()
                 .map(agencyMapper::agencyToListItemDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Active agencies matching the optional city and service-city filters, a page at a time.
+     * Given a location, only agencies within {@code radiusKm} of it are returned, nearest first;
+     * otherwise best rated first. Filtering, ordering and paging all happen in the query.
+     */
+    public AgencySearchPageDto searchAgencies(PakistanCity city, PakistanCity serviceCity,
+                                              Double lat, Double lng, double radiusKm, int page, int size) {
+        if ((lat == null) != (lng == null)) {
+            throw new CustomDataIntegrityViolationException("lat and lng must be given together");
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+        if (lat == null) {
+            return toSearchPage(agencyRepository.searchActive(city, serviceCity, now, pageable)
+                    .map(agencyMapper::discoveryRowToListItemDto));
+        }
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new CustomDataIntegrityViolationException("lat must be within ±90 and lng within ±180");
+        }
+
+        // Same bounds as the nearby worker search
+        double radius = Math.min(Math.max(radiusKm, 1), MAX_SEARCH_RADIUS_KM);
+        // A degree of longitude shrinks towards the poles, so the box widens to keep the circle inside
+        double latDelta = radius / KM_PER_DEGREE_LATITUDE;
+        double lngDelta = radius / (KM_PER_DEGREE_LATITUDE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        Page<AgencyRepository.NearbyDiscoveryRow> rows = agencyRepository.searchActiveNearby(
+                lat, lng, radius, lat - latDelta, lat + latDelta, lng - lngDelta, lng + lngDelta,
+                city == null ? null : city.name(),
+                serviceCity == null ? null : serviceCity.name(),
+                now, pageable);
+        return toSearchPage(rows.map(row -> {
+            AgencyListItemDto dto = agencyMapper.discoveryRowToListItemDto(row);
+            dto.setDistanceKm(Math.round(row.getDistanceKm() * 10.0) / 10.0);
+            return dto;
+        }));
+    }
+
+    private static AgencySearchPageDto toSearchPage(Page<AgencyListItemDto> page) {
+        return AgencySearchPageDto.builder()
+                .items(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+
     public AgencyProfileResponseDto getAgencyById(String agencyId) {
         UUID id = UUID.fromString(agencyId);
         Agency agency = agencyRepository.findById(id)
@@ -113,38 +203,59 @@ public class AgencyService {
             throw new CustomDataIntegrityViolationException("Agency with this name already exists");
         }
 
+        boolean renamed = updateDto.getAgencyName() != null
+                && !updateDto.getAgencyName().equals(agency.getAgencyName());
         agencyMapper.updateAgencyFromDto(updateDto, agency);
         agencyRepository.save(agency);
+        if (renamed) {
+            // Worker feed items carry the agency name
+            workerRepository.markChangedByAgencyId(agency.getAgencyId(), LocalDateTime.now());
+        }
 
         return new ResponseMessageDto("Agency profile updated successfully");
     }
 
-    @Transactional
     public ResponseMessageDto uploadLicenseDocument(MultipartFile licenseDocument) {
         var currentUser = permissionService.getLoggedInUser();
-        Agency agency = agencyRepository.findByCoreUser(currentUser)
-                .orElseThrow(() -> new AuthorizationException("Agency account not found for current user"));
-        if (!agency.isSubscriptionActive()) {
-            throw new AuthorizationException("Agency subscription is inactive. Renew to continue.");
-        }
-
-        // Delete old license document if exists
-        if (agency.getLicensePath() != null && !agency.getLicensePath().isBlank()) {
-            s3Service.deleteFile(agency.getLicensePath());
-        }
+        Agency agency = findSubscribedAgency(currentUser);
 
         String licensePath = s3Service.generateFileKey(
                 currentUser.getUserId(),
                 Objects.requireNonNull(licenseDocument.getOriginalFilename())
         );
-        s3Service.uploadFile(licenseDocument, licensePath);
+        mediaUploadService.uploadAll(currentUser.getUserId(), Map.of(licensePath, licenseDocument));
+        attachLicense(agency, licensePath);
 
-        agency.setLicensePath(licensePath);
-        agencyRepository.save(agency);
+        return new ResponseMessageDto("License document uploaded successfully");
+    }
 
+    /**
+     * Attaches a license document the client uploaded straight to storage through an upload intent.
+     */
+    public ResponseMessageDto attachUploadedLicenseDocument(String licensePath) {
+        attachLicense(findSubscribedAgency(permissionService.getLoggedInUser()), licensePath);
         return new ResponseMessageDto("License document uploaded successfully");
     }
 
+    private Agency findSubscribedAgency(CoreUser currentUser) {
+        Agency agency = agencyRepository.findByCoreUser(currentUser)
+                .orElseThrow(() -> new AuthorizationException("Agency account not found for current user"));
+        if (!agency.isSubscriptionActive()) {
+            throw new AuthorizationException("Agency subscription is inactive. Renew to continue.");
+        }
+        return agency;
+    }
+
+    private void attachLicense(Agency agency, String licensePath) {
+        String oldLicensePath = agency.getLicensePath();
+        mediaUploadService.commit(List.of(licensePath), () -> {
+            agency.setLicensePath(licensePath);
+            agencyRepository.save(agency);
+            // Delete old license document only once the new one is attached
+            storageDeletionQueue.enqueue(oldLicensePath);
+        });
+    }
+
     @Transactional
     public ResponseMessageDto removeWorkerFromAgency(String workerId) {
         var currentUser = permissionService.getLoggedInUser();
@@ -164,6 +275,8 @@ public class AgencyService {
 
         worker.setAgency(null);
         workerRepository.save(worker);
+        agencyMembershipService.evict(agency.getAgencyId(), worker.getWorkerId(), worker.getCoreUser().getUserId());
+        publishMembershipChange(agency, worker, AgencyMembershipChangedPayload.Change.REMOVED);
 
         // Soft-end the membership so we keep the history record (joinedAt/leftAt/status).
         agencyMemberRepository.findByAgencyAndCoreUser(agency, worker.getCoreUser())
@@ -175,8 +288,7 @@ public class AgencyService {
                     }
                 });
 
-        agency.setTotalWorkers(Math.max(0, agency.getTotalWorkers() - 1));
-        agencyRepository.save(agency);
+        agencyRepository.adjustTotalWorkers(agency.getAgencyId(), -1, LocalDateTime.now());
 
         return new ResponseMessageDto("Worker removed from agency");
     }
@@ -201,6 +313,8 @@ public class AgencyService {
 
         worker.setAgency(null);
         workerRepository.save(worker);
+        agencyMembershipService.evict(agency.getAgencyId(), worker.getWorkerId(), worker.getCoreUser().getUserId());
+        publishMembershipChange(agency, worker, AgencyMembershipChangedPayload.Change.LEFT);
 
         agencyMemberRepository.findByAgencyAndCoreUser(agency, worker.getCoreUser())
                 .ifPresent(member -> {
@@ -211,8 +325,7 @@ public class AgencyService {
                     }
                 });
 
-        agency.setTotalWorkers(Math.max(0, agency.getTotalWorkers() - 1));
-        agencyRepository.save(agency);
+        agencyRepository.adjustTotalWorkers(agency.getAgencyId(), -1, LocalDateTime.now());
 
         return new ResponseMessageDto("You have left " + agency.getAgencyName());
     }
@@ -256,6 +369,72 @@ public class AgencyService {
         return new ResponseMessageDto("Invitation sent to worker");
     }
 
+    /**
+     * Invites up to {@value #MAX_BULK_INVITE_WORKERS} workers at once, for agencies onboarding a
+     * crew. Applies the same rules as {@link #inviteWorkerToAgency} but reports each worker's
+     * outcome instead of failing the batch. The workers' current agencies and the agency's pending
+     * invitations are each read in one query, and the new invitations are inserted as one JDBC
+     * batch, all in a single transaction.
+     */
+    @Transactional
+    public BulkInviteResultDto inviteWorkersToAgency(List<UUID> workerIds) {
+        var currentUser = permissionService.getLoggedInUser();
+        Agency agency = agencyRepository.findByCoreUser(currentUser)
+                .orElseThrow(() -> new AuthorizationException("Agency not found"));
+        if (!agency.isSubscriptionActive()) {
+            throw new AuthorizationException("Agency subscription is inactive. Renew to continue.");
+        }
+        Set<UUID> requested = new LinkedHashSet<>(workerIds);
+        if (requested.size() > MAX_BULK_INVITE_WORKERS) {
+            throw new CustomDataIntegrityViolationException(
+                    "At most " + MAX_BULK_INVITE_WORKERS + " workers can be invited per request");
+        }
+
+        // Every existing worker gets a key; the value is null while they are in no agency
+        Map<UUID, UUID> agencyByWorker = new HashMap<>();
+        workerRepository.findAgencyAffiliations(requested)
+                .forEach(row -> agencyByWorker.put(row.getWorkerId(), row.getAgencyId()));
+        Set<UUID> pending = new HashSet<>(invitationRepository.findPendingWorkerIds(agency, requested));
+
+        List<BulkInviteResultDto.WorkerOutcome> outcomes = new ArrayList<>(requested.size());
+        List<UUID> toInvite = new ArrayList<>();
+        for (UUID workerId : requested) {
+            UUID currentAgencyId = agencyByWorker.get(workerId);
+            BulkInviteResultDto.Outcome outcome;
+            if (!agencyByWorker.containsKey(workerId)) {
+                outcome = BulkInviteResultDto.Outcome.NOT_FOUND;
+            } else if (agency.getAgencyId().equals(currentAgencyId)) {
+                outcome = BulkInviteResultDto.Outcome.ALREADY_MEMBER;
+            } else if (currentAgencyId != null) {
+                outcome = BulkInviteResultDto.Outcome.IN_OTHER_AGENCY;
+            } else if (pending.contains(workerId)) {
+                outcome = BulkInviteResultDto.Outcome.ALREADY_PENDING;
+            } else {
+                outcome = BulkInviteResultDto.Outcome.INVITED;
+                toInvite.add(workerId);
+            }
+            outcomes.add(new BulkInviteResultDto.WorkerOutcome(workerId, outcome));
+        }
+
+        if (!toInvite.isEmpty()) {
+            // Stamped explicitly because JPA auditing does not see JDBC inserts
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_PENDING_INVITATION, toInvite, toInvite.size(), (ps, workerId) -> {
+                ps.setObject(1, UUID.randomUUID());
+                ps.setObject(2, workerId);
+                ps.setObject(3, agency.getAgencyId());
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+            });
+        }
+
+        return BulkInviteResultDto.builder()
+                .invited(toInvite.size())
+                .skipped(requested.size() - toInvite.size())
+                .workers(outcomes)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public List<WorkerInvitationDto> getMyPendingInvitations() {
         var currentUser = permissionService.getLoggedInUser();
@@ -303,6 +482,8 @@ public class AgencyService {
             com.deharri.ums.worker.entity.Worker worker = invite.getWorker();
             worker.setAgency(agency);
             workerRepository.save(worker);
+            agencyMembershipService.evict(agency.getAgencyId(), worker.getWorkerId(), worker.getCoreUser().getUserId());
+            publishMembershipChange(agency, worker, AgencyMembershipChangedPayload.Change.JOINED);
 
             // If a prior membership row exists for this (agency, user) — they're rejoining.
             // Reuse the row, refresh joinedAt, clear leftAt, set status=ACTIVE.
@@ -319,8 +500,7 @@ public class AgencyService {
                             .joinedAt(java.time.Instant.now())
                             .membershipStatus(AgencyMember.MembershipStatus.ACTIVE)
                             .build()));
-            agency.setTotalWorkers(agency.getTotalWorkers() + 1);
-            agencyRepository.save(agency);
+            agencyRepository.adjustTotalWorkers(agency.getAgencyId(), 1, LocalDateTime.now());
             invitationRepository.save(invite);
             return new ResponseMessageDto("Invitation accepted; you are now in " + agency.getAgencyName());
         } else {
@@ -330,6 +510,14 @@ public class AgencyService {
         }
     }
 
+    // Keyed by worker so a worker's leave and join events reach consumers in order
+    private void publishMembershipChange(Agency agency, com.deharri.ums.worker.entity.Worker worker,
+                                         AgencyMembershipChangedPayload.Change change) {
+        outboxWriter.append(EventTypes.AGENCY_MEMBERSHIP_CHANGED, worker.getWorkerId(),
+                new AgencyMembershipChangedPayload(agency.getAgencyId(), worker.getWorkerId(),
+                        worker.getCoreUser().getUserId(), change));
+    }
+
     public List<WorkerListItemDto> listAgencyWorkers(String agencyId) {
         UUID id = UUID.fromString(agencyId);
         Agency agency = agencyRepository.findById(id)
@@ -340,69 +528,75 @@ public class AgencyService {
     }
 
     /**
-     * Returns the full membership history (current + past) of the calling user's agency.
-     * Drives the "members history" admin view; per-worker analytics (jobs done, earnings)
-     * are queried from job-service / payment-service separately.
+     * Returns the membership history (current + past) of the calling user's agency, one keyset
+     * page at a time. Drives the "members history" admin view; per-worker analytics (jobs done,
+     * earnings) are queried from job-service / payment-service separately.
      */
     @Transactional(readOnly = true)
-    public List<AgencyMembershipHistoryDto> getMyAgencyMembersHistory() {
-        var currentUser = permissionService.getLoggedInUser();
-        Agency agency = agencyRepository.findByCoreUser(currentUser)
-                .orElseThrow(() -> new AuthorizationException("Agency not found"));
-
-        return agencyMemberRepository
-                .findByAgencyOrderByMembershipStatusAscJoinedAtDesc(agency)
-                .stream()
-                .map(this::toMembershipHistoryDto)
-                .collect(Collectors.toList());
-    }
+    public KeysetPageDto<AgencyMembershipHistoryDto> getMyAgencyMembersHistory(String cursor, int size) {
+        Agency agency = getCallerAgency();
+        Pageable firstRows = viewPage(size);
 
-    private AgencyMembershipHistoryDto toMembershipHistoryDto(AgencyMember m) {
-        var u = m.getCoreUser();
-        var workerOpt = workerRepository.findByCoreUser_UserId(u.getUserId());
-        return AgencyMembershipHistoryDto.builder()
-                .memberId(m.getMemberId())
-                .userId(u.getUserId())
-                .workerId(workerOpt.map(com.deharri.ums.worker.entity.Worker::getWorkerId).orElse(null))
-                .username(u.getUsername())
-                .firstName(u.getFirstName())
-                .lastName(u.getLastName())
-                .workerType(workerOpt.map(w -> w.getWorkerType() != null ? w.getWorkerType().name() : null).orElse(null))
-                .membershipStatus(m.getMembershipStatus())
-                .joinedAt(m.getJoinedAt())
-                .leftAt(m.getLeftAt())
-                .build();
+        List<AgencyMemberRepository.MembershipHistoryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = agencyMemberRepository.findMembershipHistory(agency, firstRows);
+        } else {
+            MembershipHistoryKey after = KeysetCursor.decode(cursor, 3, key -> new MembershipHistoryKey(
+                    AgencyMember.MembershipStatus.valueOf(key[0]), Instant.parse(key[1]), UUID.fromString(key[2])));
+            rows = agencyMemberRepository.findMembershipHistoryAfter(
+                    agency, after.status(), after.joinedAt(), after.memberId(), firstRows);
+        }
+        return toKeysetPage(rows, firstRows.getPageSize() - 1, agencyMapper::membershipHistoryRowToDto,
+                last -> KeysetCursor.encode(last.getMembershipStatus(), last.getJoinedAt(), last.getMemberId()));
     }
 
     /**
-     * Returns every invitation the calling user's agency has ever sent — pending,
-     * accepted, and rejected — newest first. Drives the dashboard "Invitations" view.
+     * Returns the invitations the calling user's agency has ever sent — pending, accepted, and
+     * rejected — newest first, one keyset page at a time. Drives the dashboard "Invitations" view.
      */
     @Transactional(readOnly = true)
-    public List<AgencySentInvitationDto> getMyAgencyInvitations() {
+    public KeysetPageDto<AgencySentInvitationDto> getMyAgencyInvitations(String cursor, int size) {
+        Agency agency = getCallerAgency();
+        Pageable firstRows = viewPage(size);
+
+        List<WorkerAgencyInvitationRepository.SentInvitationRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = invitationRepository.findSentInvitations(agency, firstRows);
+        } else {
+            SentInvitationKey after = KeysetCursor.decode(cursor, 2, key -> new SentInvitationKey(
+                    LocalDateTime.parse(key[0]), UUID.fromString(key[1])));
+            rows = invitationRepository.findSentInvitationsAfter(
+                    agency, after.createdAt(), after.invitationId(), firstRows);
+        }
+        return toKeysetPage(rows, firstRows.getPageSize() - 1, agencyMapper::sentInvitationRowToDto,
+                last -> KeysetCursor.encode(last.getCreatedAt(), last.getInvitationId()));
+    }
+
+    private Agency getCallerAgency() {
         var currentUser = permissionService.getLoggedInUser();
-        Agency agency = agencyRepository.findByCoreUser(currentUser)
+        return agencyRepository.findByCoreUser(currentUser)
                 .orElseThrow(() -> new AuthorizationException("Agency not found"));
+    }
 
-        return invitationRepository.findByAgencyOrderByCreatedAtDesc(agency).stream()
-                .map(this::toSentInvitationDto)
-                .collect(Collectors.toList());
+    // Fetches one row beyond the page, whose presence tells whether another page follows
+    private static Pageable viewPage(int size) {
+        return PageRequest.of(0, Math.min(Math.max(size, 1), MAX_VIEW_PAGE_SIZE) + 1);
     }
 
-    private AgencySentInvitationDto toSentInvitationDto(WorkerAgencyInvitation inv) {
-        var worker = inv.getWorker();
-        var user = worker.getCoreUser();
-        return AgencySentInvitationDto.builder()
-                .invitationId(inv.getInvitationId())
-                .workerId(worker.getWorkerId())
-                .workerUserId(user.getUserId())
-                .workerUsername(user.getUsername())
-                .workerFirstName(user.getFirstName())
-                .workerLastName(user.getLastName())
-                .workerType(worker.getWorkerType() != null ? worker.getWorkerType().name() : null)
-                .status(inv.getStatus().name())
-                .createdAt(inv.getCreatedAt())
-                .respondedAt(inv.getRespondedAt())
+    private static <R, D> KeysetPageDto<D> toKeysetPage(List<R> rows, int size, Function<R, D> toDto,
+                                                        Function<R, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<R> page = hasMore ? rows.subList(0, size) : rows;
+        return KeysetPageDto.<D>builder()
+                .items(page.stream().map(toDto).collect(Collectors.toList()))
+                .nextCursor(hasMore ? cursorOf.apply(page.get(size - 1)) : null)
+                .hasMore(hasMore)
                 .build();
     }
+
+    private record MembershipHistoryKey(AgencyMember.MembershipStatus status, Instant joinedAt, UUID memberId) {
+    }
+
+    private record SentInvitationKey(LocalDateTime createdAt, UUID invitationId) {
+    }
 }
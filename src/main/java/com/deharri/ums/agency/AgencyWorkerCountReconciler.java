@@ -0,0 +1,54 @@
+package com.deharri.ums.agency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recomputes {@code Agency.totalWorkers} from active AGENCY_WORKER {@code agency_members} rows.
+ *
+ * <p>Joins and leaves adjust the count with relative updates as they happen; this sweep is the
+ * backstop for counts that drifted anyway, such as a delta racing a recount or memberships
+ * written outside the service. Each run scans for agencies whose count disagrees with their
+ * memberships and recounts them in fixed-size chunks, each in its own short transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgencyWorkerCountReconciler {
+
+    private final AgencyRepository agencyRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${agency.worker-count.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(
+            fixedDelayString = "${agency.worker-count.reconcile-fixed-delay-ms:3600000}",
+            initialDelayString = "${agency.worker-count.reconcile-initial-delay-ms:300000}")
+    public void reconcile() {
+        int total = 0;
+        while (true) {
+            Integer recounted = transactionTemplate.execute(status -> {
+                List<UUID> ids = agencyRepository.findIdsWithDriftedTotalWorkers(PageRequest.of(0, chunkSize));
+                return ids.isEmpty() ? 0 : agencyRepository.recountTotalWorkers(ids, LocalDateTime.now());
+            });
+            // Recounted rows drop out of the scan; a no-op chunk ends the run rather than spinning
+            if (recounted == null || recounted == 0) {
+                break;
+            }
+            total += recounted;
+        }
+        if (total > 0) {
+            log.warn("Corrected the worker count of {} agencies", total);
+        }
+    }
+}
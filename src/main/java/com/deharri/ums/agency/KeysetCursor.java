@@ -0,0 +1,41 @@
+package com.deharri.ums.agency;
+
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque position in a keyset-paged agency view: the sort key of the last row returned.
+ * Clients send {@code nextCursor} back unchanged to continue after that row.
+ */
+final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(Object... sortKey) {
+        StringBuilder raw = new StringBuilder(VERSION);
+        for (Object part : sortKey) {
+            raw.append('|').append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <T> T decode(String cursor, int fields, Function<String[], T> parse) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != fields + 1 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            String[] sortKey = new String[fields];
+            System.arraycopy(parts, 1, sortKey, 0, fields);
+            return parse.apply(sortKey);
+        } catch (RuntimeException e) {
+            throw new CustomDataIntegrityViolationException("Invalid page cursor");
+        }
+    }
+}
@@ -3,9 +3,16 @@ package com.deharri.ums.agency;
 import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.agency.entity.WorkerAgencyInvitation;
 import com.deharri.ums.worker.entity.Worker;
+import com.deharri.ums.worker.entity.Worker.WorkerType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +26,47 @@ public interface WorkerAgencyInvitationRepository extends JpaRepository<WorkerAg
     List<WorkerAgencyInvitation> findByWorkerAndStatusOrderByCreatedAtDesc(
             Worker worker, WorkerAgencyInvitation.Status status);
 
-    /** All invitations sent by an agency, newest first. Used by the dashboard. */
-    List<WorkerAgencyInvitation> findByAgencyOrderByCreatedAtDesc(Agency agency);
+    // Which of the given workers already have a pending invitation from the agency, in one query
+    @Query("SELECT i.worker.workerId FROM WorkerAgencyInvitation i WHERE i.agency = :agency " +
+            "AND i.status = com.deharri.ums.agency.entity.WorkerAgencyInvitation$Status.PENDING " +
+            "AND i.worker.workerId IN :workerIds")
+    List<UUID> findPendingWorkerIds(@Param("agency") Agency agency,
+                                    @Param("workerIds") Collection<UUID> workerIds);
+
+    String SENT_INVITATION_SELECT =
+            "SELECT i.invitationId AS invitationId, w.workerId AS workerId, u.userId AS workerUserId, " +
+            "u.username AS workerUsername, u.firstName AS workerFirstName, u.lastName AS workerLastName, " +
+            "w.workerType AS workerType, i.status AS status, i.createdAt AS createdAt, " +
+            "i.respondedAt AS respondedAt " +
+            "FROM WorkerAgencyInvitation i JOIN i.worker w JOIN w.coreUser u " +
+            "WHERE i.agency = :agency ";
+
+    // Newest first, invitation id breaks ties
+    String SENT_INVITATION_ORDER = "ORDER BY i.createdAt DESC, i.invitationId ASC";
+
+    /** First page of the invitations an agency has sent, with the invited worker joined in. */
+    @Query(SENT_INVITATION_SELECT + SENT_INVITATION_ORDER)
+    List<SentInvitationRow> findSentInvitations(@Param("agency") Agency agency, Pageable pageable);
+
+    /** The sent invitations that sort after the given one. */
+    @Query(SENT_INVITATION_SELECT +
+            "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.invitationId > :invitationId)) " +
+            SENT_INVITATION_ORDER)
+    List<SentInvitationRow> findSentInvitationsAfter(@Param("agency") Agency agency,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("invitationId") UUID invitationId,
+                                                     Pageable pageable);
+
+    interface SentInvitationRow {
+        UUID getInvitationId();
+        UUID getWorkerId();
+        UUID getWorkerUserId();
+        String getWorkerUsername();
+        String getWorkerFirstName();
+        String getWorkerLastName();
+        WorkerType getWorkerType();
+        WorkerAgencyInvitation.Status getStatus();
+        LocalDateTime getCreatedAt();
+        Instant getRespondedAt();
+    }
 }
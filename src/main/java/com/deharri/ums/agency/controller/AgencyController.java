@@ -1,10 +1,17 @@
 package com.deharri.ums.agency.controller;
 
 import com.deharri.ums.agency.AgencyService;
+import com.deharri.ums.agency.dto.request.BulkInviteWorkersDto;
 import com.deharri.ums.agency.dto.request.CreateAgencyDto;
 import com.deharri.ums.agency.dto.request.UpdateAgencyDto;
 import com.deharri.ums.agency.dto.response.AgencyListItemDto;
+import com.deharri.ums.agency.dto.response.AgencyMembershipHistoryDto;
 import com.deharri.ums.agency.dto.response.AgencyProfileResponseDto;
+import com.deharri.ums.agency.dto.response.AgencySearchPageDto;
+import com.deharri.ums.agency.dto.response.AgencySentInvitationDto;
+import com.deharri.ums.agency.dto.response.BulkInviteResultDto;
+import com.deharri.ums.agency.dto.response.KeysetPageDto;
+import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.user.dto.response.ResponseMessageDto;
 import com.deharri.ums.worker.dto.response.WorkerListItemDto;
 import jakarta.validation.Valid;
@@ -35,6 +42,22 @@ public class AgencyController {
         return ResponseEntity.ok(agencyService.getAllAgencies());
     }
 
+    /**
+     * Paged discovery of active agencies. {@code lat}/{@code lng} turn it into a radius search,
+     * nearest first, with {@code radiusKm} capped at 200.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<AgencySearchPageDto> searchAgencies(
+            @RequestParam(required = false) PakistanCity city,
+            @RequestParam(required = false) PakistanCity serviceCity,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(agencyService.searchAgencies(city, serviceCity, lat, lng, radiusKm, page, size));
+    }
+
     @GetMapping("/{agencyId}")
     public ResponseEntity<AgencyProfileResponseDto> getAgencyById(@PathVariable String agencyId) {
         return ResponseEntity.ok(agencyService.getAgencyById(agencyId));
@@ -64,6 +87,12 @@ public class AgencyController {
         return ResponseEntity.status(HttpStatus.CREATED).body(agencyService.inviteWorkerToAgency(workerId));
     }
 
+    /** Invites several workers at once; the result reports each worker's outcome in request order. */
+    @PostMapping("/workers/invite")
+    public ResponseEntity<BulkInviteResultDto> inviteWorkers(@Valid @RequestBody BulkInviteWorkersDto request) {
+        return ResponseEntity.ok(agencyService.inviteWorkersToAgency(request.getWorkerIds()));
+    }
+
     @GetMapping("/invitations/my")
     public ResponseEntity<java.util.List<com.deharri.ums.agency.dto.response.WorkerInvitationDto>> getMyInvitations() {
         return ResponseEntity.ok(agencyService.getMyPendingInvitations());
@@ -94,16 +123,21 @@ public class AgencyController {
 
     /**
      * Returns the membership history of the calling user's agency — current and past members
-     * with joined/left timestamps and final status. Caller must own an agency.
+     * with joined/left timestamps and final status. Caller must own an agency. Keyset-paged:
+     * pass the previous page's {@code nextCursor} to continue.
      */
     @GetMapping("/me/members/history")
-    public ResponseEntity<List<com.deharri.ums.agency.dto.response.AgencyMembershipHistoryDto>> getMyMembersHistory() {
-        return ResponseEntity.ok(agencyService.getMyAgencyMembersHistory());
+    public ResponseEntity<KeysetPageDto<AgencyMembershipHistoryDto>> getMyMembersHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(agencyService.getMyAgencyMembersHistory(cursor, size));
     }
 
-    /** Returns invitations sent by the calling user's agency — pending, accepted, rejected. */
+    /** Returns invitations sent by the calling user's agency — pending, accepted, rejected. Keyset-paged. */
     @GetMapping("/me/invitations")
-    public ResponseEntity<List<com.deharri.ums.agency.dto.response.AgencySentInvitationDto>> getMyAgencyInvitations() {
-        return ResponseEntity.ok(agencyService.getMyAgencyInvitations());
+    public ResponseEntity<KeysetPageDto<AgencySentInvitationDto>> getMyAgencyInvitations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(agencyService.getMyAgencyInvitations(cursor, size));
     }
 }
@@ -1,6 +1,7 @@
 package com.deharri.ums.agency.controller;
 
 import com.deharri.ums.agency.AgencyMemberRepository;
+import com.deharri.ums.agency.AgencyMembershipService;
 import com.deharri.ums.agency.AgencyRepository;
 import com.deharri.ums.agency.dto.request.UpdateAgencyStatsDto;
 import com.deharri.ums.agency.dto.response.InternalAgencyDto;
@@ -10,10 +11,19 @@ import com.deharri.ums.enums.AgencyRole;
 import com.deharri.ums.enums.AgencySubscriptionStatus;
 import com.deharri.ums.enums.UserRole;
 import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.sync.BatchLookupService;
+import com.deharri.ums.sync.BulkStatsService;
+import com.deharri.ums.sync.DeltaSyncService;
+import com.deharri.ums.sync.RatingTotals;
+import com.deharri.ums.sync.dto.BatchLookupRequestDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateRequestDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto;
+import com.deharri.ums.sync.dto.DeltaPageDto;
 import com.deharri.ums.user.dto.response.ResponseMessageDto;
-import com.deharri.ums.user.entity.CoreUser;
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +40,23 @@ public class AgencyInternalController {
 
     private final AgencyRepository agencyRepository;
     private final AgencyMemberRepository agencyMemberRepository;
+    private final DeltaSyncService deltaSyncService;
+    private final BatchLookupService batchLookupService;
+    private final BulkStatsService bulkStatsService;
+    private final AgencyMembershipService agencyMembershipService;
+
+    @GetMapping("/changes")
+    public ResponseEntity<DeltaPageDto<InternalAgencyDto>> getAgencyChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(deltaSyncService.agencyChanges(since, cursor, limit));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<UUID, InternalAgencyDto>> getAgenciesByIds(@Valid @RequestBody BatchLookupRequestDto request) {
+        return ResponseEntity.ok(batchLookupService.findAgencies(request.getIds()));
+    }
 
     @GetMapping("/{agencyId}")
     @Transactional(readOnly = true)
@@ -37,30 +64,17 @@ public class AgencyInternalController {
         UUID id = UUID.fromString(agencyId);
         Agency agency = agencyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Agency not found: " + agencyId));
-        CoreUser owner = agency.getCoreUser();
-        return ResponseEntity.ok(InternalAgencyDto.builder()
-                .agencyId(agency.getAgencyId())
-                .agencyName(agency.getAgencyName())
-                .ownerUserId(owner != null ? owner.getUserId() : null)
-                .ownerUsername(owner != null ? owner.getUsername() : null)
-                .subscriptionActive(agency.isSubscriptionActive())
-                .build());
+        return ResponseEntity.ok(InternalAgencyDto.from(agency));
     }
 
     @GetMapping("/{agencyId}/workers/{workerId}/membership")
-    @Transactional(readOnly = true)
     public ResponseEntity<Map<String, Boolean>> isWorkerInAgency(
             @PathVariable String agencyId,
             @PathVariable String workerId) {
         UUID aId = UUID.fromString(agencyId);
         UUID id = UUID.fromString(workerId);
-        Agency agency = agencyRepository.findById(aId)
-                .orElseThrow(() -> new ResourceNotFoundException("Agency not found: " + agencyId));
-        // Defensive: callers historically passed either the user-id or the worker-entity id.
-        // Match against both so the check is robust to either convention.
-        boolean member = agency.getWorkers() != null && agency.getWorkers().stream()
-                .anyMatch(w -> id.equals(w.getWorkerId())
-                        || (w.getCoreUser() != null && id.equals(w.getCoreUser().getUserId())));
+        // Callers historically passed either the user-id or the worker-entity id; both are accepted.
+        boolean member = agencyMembershipService.isMember(aId, id);
         return ResponseEntity.ok(Map.of("member", member));
     }
 
@@ -101,24 +115,41 @@ public class AgencyInternalController {
         return ResponseEntity.ok(new ResponseMessageDto("Agency subscription activated until " + newExpiry));
     }
 
+    @PostMapping("/stats/batch")
+    public ResponseEntity<BulkStatsUpdateResultDto> updateAgencyStatsBatch(
+            @Valid @RequestBody BulkStatsUpdateRequestDto request) {
+        BulkStatsUpdateResultDto result = bulkStatsService.updateAgencyStats(request.getRows());
+        log.info("Bulk agency stats: {} updated, {} not found, {} skipped",
+                result.getUpdated(), result.getNotFound(), result.getSkipped());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{agencyId}/stats")
     @Transactional
     public ResponseEntity<Void> updateAgencyStats(
             @PathVariable String agencyId,
-            @RequestBody UpdateAgencyStatsDto statsDto) {
+            @Valid @RequestBody UpdateAgencyStatsDto statsDto) {
         UUID id = UUID.fromString(agencyId);
         Agency agency = agencyRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Agency not found: " + agencyId));
 
-        if (statsDto.getAverageRating() != null) {
+        if (statsDto.getRatingCount() != null) {
+            agency.setRatingCount(statsDto.getRatingCount());
+            agency.setRatingSum(statsDto.getRatingSum());
+            agency.setAverageRating(RatingTotals.average(statsDto.getRatingCount(), statsDto.getRatingSum()));
+        } else if (statsDto.getAverageRating() != null) {
+            // Deprecated bare average: kept as a legacy value of unknown weight until totals arrive
+            log.warn("Deprecated averageRating in stats update for agency {}", agencyId);
             agency.setAverageRating(statsDto.getAverageRating());
+            agency.setRatingCount(null);
+            agency.setRatingSum(null);
         }
         if (statsDto.getTotalJobsCompleted() != null) {
             agency.setTotalJobsCompleted(statsDto.getTotalJobsCompleted());
         }
         agencyRepository.save(agency);
-        log.info("Updated stats for agency {}: rating={}, jobsCompleted={}",
-                agencyId, statsDto.getAverageRating(), statsDto.getTotalJobsCompleted());
+        log.info("Updated stats for agency {}: ratings={}/{}, jobsCompleted={}", agencyId,
+                statsDto.getRatingSum(), statsDto.getRatingCount(), statsDto.getTotalJobsCompleted());
         return ResponseEntity.ok().build();
     }
 }
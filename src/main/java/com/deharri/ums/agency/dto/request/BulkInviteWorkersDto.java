@@ -0,0 +1,21 @@
+package com.deharri.ums.agency.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInviteWorkersDto {
+
+    @NotEmpty(message = "workerIds is required")
+    private List<@NotNull UUID> workerIds;
+}
@@ -29,4 +29,7 @@ public class AgencyListItemDto {
 
     private Integer totalJobsCompleted;
 
+    // Populated only for radius searches
+    private Double distanceKm;
+
 }
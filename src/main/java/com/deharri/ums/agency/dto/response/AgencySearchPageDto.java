@@ -0,0 +1,21 @@
+package com.deharri.ums.agency.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** One page of agency discovery results. {@code page} is zero-based. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgencySearchPageDto {
+    private List<AgencyListItemDto> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
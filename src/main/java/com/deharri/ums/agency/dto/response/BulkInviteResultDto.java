@@ -0,0 +1,40 @@
+package com.deharri.ums.agency.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk worker invitation; {@code workers} follows the order of the request, with
+ * repeated ids reported once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInviteResultDto {
+    private int invited;
+    private int skipped;
+    private List<WorkerOutcome> workers;
+
+    public enum Outcome {
+        INVITED,
+        ALREADY_PENDING,
+        ALREADY_MEMBER,
+        // The worker belongs to another agency and must leave it before being invited
+        IN_OTHER_AGENCY,
+        NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WorkerOutcome {
+        private UUID workerId;
+        private Outcome outcome;
+    }
+}
@@ -1,5 +1,8 @@
 package com.deharri.ums.agency.dto.response;
 
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.entity.Agency;
+import com.deharri.ums.user.entity.CoreUser;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +21,26 @@ public class InternalAgencyDto {
     private String ownerUsername;
     /** True iff agency.subscriptionStatus == ACTIVE AND not past its expiry. */
     private boolean subscriptionActive;
+
+    public static InternalAgencyDto from(Agency agency) {
+        CoreUser owner = agency.getCoreUser();
+        return InternalAgencyDto.builder()
+                .agencyId(agency.getAgencyId())
+                .agencyName(agency.getAgencyName())
+                .ownerUserId(owner != null ? owner.getUserId() : null)
+                .ownerUsername(owner != null ? owner.getUsername() : null)
+                .subscriptionActive(agency.isSubscriptionActive())
+                .build();
+    }
+
+    public static InternalAgencyDto from(AgencyRepository.SummaryRow row) {
+        return InternalAgencyDto.builder()
+                .agencyId(row.getAgencyId())
+                .agencyName(row.getAgencyName())
+                .ownerUserId(row.getOwnerUserId())
+                .ownerUsername(row.getOwnerUsername())
+                .subscriptionActive(Agency.isSubscriptionActive(
+                        row.getSubscriptionStatus(), row.getSubscriptionExpiresAt()))
+                .build();
+    }
 }
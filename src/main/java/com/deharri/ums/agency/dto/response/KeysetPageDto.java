@@ -0,0 +1,22 @@
+package com.deharri.ums.agency.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged view. While {@code hasMore} is true, request the next page with
+ * {@code nextCursor}; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -3,6 +3,7 @@ package com.deharri.ums.agency.entity;
 import com.deharri.ums.base.TimeStampFields;
 import com.deharri.ums.enums.AgencySubscriptionStatus;
 import com.deharri.ums.enums.PakistanCity;
+import com.deharri.ums.sync.SyncTombstoneListener;
 import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.worker.entity.Worker;
 import jakarta.persistence.*;
@@ -15,6 +16,16 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // Backs the subscription sweep and the active-only listing filter.
+        @Index(name = "idx_agency_subscription", columnList = "subscription_status, subscription_expires_at"),
+        // Keyset order of the internal change feed.
+        @Index(name = "idx_agency_last_updated", columnList = "last_updated_at, agency_id"),
+        // Discovery filters: home city, and the bounding box of a radius search.
+        @Index(name = "idx_agency_city", columnList = "city"),
+        @Index(name = "idx_agency_location", columnList = "latitude, longitude")
+})
+@EntityListeners(SyncTombstoneListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -61,7 +72,9 @@ public class Agency extends TimeStampFields {
     // Service Coverage
     @Builder.Default
     @ElementCollection(targetClass = PakistanCity.class)
-    @CollectionTable(name = "agency_service_cities", joinColumns = @JoinColumn(name = "agency_id"))
+    @CollectionTable(name = "agency_service_cities", joinColumns = @JoinColumn(name = "agency_id"),
+            // Discovery by service city looks agencies up from the city side
+            indexes = @Index(name = "idx_agency_service_city", columnList = "city, agency_id"))
     @Enumerated(EnumType.STRING)
     @Column(name = "city")
     private List<PakistanCity> serviceCities = new ArrayList<>(); // Cities where agency operates
@@ -78,12 +91,13 @@ public class Agency extends TimeStampFields {
 
     // Subscription
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column(name = "subscription_status", nullable = false)
     @Builder.Default
     private AgencySubscriptionStatus subscriptionStatus = AgencySubscriptionStatus.INACTIVE;
 
     private LocalDateTime subscriptionStartedAt;
 
+    @Column(name = "subscription_expires_at")
     private LocalDateTime subscriptionExpiresAt;
 
     // Workers managed by this agency
@@ -106,10 +120,22 @@ public class Agency extends TimeStampFields {
     @Builder.Default
     private Integer totalJobsCompleted = 0; // Total jobs completed by all agency workers
 
+    // Rolled up from the agency's job ratings; averageRating = ratingSum / ratingCount
+    @Builder.Default
+    private Integer ratingCount = 0;
+
+    @Builder.Default
+    private Long ratingSum = 0L;
+
     public boolean isSubscriptionActive() {
-        return subscriptionStatus == AgencySubscriptionStatus.ACTIVE
-                && subscriptionExpiresAt != null
-                && subscriptionExpiresAt.isAfter(LocalDateTime.now());
+        return isSubscriptionActive(subscriptionStatus, subscriptionExpiresAt);
+    }
+
+    // Shared with projections that read the two columns without loading the entity
+    public static boolean isSubscriptionActive(AgencySubscriptionStatus status, LocalDateTime expiresAt) {
+        return status == AgencySubscriptionStatus.ACTIVE
+                && expiresAt != null
+                && expiresAt.isAfter(LocalDateTime.now());
     }
 
     @PrePersist
@@ -123,6 +149,10 @@ public class Agency extends TimeStampFields {
         if (subscriptionStatus == null) {
             subscriptionStatus = AgencySubscriptionStatus.INACTIVE;
         }
+        if (ratingCount == null || ratingSum == null) {
+            ratingCount = 0;
+            ratingSum = 0L;
+        }
     }
 
     @AllArgsConstructor
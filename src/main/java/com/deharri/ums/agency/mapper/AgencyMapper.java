@@ -1,9 +1,14 @@
 package com.deharri.ums.agency.mapper;
 
+import com.deharri.ums.agency.AgencyMemberRepository;
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.WorkerAgencyInvitationRepository;
 import com.deharri.ums.agency.dto.request.CreateAgencyDto;
 import com.deharri.ums.agency.dto.request.UpdateAgencyDto;
 import com.deharri.ums.agency.dto.response.AgencyListItemDto;
+import com.deharri.ums.agency.dto.response.AgencyMembershipHistoryDto;
 import com.deharri.ums.agency.dto.response.AgencyProfileResponseDto;
+import com.deharri.ums.agency.dto.response.AgencySentInvitationDto;
 import com.deharri.ums.agency.entity.Agency;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -25,6 +30,8 @@ public abstract class AgencyMapper {
     @Mapping(target = "workers", ignore = true)
     @Mapping(target = "totalWorkers", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
     @Mapping(target = "totalJobsCompleted", ignore = true)
     @Mapping(target = "subscriptionStatus", ignore = true)
     @Mapping(target = "subscriptionStartedAt", ignore = true)
@@ -38,6 +45,8 @@ public abstract class AgencyMapper {
     @Mapping(target = "workers", ignore = true)
     @Mapping(target = "totalWorkers", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
     @Mapping(target = "totalJobsCompleted", ignore = true)
     @Mapping(target = "subscriptionStatus", ignore = true)
     @Mapping(target = "subscriptionStartedAt", ignore = true)
@@ -56,6 +65,15 @@ public abstract class AgencyMapper {
     public abstract AgencyProfileResponseDto agencyToProfileResponseDto(Agency agency);
 
     @Mapping(target = "agencyId", expression = "java(agency.getAgencyId().toString())")
+    @Mapping(target = "distanceKm", ignore = true)
     public abstract AgencyListItemDto agencyToListItemDto(Agency agency);
 
+    @Mapping(target = "agencyId", expression = "java(row.getAgencyId().toString())")
+    @Mapping(target = "distanceKm", ignore = true)
+    public abstract AgencyListItemDto discoveryRowToListItemDto(AgencyRepository.DiscoveryRow row);
+
+    public abstract AgencyMembershipHistoryDto membershipHistoryRowToDto(AgencyMemberRepository.MembershipHistoryRow row);
+
+    public abstract AgencySentInvitationDto sentInvitationRowToDto(WorkerAgencyInvitationRepository.SentInvitationRow row);
+
 }
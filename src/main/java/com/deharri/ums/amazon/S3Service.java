@@ -1,47 +1,154 @@
 package com.deharri.ums.amazon;
 
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.PutObjectRequest;
-import com.amazonaws.services.s3.model.S3Object;
+import com.deharri.ums.amazon.storage.ObjectStorage;
+import com.deharri.ums.amazon.storage.StoredObject;
+import com.deharri.ums.amazon.storage.StoredObjectInfo;
+import com.deharri.ums.amazon.storage.StoredObjectReader;
+import com.deharri.ums.error.exception.FileUploadException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@Slf4j
 public class S3Service {
 
-    private final AmazonS3 amazonS3;
+    private final ObjectStorage objectStorage;
 
-    @Value("${aws.s3.bucket}")
-    private String bucketName;
+    // Caps uploads in flight so a burst of concurrent requests cannot pile up part
+    // buffers and SDK threads without bound.
+    private final Semaphore uploadPermits;
 
-    public S3Service(AmazonS3 amazonS3) {
-        this.amazonS3 = amazonS3;
+    @Value("${aws.s3.upload.permit-timeout-ms:30000}")
+    private long permitTimeoutMs;
+
+    public S3Service(ObjectStorage objectStorage,
+                     @Value("${aws.s3.upload.max-concurrent:8}") int maxConcurrentUploads) {
+        this.objectStorage = objectStorage;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
     }
 
-    // Upload file to S3 bucket
+    // Upload file to storage. Content length and type are passed up front so the backend
+    // streams the body instead of buffering it to measure it; large files go multipart on S3.
+    // Throws FileUploadException so callers never attach a key that was not stored.
     public String uploadFile(MultipartFile file, String filePath) {
+        upload(file, file.getSize(), file.getContentType(), filePath);
+        return "File uploaded successfully: " + file.getName();
+    }
+
+    // Starts the upload and returns at once; the future completes when the object is stored,
+    // or fails with FileUploadException. The caller's thread never waits: with every permit
+    // taken the future fails straight away, so it can start several uploads and join them
+    // together. Each upload still holds a storage transfer thread while it runs. The file must
+    // stay readable until the future completes.
+    public CompletableFuture<Void> uploadFileAsync(MultipartFile file, String filePath) {
+        if (!uploadPermits.tryAcquire()) {
+            log.warn("Upload of {} rejected: too many uploads in flight", filePath);
+            return CompletableFuture.failedFuture(
+                    new FileUploadException("Too many uploads in flight, try again later"));
+        }
+        InputStream inputStream;
+        try {
+            inputStream = file.getInputStream();
+        } catch (IOException e) {
+            uploadPermits.release();
+            return CompletableFuture.failedFuture(new FileUploadException("Error uploading file", e));
+        }
+
+        CompletableFuture<Void> upload;
+        try {
+            upload = objectStorage.putAsync(filePath, inputStream, file.getSize(), file.getContentType());
+        } catch (RuntimeException e) {
+            upload = CompletableFuture.failedFuture(e);
+        }
+        return upload.handle((ignored, failure) -> {
+            closeQuietly(inputStream);
+            uploadPermits.release();
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                log.error("Upload of {} failed: {}", filePath, cause.getMessage(), cause);
+                throw new CompletionException(new FileUploadException("Error uploading file", cause));
+            }
+            return null;
+        });
+    }
+
+    // Upload content produced in memory, e.g. generated image variants
+    public void uploadBytes(byte[] content, String contentType, String filePath) {
+        upload(new ByteArrayResource(content), content.length, contentType, filePath);
+    }
+
+    private void upload(InputStreamSource source, long size, String contentType, String filePath) {
+        boolean acquired = false;
         try {
-            amazonS3.putObject(new PutObjectRequest(bucketName, filePath, file.getInputStream(), null));
-            return "File uploaded successfully: " + file.getName();
+            acquired = uploadPermits.tryAcquire(permitTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                log.warn("Upload of {} rejected: too many uploads in flight", filePath);
+                throw new FileUploadException("Too many uploads in flight, try again later");
+            }
+            try (InputStream inputStream = source.getInputStream()) {
+                objectStorage.put(filePath, inputStream, size, contentType);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Upload of {} interrupted", filePath);
+            throw new FileUploadException("Error uploading file", e);
+        } catch (FileUploadException e) {
+            throw e;
         } catch (Exception e) {
-            e.printStackTrace();
-            return "Error uploading file";
+            log.error("Upload of {} failed: {}", filePath, e.getMessage(), e);
+            throw new FileUploadException("Error uploading file", e);
+        } finally {
+            if (acquired) {
+                uploadPermits.release();
+            }
+        }
+    }
+
+    // Opens the object, hands it to the reader and closes it before returning, whether or not
+    // the reader consumed the whole stream, so callers cannot leak the connection or file.
+    public <T> T readFile(String fileName, StoredObjectReader<T> reader) {
+        try (StoredObject object = objectStorage.get(fileName)) {
+            return reader.read(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + fileName, e);
         }
     }
 
-    // Download file from S3 bucket
-    public S3Object downloadFile(String fileName) {
-        return amazonS3.getObject(bucketName, fileName);
+    // Deletes up to 1000 keys in one request. Returns the keys that could not be
+    // deleted, mapped to the error storage reported for them; an empty map means all succeeded.
+    public Map<String, String> deleteFiles(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        return objectStorage.deleteAll(keys);
     }
 
-    public void deleteFile(String oldPictureUrl) {
-        amazonS3.deleteObject(bucketName, oldPictureUrl);
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Could not close upload stream: {}", e.getMessage());
+        }
     }
 
     public String generateFileName(MultipartFile file, UUID userId) {
@@ -49,11 +156,22 @@ public class S3Service {
     }
 
     public URL generatePresignedUrl(String key, long minutes) {
-        java.util.Date expiration = new java.util.Date();
-        long expTimeMillis = System.currentTimeMillis() + 1000 * 60 * minutes;
-        expiration.setTime(expTimeMillis);
+        return objectStorage.presignGet(key, Duration.ofMinutes(minutes));
+    }
+
+    // Presigned PUT for direct client uploads. The content type is part of the signature,
+    // so the client must send the same Content-Type header.
+    public URL generatePresignedPutUrl(String key, String contentType, long maxSize, long minutes) {
+        return objectStorage.presignPut(key, contentType, maxSize, Duration.ofMinutes(minutes));
+    }
 
-        return amazonS3.generatePresignedUrl(bucketName, key, expiration);
+    // Metadata of a stored object, or empty when no object exists under the key
+    public Optional<StoredObjectInfo> findObjectMetadata(String key) {
+        try {
+            return objectStorage.stat(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading metadata of " + key, e);
+        }
     }
 
     public String generateFileKey(UUID userId, String originalFileName) {
@@ -72,4 +190,4 @@ public class S3Service {
                 extension
         );
     }
-}
\ No newline at end of file
+}
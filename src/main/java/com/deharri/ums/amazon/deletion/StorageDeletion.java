@@ -0,0 +1,42 @@
+package com.deharri.ums.amazon.deletion;
+
+import com.deharri.ums.base.TimeStampFields;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A storage object that is no longer referenced and is waiting to be deleted. Rows are
+ * written in the same transaction that drops the reference and removed once the object
+ * is gone, so a delete is never lost and never blocks the request that caused it.
+ */
+@Entity
+@Table(name = "storage_deletions", indexes = {
+        @Index(name = "idx_storage_deletions_next_attempt_at", columnList = "next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageDeletion extends TimeStampFields {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "deletion_id", updatable = false, nullable = false)
+    private Long deletionId;
+
+    @Column(name = "object_key", nullable = false, length = 500)
+    private String objectKey;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
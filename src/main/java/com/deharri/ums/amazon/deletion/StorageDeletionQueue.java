@@ -0,0 +1,42 @@
+package com.deharri.ums.amazon.deletion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Entry point for deleting storage objects. Deletes are queued rather than executed, and
+ * {@link StorageDeletionWorker} drains the queue in batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class StorageDeletionQueue {
+
+    private final StorageDeletionRepository storageDeletionRepository;
+
+    /**
+     * Queues the keys for deletion, ignoring null or blank ones. Joins the caller's
+     * transaction when there is one, so the delete commits or rolls back with the change
+     * that dropped the reference.
+     */
+    @Transactional
+    public void enqueue(Collection<String> keys) {
+        LocalDateTime now = LocalDateTime.now();
+        storageDeletionRepository.saveAll(keys.stream()
+                .filter(Objects::nonNull)
+                .filter(key -> !key.isBlank())
+                .distinct()
+                .map(key -> StorageDeletion.builder().objectKey(key).nextAttemptAt(now).build())
+                .toList());
+    }
+
+    @Transactional
+    public void enqueue(String... keys) {
+        enqueue(Arrays.asList(keys));
+    }
+}
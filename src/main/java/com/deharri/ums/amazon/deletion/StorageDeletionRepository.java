@@ -0,0 +1,22 @@
+package com.deharri.ums.amazon.deletion;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, Long> {
+
+    List<StorageDeletion> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StorageDeletion d WHERE d.deletionId IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,111 @@
+package com.deharri.ums.amazon.deletion;
+
+import com.deharri.ums.amazon.S3Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the {@link StorageDeletionQueue}.
+ *
+ * <p>Due rows are deleted from storage with one multi-object request per batch, outside any
+ * transaction; the outcome is then recorded in a short transaction. Keys that failed are
+ * retried with exponential backoff, capped at {@code max-backoff}, and are never dropped.
+ * Deletes are idempotent, so two instances picking up the same row is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StorageDeletionWorker {
+
+    // S3 accepts at most 1000 keys per DeleteObjects request
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final S3Service s3Service;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${aws.s3.deletion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${aws.s3.deletion.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${aws.s3.deletion.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Scheduled(
+            fixedDelayString = "${aws.s3.deletion.fixed-delay-ms:5000}",
+            initialDelayString = "${aws.s3.deletion.initial-delay-ms:15000}")
+    public void drain() {
+        int size = Math.min(batchSize, MAX_BATCH_SIZE);
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<StorageDeletion> batch = storageDeletionRepository
+                    .findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(now, PageRequest.of(0, size));
+            if (batch.isEmpty()) {
+                return;
+            }
+            Map<String, String> failures = deleteFromStorage(batch);
+            transactionTemplate.execute(status -> {
+                record(batch, failures, now);
+                return null;
+            });
+            // Stop on a short batch, or when nothing succeeded so an outage is not hammered
+            if (batch.size() < size || failures.size() == batch.size()) {
+                return;
+            }
+        }
+    }
+
+    private Map<String, String> deleteFromStorage(List<StorageDeletion> batch) {
+        List<String> keys = batch.stream().map(StorageDeletion::getObjectKey).distinct().toList();
+        try {
+            return s3Service.deleteFiles(keys);
+        } catch (Exception e) {
+            log.warn("Batch delete of {} objects failed: {}", keys.size(), e.getMessage());
+            String error = String.valueOf(e.getMessage());
+            return keys.stream().collect(Collectors.toMap(key -> key, key -> error));
+        }
+    }
+
+    private void record(List<StorageDeletion> batch, Map<String, String> failures, LocalDateTime now) {
+        List<Long> done = new ArrayList<>();
+        List<StorageDeletion> retries = new ArrayList<>();
+        for (StorageDeletion deletion : batch) {
+            String error = failures.get(deletion.getObjectKey());
+            if (error == null) {
+                done.add(deletion.getDeletionId());
+                continue;
+            }
+            deletion.setAttempts(deletion.getAttempts() + 1);
+            deletion.setNextAttemptAt(now.plus(backoff(deletion.getAttempts())));
+            deletion.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            retries.add(deletion);
+        }
+        if (!done.isEmpty()) {
+            storageDeletionRepository.deleteByIdIn(done);
+        }
+        if (!retries.isEmpty()) {
+            storageDeletionRepository.saveAll(retries);
+            log.warn("{} object deletes failed and were rescheduled", retries.size());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        // 2^(attempts-1) with the shift capped so it cannot overflow
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
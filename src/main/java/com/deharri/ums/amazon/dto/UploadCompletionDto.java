@@ -0,0 +1,26 @@
+package com.deharri.ums.amazon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Completes a direct upload once the client has PUT the file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(
+        name = "UploadCompletion",
+        description = "Object key returned by the upload intent"
+)
+public class UploadCompletionDto {
+
+    @NotBlank(message = "Object key is required")
+    @Schema(description = "Storage key returned by the upload intent")
+    private String objectKey;
+}
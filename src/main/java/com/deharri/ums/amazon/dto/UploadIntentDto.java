@@ -0,0 +1,36 @@
+package com.deharri.ums.amazon.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+
+/**
+ * Presigned upload URL and the key to complete the upload with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(
+        name = "UploadIntent",
+        description = "Presigned PUT URL for uploading a file directly to storage"
+)
+public class UploadIntentDto {
+
+    @Schema(description = "Storage key of the object; pass it to the completion endpoint after uploading")
+    private String objectKey;
+
+    @Schema(description = "Presigned URL to PUT the file body to")
+    private URL uploadUrl;
+
+    @Schema(description = "Content-Type header the PUT request must carry", example = "image/jpeg")
+    private String contentType;
+
+    @Schema(description = "Time after which the upload URL stops working")
+    private LocalDateTime expiresAt;
+}
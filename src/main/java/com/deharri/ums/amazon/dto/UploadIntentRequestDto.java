@@ -0,0 +1,44 @@
+package com.deharri.ums.amazon.dto;
+
+import com.deharri.ums.amazon.upload.UploadTarget;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request for a presigned URL to upload a file directly to storage.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(
+        name = "UploadIntentRequest",
+        description = "Describes the file the client is about to upload directly to storage"
+)
+public class UploadIntentRequestDto {
+
+    @NotNull(message = "Upload target is required")
+    @Schema(description = "Where the file will be attached once the upload completes", example = "PROFILE_PICTURE")
+    private UploadTarget target;
+
+    @NotBlank(message = "File name is required")
+    @Pattern(regexp = "^[^/\\\\]+\\.[A-Za-z0-9]+$", message = "File name must have an extension")
+    @Schema(description = "Original file name, used for its extension", example = "avatar.jpg")
+    private String fileName;
+
+    @NotBlank(message = "Content type is required")
+    @Schema(description = "MIME type the client will send as the Content-Type header", example = "image/jpeg")
+    private String contentType;
+
+    @NotNull(message = "Content length is required")
+    @Positive(message = "Content length must be positive")
+    @Schema(description = "File size in bytes", example = "245760")
+    private Long contentLength;
+}
@@ -0,0 +1,184 @@
+package com.deharri.ums.amazon.image;
+
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.storage.StoredObject;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the {@link ImageVariant}s of an uploaded image off the request thread.
+ *
+ * <p>The original is read back from storage, so work can run after the request (and its
+ * multipart temp files) is gone. Decoding is subsampled to roughly the largest variant's
+ * size, which bounds memory per job; the pool and its queue are bounded too, and when
+ * they are full the job is dropped. Variants are a best-effort optimisation: callers fall
+ * back to the original whenever a variant is missing.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    private final S3Service s3Service;
+    private final StorageDeletionQueue storageDeletionQueue;
+    private final ThreadPoolExecutor imageExecutor;
+    private final long maxSourcePixels;
+
+    public ImageDerivativeService(S3Service s3Service,
+                                  StorageDeletionQueue storageDeletionQueue,
+                                  @Value("${image.derivatives.workers:2}") int workers,
+                                  @Value("${image.derivatives.queue-capacity:100}") int queueCapacity,
+                                  @Value("${image.derivatives.max-source-pixels:50000000}") long maxSourcePixels) {
+        this.s3Service = s3Service;
+        this.storageDeletionQueue = storageDeletionQueue;
+        this.maxSourcePixels = maxSourcePixels;
+        this.imageExecutor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("image-derivative-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues variant generation for {@code originalKey}. The future completes with the keys
+     * of the variants written, or an empty map when the object is not a readable image or
+     * the job could not be queued. It never completes exceptionally.
+     */
+    public CompletableFuture<Map<ImageVariant, String>> generateVariants(String originalKey) {
+        try {
+            return CompletableFuture.supplyAsync(() -> generate(originalKey), imageExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Image derivative queue full, skipping variants for {}", originalKey);
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    // Queues the variants of an original for deletion; missing variants are a no-op
+    public void deleteVariants(String originalKey) {
+        if (originalKey == null || originalKey.isBlank()) {
+            return;
+        }
+        storageDeletionQueue.enqueue(Arrays.stream(ImageVariant.values())
+                .map(variant -> variant.keyFor(originalKey))
+                .toList());
+    }
+
+    private Map<ImageVariant, String> generate(String originalKey) {
+        Map<ImageVariant, String> written = new EnumMap<>(ImageVariant.class);
+        try {
+            // The original is released as soon as it is decoded, before any variant is uploaded
+            DecodedImage decoded = s3Service.readFile(originalKey, object -> decode(originalKey, object));
+            if (decoded == null) {
+                return written;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                byte[] encoded = encode(scale(decoded.image(), variant.getMaxDimension()), decoded.format());
+                if (encoded == null) {
+                    log.debug("No {} writer available, no variants generated for {}", decoded.format(), originalKey);
+                    return written;
+                }
+                String variantKey = variant.keyFor(originalKey);
+                s3Service.uploadBytes(encoded, decoded.contentType(), variantKey);
+                written.put(variant, variantKey);
+            }
+        } catch (Exception e) {
+            log.warn("Could not generate image variants for {}: {}", originalKey, e.getMessage());
+        }
+        return written;
+    }
+
+    // Null when the object is not a readable image or is too large to use as a source
+    private DecodedImage decode(String originalKey, StoredObject object) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(object.getContent())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                log.debug("{} is not a readable image, no variants generated", originalKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                BufferedImage source = readSubsampled(reader, originalKey);
+                if (source == null) {
+                    return null;
+                }
+                return new DecodedImage(source, reader.getFormatName(),
+                        reader.getOriginatingProvider().getMIMETypes()[0]);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Subsampling skips source pixels while decoding, so a 12 MP photo is never fully
+    // expanded in memory just to produce a few hundred pixels of output.
+    private BufferedImage readSubsampled(ImageReader reader, String originalKey) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxSourcePixels) {
+            log.warn("{} is {}x{}, above the variant source limit; skipping", originalKey, width, height);
+            return null;
+        }
+        int largestVariant = 0;
+        for (ImageVariant variant : ImageVariant.values()) {
+            largestVariant = Math.max(largestVariant, variant.getMaxDimension());
+        }
+        int step = Math.max(1, Math.max(width, height) / largestVariant);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(step, step, 0, 0);
+        return reader.read(0, param);
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        return ImageIO.write(image, format, out) ? out.toByteArray() : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        imageExecutor.shutdown();
+    }
+
+    private record DecodedImage(BufferedImage image, String format, String contentType) {
+    }
+}
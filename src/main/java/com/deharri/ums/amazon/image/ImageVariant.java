@@ -0,0 +1,26 @@
+package com.deharri.ums.amazon.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Downscaled copies generated for uploaded images. A variant is stored next to its
+ * original, under the original key with a suffix before the extension.
+ */
+@Getter
+@AllArgsConstructor
+public enum ImageVariant {
+    THUMBNAIL("thumb", 160),
+    MEDIUM("medium", 720);
+
+    private final String suffix;
+    private final int maxDimension;
+
+    public String keyFor(String originalKey) {
+        int dot = originalKey.lastIndexOf('.');
+        if (dot < 0 || dot < originalKey.lastIndexOf('/')) {
+            return originalKey + "_" + suffix;
+        }
+        return originalKey.substring(0, dot) + "_" + suffix + originalKey.substring(dot);
+    }
+}
@@ -0,0 +1,205 @@
+package com.deharri.ums.amazon.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Filesystem backend for load tests and single-node deployments. Objects are plain files
+// under the root directory; presigned URLs point at LocalStorageController and carry an
+// HMAC-SHA256 signature over method, key, content type, maximum upload size and expiry.
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+@Slf4j
+public class LocalObjectStorage implements ObjectStorage {
+
+    static final String OBJECTS_PATH = "/api/v1/storage/objects";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    // Bytes handed to the kernel per transferFrom call while receiving an upload
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final Path root;
+    private final SecretKeySpec signingKey;
+    private final String publicBaseUrl;
+
+    public LocalObjectStorage(@Value("${storage.local.root:${java.io.tmpdir}/ums-storage}") String root,
+                              @Value("${storage.local.signing-key:}") String signingKey,
+                              @Value("${storage.local.public-base-url:http://localhost:${server.port:8080}}") String publicBaseUrl)
+            throws IOException {
+        this.root = Files.createDirectories(Path.of(root)).toRealPath();
+        this.signingKey = new SecretKeySpec(signingKeyBytes(signingKey), HMAC_ALGORITHM);
+        this.publicBaseUrl = publicBaseUrl;
+        log.info("Local object storage at {}", this.root);
+    }
+
+    // Writes to a temp file next to the target and moves it into place, so readers never
+    // see a partially written object. The body goes from the stream to the file through
+    // FileChannel.transferFrom without an intermediate heap buffer per chunk. With a known
+    // size, at most one byte past it is read, enough to tell the body is too long.
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            long written = 0;
+            long limit = size >= 0 ? size + 1 : Long.MAX_VALUE;
+            ReadableByteChannel source = Channels.newChannel(content);
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while (written < limit
+                        && (transferred = out.transferFrom(source, written, Math.min(TRANSFER_CHUNK, limit - written))) > 0) {
+                    written += transferred;
+                }
+            }
+            if (size >= 0 && written != size) {
+                throw new IOException(String.format("Expected %d bytes for %s but received %d", size, key, written));
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public StoredObject get(String key) throws IOException {
+        Path path = resolve(key);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new StoredObject(Channels.newInputStream(channel), new StoredObjectInfo(channel.size(), contentTypeOf(key)));
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> stat(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredObjectInfo(Files.size(path), contentTypeOf(key)));
+    }
+
+    @Override
+    public Map<String, String> deleteAll(Collection<String> keys) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException | IllegalArgumentException e) {
+                failures.put(key, e.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public URL presignGet(String key, Duration validity) {
+        return presign("GET", key, null, null, validity);
+    }
+
+    @Override
+    public URL presignPut(String key, String contentType, long maxSize, Duration validity) {
+        return presign("PUT", key, contentType, maxSize, validity);
+    }
+
+    // True when the signature was issued by this storage for the same request and has not expired
+    public boolean verify(String method, String key, String contentType, Long maxSize, long expiresAt,
+                          String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expiresAt) {
+            return false;
+        }
+        byte[] expected = sign(method, key, contentType, maxSize, expiresAt).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Maps a key to a file under the root, rejecting keys that would escape it
+    Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key: " + key);
+        }
+        return path;
+    }
+
+    String contentTypeOf(String key) {
+        return MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    private URL presign(String method, String key, String contentType, Long maxSize, Duration validity) {
+        resolve(key);
+        long expiresAt = Instant.now().plus(validity).getEpochSecond();
+        try {
+            return UriComponentsBuilder.fromHttpUrl(publicBaseUrl)
+                    .path(OBJECTS_PATH)
+                    .queryParam("key", key)
+                    .queryParamIfPresent("maxSize", Optional.ofNullable(maxSize))
+                    .queryParam("expires", expiresAt)
+                    .queryParam("signature", sign(method, key, contentType, maxSize, expiresAt))
+                    .encode()
+                    .build()
+                    .toUri()
+                    .toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid storage.local.public-base-url: " + publicBaseUrl, e);
+        }
+    }
+
+    private String sign(String method, String key, String contentType, Long maxSize, long expiresAt) {
+        String payload = method + "\n" + key + "\n" + (contentType == null ? "" : contentType) + "\n"
+                + (maxSize == null ? "" : maxSize) + "\n" + expiresAt;
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    // Without a configured key, URLs are signed with a random one and stop working on restart
+    private static byte[] signingKeyBytes(String signingKey) {
+        if (!signingKey.isBlank()) {
+            return signingKey.getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("storage.local.signing-key is not set; presigned URLs will not survive a restart");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
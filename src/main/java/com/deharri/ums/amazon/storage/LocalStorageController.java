@@ -0,0 +1,91 @@
+package com.deharri.ums.amazon.storage;
+
+import com.deharri.ums.error.exception.AuthorizationException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Serves presigned URLs issued by LocalObjectStorage. Access is granted by the signature,
+// not by a JWT, so the path is public in SecurityConfig.
+@RestController
+@AllArgsConstructor
+@RequestMapping(LocalObjectStorage.OBJECTS_PATH)
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalObjectStorage storage;
+
+    // Prefers Tomcat's sendfile so the connector writes the file straight to the socket.
+    // Otherwise the file is streamed through the servlet output stream in small buffered
+    // chunks, so it is never held in memory whole.
+    @GetMapping
+    public void download(@RequestParam String key,
+                         @RequestParam long expires,
+                         @RequestParam String signature,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (!storage.verify("GET", key, null, null, expires, signature)) {
+            throw new AuthorizationException("Invalid or expired storage URL");
+        }
+        Path file = storage.resolve(key);
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = Files.size(file);
+        response.setContentType(storage.contentTypeOf(key));
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        Files.copy(file, response.getOutputStream());
+    }
+
+    // The size limit is signed into the URL. The declared Content-Length is checked against it
+    // before anything is written, and put() never reads past that length.
+    @PutMapping
+    public ResponseEntity<Void> upload(@RequestParam String key,
+                                       @RequestParam long maxSize,
+                                       @RequestParam long expires,
+                                       @RequestParam String signature,
+                                       @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                       HttpServletRequest request) throws IOException {
+        if (!storage.verify("PUT", key, contentType, maxSize, expires, signature)) {
+            throw new AuthorizationException("Invalid or expired storage URL");
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        if (contentLength > maxSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        storage.put(key, request.getInputStream(), contentLength, contentType);
+        return ResponseEntity.ok().build();
+    }
+}
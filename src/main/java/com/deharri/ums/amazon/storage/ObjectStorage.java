@@ -0,0 +1,48 @@
+package com.deharri.ums.amazon.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Where media objects live. S3Service talks to this instead of a concrete client so the
+// backend can be swapped with storage.backend (s3 or local).
+public interface ObjectStorage {
+
+    // Stores the stream under the key, replacing any existing object. Size and content type
+    // are known up front so implementations can stream without buffering.
+    void put(String key, InputStream content, long size, String contentType) throws IOException;
+
+    // Starts the upload and returns without waiting for it. The future completes when the
+    // object is stored; the stream must stay open until then. Backends without a native
+    // asynchronous path store the object on the calling thread.
+    default CompletableFuture<Void> putAsync(String key, InputStream content, long size, String contentType) {
+        try {
+            put(key, content, size, contentType);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Opens the object for reading. The caller must close the returned object.
+    StoredObject get(String key) throws IOException;
+
+    // Size and content type of the object, or empty when nothing is stored under the key
+    Optional<StoredObjectInfo> stat(String key) throws IOException;
+
+    // Deletes the keys and returns the ones that could not be deleted, mapped to the reason.
+    // Deleting a key that does not exist counts as success.
+    Map<String, String> deleteAll(Collection<String> keys);
+
+    URL presignGet(String key, Duration validity);
+
+    // The content type is part of the signature, so the client must send the same header.
+    // Backends that can enforce it reject bodies larger than maxSize; S3 cannot, so callers
+    // still check the stored size afterwards.
+    URL presignPut(String key, String contentType, long maxSize, Duration validity);
+}
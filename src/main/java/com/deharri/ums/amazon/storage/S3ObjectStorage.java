@@ -0,0 +1,155 @@
+package com.deharri.ums.amazon.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3ObjectStorage implements ObjectStorage {
+
+    private final AmazonS3 amazonS3;
+    private final TransferManager transferManager;
+
+    @Value("${aws.s3.bucket}")
+    private String bucketName;
+
+    public S3ObjectStorage(AmazonS3 amazonS3, TransferManager transferManager) {
+        this.amazonS3 = amazonS3;
+        this.transferManager = transferManager;
+    }
+
+    // Large bodies go multipart through the TransferManager, one bounded part at a time
+    @Override
+    public void put(String key, InputStream content, long size, String contentType) throws IOException {
+        try {
+            transferManager.upload(putRequest(key, content, size, contentType)).waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload of " + key + " interrupted");
+        }
+    }
+
+    // Returns once the transfer is queued. The upload itself still occupies one thread of the
+    // TransferManager's bounded pool for its duration, as the v1 SDK does blocking I/O. The
+    // listener rides on the request so it is registered before the transfer can finish, and it
+    // only signals the end: the outcome is read from the transfer's state, which the SDK sets
+    // before firing the event, so nothing waits on the progress-callback thread.
+    @Override
+    public CompletableFuture<Void> putAsync(String key, InputStream content, long size, String contentType) {
+        CompletableFuture<Void> ended = new CompletableFuture<>();
+        PutObjectRequest request = putRequest(key, content, size, contentType)
+                .withGeneralProgressListener(event -> {
+                    switch (event.getEventType()) {
+                        case TRANSFER_COMPLETED_EVENT, TRANSFER_FAILED_EVENT, TRANSFER_CANCELED_EVENT ->
+                                ended.complete(null);
+                        default -> { }
+                    }
+                });
+        Upload upload;
+        try {
+            upload = transferManager.upload(request);
+        } catch (AmazonClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return ended.thenAccept(ignored -> {
+            TransferState state = upload.getState();
+            if (state != TransferState.Completed) {
+                throw new CompletionException(new IOException("Upload of " + key + " ended " + state));
+            }
+        });
+    }
+
+    @Override
+    public StoredObject get(String key) {
+        S3Object object = amazonS3.getObject(bucketName, key);
+        ObjectMetadata metadata = object.getObjectMetadata();
+        return new StoredObject(object.getObjectContent(),
+                new StoredObjectInfo(metadata.getContentLength(), metadata.getContentType()));
+    }
+
+    @Override
+    public Optional<StoredObjectInfo> stat(String key) {
+        try {
+            ObjectMetadata metadata = amazonS3.getObjectMetadata(bucketName, key);
+            return Optional.of(new StoredObjectInfo(metadata.getContentLength(), metadata.getContentType()));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    // One DeleteObjects request covers up to 1000 keys; quiet mode only reports failures
+    @Override
+    public Map<String, String> deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+                .withKeys(keys.toArray(String[]::new))
+                .withQuiet(true);
+        try {
+            amazonS3.deleteObjects(request);
+            return Map.of();
+        } catch (MultiObjectDeleteException e) {
+            return e.getErrors().stream().collect(Collectors.toMap(
+                    MultiObjectDeleteException.DeleteError::getKey,
+                    error -> error.getCode() + ": " + error.getMessage(),
+                    (first, second) -> first));
+        }
+    }
+
+    @Override
+    public URL presignGet(String key, Duration validity) {
+        return amazonS3.generatePresignedUrl(bucketName, key, expiration(validity));
+    }
+
+    @Override
+    public URL presignPut(String key, String contentType, long maxSize, Duration validity) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, key, HttpMethod.PUT)
+                .withExpiration(expiration(validity))
+                .withContentType(contentType);
+        return amazonS3.generatePresignedUrl(request);
+    }
+
+    private PutObjectRequest putRequest(String key, InputStream content, long size, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        return new PutObjectRequest(bucketName, key, content, metadata);
+    }
+
+    private static Date expiration(Duration validity) {
+        return new Date(System.currentTimeMillis() + validity.toMillis());
+    }
+}
@@ -0,0 +1,23 @@
+package com.deharri.ums.amazon.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+// An open stored object. Closing it releases the underlying file handle or connection.
+@Getter
+@AllArgsConstructor
+public class StoredObject implements Closeable {
+
+    private final InputStream content;
+
+    private final StoredObjectInfo info;
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
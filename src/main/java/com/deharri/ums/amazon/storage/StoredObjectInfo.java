@@ -0,0 +1,13 @@
+package com.deharri.ums.amazon.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredObjectInfo {
+
+    private final long contentLength;
+
+    private final String contentType;
+}
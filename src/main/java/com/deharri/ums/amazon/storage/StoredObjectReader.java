@@ -0,0 +1,10 @@
+package com.deharri.ums.amazon.storage;
+
+import java.io.IOException;
+
+// Reads what it needs from an open object; the object is closed once it returns.
+@FunctionalInterface
+public interface StoredObjectReader<T> {
+
+    T read(StoredObject object) throws IOException;
+}
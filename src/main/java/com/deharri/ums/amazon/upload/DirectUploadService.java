@@ -0,0 +1,110 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.agency.AgencyService;
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.dto.UploadCompletionDto;
+import com.deharri.ums.amazon.dto.UploadIntentDto;
+import com.deharri.ums.amazon.dto.UploadIntentRequestDto;
+import com.deharri.ums.amazon.storage.StoredObjectInfo;
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.permission.PermissionService;
+import com.deharri.ums.user.UserService;
+import com.deharri.ums.user.dto.response.ResponseMessageDto;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.WorkerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Uploads that go straight from the client to storage, so file bytes never pass
+ * through this service.
+ *
+ * <p>An intent reserves a key (recorded as a {@link PendingUpload} with its target) and
+ * hands out a presigned PUT URL for it. After uploading, the client completes the intent;
+ * the object is checked in storage and attached through the same commit path as
+ * multipart uploads. Intents that are never completed are cleaned up by
+ * {@link OrphanedUploadReconciler}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DirectUploadService {
+
+    private final S3Service s3Service;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StorageDeletionQueue storageDeletionQueue;
+    private final PermissionService permissionService;
+    private final UserService userService;
+    private final WorkerService workerService;
+    private final AgencyService agencyService;
+
+    @Value("${aws.s3.upload.direct.url-expiry-minutes:15}")
+    private long urlExpiryMinutes;
+
+    @Value("${aws.s3.upload.direct.max-size:10MB}")
+    private DataSize maxSize;
+
+    public UploadIntentDto createIntent(UploadIntentRequestDto dto) {
+        String contentType = dto.getContentType().toLowerCase(Locale.ROOT);
+        if (!dto.getTarget().getAllowedContentTypes().contains(contentType)) {
+            throw new CustomDataIntegrityViolationException(
+                    String.format("Content type '%s' is not accepted for %s", dto.getContentType(), dto.getTarget()));
+        }
+        if (dto.getContentLength() > maxSize.toBytes()) {
+            throw new CustomDataIntegrityViolationException("File size exceeds the maximum allowed limit");
+        }
+
+        CoreUser currentUser = permissionService.getLoggedInUser();
+        String objectKey = s3Service.generateFileKey(currentUser.getUserId(), dto.getFileName());
+        pendingUploadRepository.save(PendingUpload.builder()
+                .objectKey(objectKey)
+                .userId(currentUser.getUserId())
+                .target(dto.getTarget())
+                .build());
+
+        URL uploadUrl = s3Service.generatePresignedPutUrl(objectKey, contentType, maxSize.toBytes(), urlExpiryMinutes);
+        return UploadIntentDto.builder()
+                .objectKey(objectKey)
+                .uploadUrl(uploadUrl)
+                .contentType(contentType)
+                .expiresAt(LocalDateTime.now().plusMinutes(urlExpiryMinutes))
+                .build();
+    }
+
+    public ResponseMessageDto completeUpload(UploadCompletionDto dto) {
+        CoreUser currentUser = permissionService.getLoggedInUser();
+        String objectKey = dto.getObjectKey();
+        PendingUpload pendingUpload = pendingUploadRepository.findByObjectKey(objectKey)
+                .filter(upload -> upload.getTarget() != null)
+                .filter(upload -> upload.getUserId().equals(currentUser.getUserId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload intent not found"));
+
+        StoredObjectInfo metadata = s3Service.findObjectMetadata(objectKey)
+                .orElseThrow(() -> new CustomDataIntegrityViolationException("File has not been uploaded yet"));
+        // An S3 presigned URL cannot cap the body size, so it is enforced here as well
+        if (metadata.getContentLength() > maxSize.toBytes()) {
+            log.warn("Direct upload {} is {} bytes, over the limit; discarding", objectKey, metadata.getContentLength());
+            storageDeletionQueue.enqueue(objectKey);
+            pendingUploadRepository.deleteByObjectKeyIn(List.of(objectKey));
+            throw new CustomDataIntegrityViolationException("File size exceeds the maximum allowed limit");
+        }
+
+        return switch (pendingUpload.getTarget()) {
+            case PROFILE_PICTURE -> userService.attachUploadedProfilePicture(objectKey);
+            case PORTFOLIO_IMAGE -> workerService.attachUploadedPortfolioImage(objectKey);
+            case CNIC_FRONT -> workerService.attachUploadedCnicImages(objectKey, null);
+            case CNIC_BACK -> workerService.attachUploadedCnicImages(null, objectKey);
+            case AGENCY_LICENSE -> agencyService.attachUploadedLicenseDocument(objectKey);
+        };
+    }
+}
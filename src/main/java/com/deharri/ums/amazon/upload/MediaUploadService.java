@@ -0,0 +1,83 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.error.exception.FileUploadException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Upload pipeline that keeps storage I/O out of database transactions.
+ *
+ * <p>Callers upload first with {@link #uploadAll}, which sends every file in parallel and
+ * holds no transaction or connection while waiting on storage. They then attach the keys with
+ * {@link #commit}, a short transaction that runs the entity update and clears the
+ * {@link PendingUpload} markers together. Keys that never reach {@code commit} are removed
+ * later by {@link OrphanedUploadReconciler}.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class MediaUploadService {
+
+    private final S3Service s3Service;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StorageDeletionQueue storageDeletionQueue;
+
+    /**
+     * Uploads every file under its key in parallel. The uploads are started together and run
+     * on the storage client's own transfer threads; the calling thread only waits for all of
+     * them to finish. When upload capacity is exhausted the call fails at once rather than
+     * queueing. Must not be called inside a transaction.
+     * On failure, objects that did upload are queued for deletion and a {@link FileUploadException}
+     * is thrown, so the caller never attaches a partial set of keys.
+     */
+    public void uploadAll(UUID userId, Map<String, MultipartFile> filesByKey) {
+        pendingUploadRepository.saveAll(filesByKey.keySet().stream()
+                .map(key -> PendingUpload.builder().objectKey(key).userId(userId).build())
+                .toList());
+
+        CompletableFuture<?>[] uploads = filesByKey.entrySet().stream()
+                .map(entry -> s3Service.uploadFileAsync(entry.getValue(), entry.getKey()))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(uploads).join();
+        } catch (CompletionException e) {
+            discard(filesByKey.keySet());
+            if (e.getCause() instanceof FileUploadException uploadException) {
+                throw uploadException;
+            }
+            throw new FileUploadException("File upload failed", e.getCause());
+        }
+    }
+
+    /**
+     * Attaches uploaded keys: runs {@code attach} (the entity update) and clears the
+     * pending markers in one short transaction.
+     */
+    @Transactional
+    public void commit(Collection<String> keys, Runnable attach) {
+        attach.run();
+        pendingUploadRepository.deleteByObjectKeyIn(keys);
+    }
+
+    // Keys that never made it to storage are deleted as a no-op, so all of them are queued.
+    // If this fails, the pending rows stay and the reconciler queues them later.
+    private void discard(Collection<String> keys) {
+        try {
+            storageDeletionQueue.enqueue(keys);
+            pendingUploadRepository.deleteByObjectKeyIn(keys);
+        } catch (Exception e) {
+            log.warn("Could not discard failed uploads {}: {}", keys, e.getMessage());
+        }
+    }
+}
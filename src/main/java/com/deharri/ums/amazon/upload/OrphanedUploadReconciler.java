@@ -0,0 +1,50 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Queues deletion of objects whose upload finished but whose key was never attached, e.g.
+ * because the commit transaction failed, the instance died in between or a direct-upload
+ * intent was abandoned.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanedUploadReconciler {
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StorageDeletionQueue storageDeletionQueue;
+
+    @Value("${aws.s3.upload.orphan-after-minutes:60}")
+    private long orphanAfterMinutes;
+
+    @Value("${aws.s3.upload.reconcile-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(
+            fixedDelayString = "${aws.s3.upload.reconcile-fixed-delay-ms:600000}",
+            initialDelayString = "${aws.s3.upload.reconcile-initial-delay-ms:60000}")
+    @Transactional
+    public void removeOrphanedUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(orphanAfterMinutes);
+        List<PendingUpload> orphans = pendingUploadRepository
+                .findByCreatedAtBeforeOrderByCreatedAtAsc(cutoff, PageRequest.of(0, batchSize));
+        if (orphans.isEmpty()) {
+            return;
+        }
+        List<String> keys = orphans.stream().map(PendingUpload::getObjectKey).toList();
+        storageDeletionQueue.enqueue(keys);
+        pendingUploadRepository.deleteByObjectKeyIn(keys);
+        log.info("Queued {} orphaned uploads for deletion", keys.size());
+    }
+}
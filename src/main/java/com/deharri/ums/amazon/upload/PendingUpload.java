@@ -0,0 +1,47 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.base.TimeStampFields;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * An object key that may exist in storage but is not yet referenced by any entity.
+ * Written before the upload starts and deleted in the same transaction that attaches
+ * the key, so a row that outlives its grace period marks an orphaned object.
+ */
+@Entity
+@Table(name = "pending_uploads", indexes = {
+        @Index(name = "idx_pending_uploads_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingUpload extends TimeStampFields {
+
+    @Id
+    @Column(name = "upload_id", updatable = false, nullable = false)
+    private UUID uploadId;
+
+    @Column(name = "object_key", nullable = false, unique = true, length = 500)
+    private String objectKey;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // Set for upload intents, where the client uploads directly and completes later;
+    // null for uploads that pass through the service and are attached in the same request.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target", length = 32)
+    private UploadTarget target;
+
+    @PrePersist
+    protected void prePersist() {
+        if (uploadId == null) {
+            uploadId = UUID.randomUUID();
+        }
+    }
+}
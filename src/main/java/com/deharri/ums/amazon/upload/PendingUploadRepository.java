@@ -0,0 +1,28 @@
+package com.deharri.ums.amazon.upload;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PendingUploadRepository extends JpaRepository<PendingUpload, UUID> {
+
+    Optional<PendingUpload> findByObjectKey(String objectKey);
+
+    List<PendingUpload> findByCreatedAtBeforeOrderByCreatedAtAsc(LocalDateTime cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PendingUpload p WHERE p.objectKey IN :keys")
+    int deleteByObjectKeyIn(@Param("keys") Collection<String> keys);
+}
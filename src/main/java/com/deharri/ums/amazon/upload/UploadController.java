@@ -0,0 +1,36 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.amazon.dto.UploadCompletionDto;
+import com.deharri.ums.amazon.dto.UploadIntentDto;
+import com.deharri.ums.amazon.dto.UploadIntentRequestDto;
+import com.deharri.ums.user.dto.response.ResponseMessageDto;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/v1/uploads")
+public class UploadController {
+
+    private final DirectUploadService directUploadService;
+
+    @PostMapping("/intents")
+    public ResponseEntity<UploadIntentDto> createUploadIntent(
+            @Valid @RequestBody UploadIntentRequestDto dto
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(directUploadService.createIntent(dto));
+    }
+
+    @PostMapping("/complete")
+    public ResponseEntity<ResponseMessageDto> completeUpload(
+            @Valid @RequestBody UploadCompletionDto dto
+    ) {
+        return ResponseEntity.ok(directUploadService.completeUpload(dto));
+    }
+}
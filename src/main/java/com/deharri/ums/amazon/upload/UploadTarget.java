@@ -0,0 +1,21 @@
+package com.deharri.ums.amazon.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Where a directly uploaded object gets attached once the client completes the upload.
+ */
+@Getter
+@AllArgsConstructor
+public enum UploadTarget {
+    PROFILE_PICTURE(Set.of("image/jpeg", "image/png", "image/gif", "image/webp")),
+    PORTFOLIO_IMAGE(Set.of("image/jpeg", "image/png", "image/gif", "image/webp")),
+    CNIC_FRONT(Set.of("image/jpeg", "image/png")),
+    CNIC_BACK(Set.of("image/jpeg", "image/png")),
+    AGENCY_LICENSE(Set.of("image/jpeg", "image/png", "application/pdf"));
+
+    private final Set<String> allowedContentTypes;
+}
@@ -22,4 +22,14 @@ public class TimeStampFields {
     @LastModifiedDate
     private LocalDateTime lastUpdatedAt;
 
+    /**
+     * Marks the entity changed when only rows it owns were written (one-to-one children such
+     * as UserData or AvailabilityStatus), which JPA does not treat as a change to the entity.
+     * The stamp makes the entity dirty, so it is updated, moves in the change feed and fires its
+     * update callbacks.
+     */
+    public void markChanged() {
+        lastUpdatedAt = LocalDateTime.now();
+    }
+
 }
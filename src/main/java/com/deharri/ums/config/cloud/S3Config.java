@@ -1,15 +1,26 @@
 package com.deharri.ums.config.cloud;
 
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+// Only needed when media is stored in S3; the local backend runs without AWS credentials.
 @Configuration
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3", matchIfMissing = true)
 public class S3Config {
 
     @Value("${aws.accessKeyId}")
@@ -21,12 +32,55 @@ public class S3Config {
     @Value("${aws.region}")
     private String awsRegion;
 
+    // Files at or above this size go through multipart upload.
+    @Value("${aws.s3.upload.multipart-threshold:16MB}")
+    private DataSize multipartThreshold;
+
+    // Each part is read from the request stream and buffered on its own, so this caps
+    // the memory used by one large upload.
+    @Value("${aws.s3.upload.part-size:8MB}")
+    private DataSize partSize;
+
+    // Upper bound on pooled HTTP connections to S3, shared by every caller
+    @Value("${aws.s3.client.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${aws.s3.client.connection-timeout:5s}")
+    private Duration connectionTimeout;
+
+    @Value("${aws.s3.client.socket-timeout:30s}")
+    private Duration socketTimeout;
+
+    // Pooled connections are recycled after this long so DNS changes on S3's side are picked up
+    @Value("${aws.s3.client.connection-ttl:60s}")
+    private Duration connectionTtl;
+
+    // Threads that run transfers; asynchronous uploads complete on these, not on request threads
+    @Value("${aws.s3.transfer.threads:8}")
+    private int transferThreads;
+
     @Bean
     public AmazonS3 amazonS3() {
         BasicAWSCredentials awsCredentials = new BasicAWSCredentials(awsAccessKeyId, awsSecretKey);
         return AmazonS3ClientBuilder.standard()
                 .withRegion(awsRegion)
                 .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
+                .withClientConfiguration(new ClientConfiguration()
+                        .withMaxConnections(maxConnections)
+                        .withConnectionTimeout((int) connectionTimeout.toMillis())
+                        .withSocketTimeout((int) socketTimeout.toMillis())
+                        .withConnectionTTL(connectionTtl.toMillis()))
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public TransferManager transferManager(AmazonS3 amazonS3) {
+        return TransferManagerBuilder.standard()
+                .withS3Client(amazonS3)
+                .withMultipartUploadThreshold(multipartThreshold.toBytes())
+                .withMinimumUploadPartSize(partSize.toBytes())
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(
+                        transferThreads, new CustomizableThreadFactory("s3-transfer-")))
                 .build();
     }
 }
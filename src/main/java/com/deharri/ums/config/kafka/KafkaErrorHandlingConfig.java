@@ -0,0 +1,78 @@
+package com.deharri.ums.config.kafka;
+
+import com.deharri.ums.events.DeadLetteringBatchInterceptor;
+import com.deharri.ums.events.JobEventConsumerMetrics;
+import com.deharri.ums.events.JobEventTopics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a failing job event from either blocking its partition or disappearing.
+ *
+ * <p>Values are read through {@code ErrorHandlingDeserializer}, so a record that is not valid
+ * JSON arrives as a failure instead of breaking every poll of its partition. Record listeners
+ * retry through {@code @RetryableTopic}: each attempt waits on its own delay topic, and the
+ * partition moves on meanwhile. The batch {@code job.confirmed} listener gets the factory below.
+ * It dead-letters poison records before the listener runs, and a poll whose transaction fails is
+ * handed straight to {@link JobEventTopics#JOB_CONFIRMED_FAILED}, where it is retried one event
+ * at a time rather than by re-running the whole poll in place.
+ */
+@Configuration
+public class KafkaErrorHandlingConfig {
+
+    /**
+     * Sends strings (outbox payloads) and bytes (records that never deserialized) unchanged,
+     * and anything else, such as an event handed on to a retry topic, as JSON.
+     */
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer valueSerializerCustomizer(ObjectMapper objectMapper) {
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(String.class, new StringSerializer());
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(Object.class, new JsonSerializer<>(objectMapper).noTypeInfo());
+        DelegatingByTypeSerializer serializer = new DelegatingByTypeSerializer(delegates, true);
+        return producerFactory -> ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+                .setValueSerializer(serializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> jobConfirmedContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaTemplate<Object, Object> kafkaTemplate,
+            JobEventConsumerMetrics jobEventConsumerMetrics) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(jobEventConsumerMetrics);
+        // Partition -1 lets the producer partition by key, keeping each worker's events in order
+        factory.setBatchInterceptor(new DeadLetteringBatchInterceptor(new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(
+                        JobEventTopics.JOB_CONFIRMED_FAILED + JobEventTopics.DLT_SUFFIX, -1))));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(kafkaTemplate,
+                        (record, exception) -> new TopicPartition(JobEventTopics.JOB_CONFIRMED_FAILED, -1)),
+                new FixedBackOff(0L, 0L)));
+        return factory;
+    }
+}
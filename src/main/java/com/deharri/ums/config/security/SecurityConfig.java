@@ -53,6 +53,7 @@ public class SecurityConfig {
             "/api/v1/workers/internal/**",   // Service-to-service worker activation
             "/api/v1/agencies/internal/**", // Service-to-service agency activation
             "/api/v1/workers/nearby",        // Public nearby worker search
+            "/api/v1/storage/objects",       // Local storage backend; access is checked by URL signature
             "/api/v1/dev/**"                 // Dev-only data wipe endpoint (NOT for production)
     };
 
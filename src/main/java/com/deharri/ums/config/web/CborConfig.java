@@ -0,0 +1,28 @@
+package com.deharri.ums.config.web;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR for service-to-service calls. JSON stays the default; a caller opts in per request with
+ * {@code Accept: application/cbor} (and {@code Content-Type: application/cbor} for bodies), which
+ * is aimed at the high-volume internal sync and lookup endpoints. UUIDs are written as 16-byte
+ * binary values instead of 36-character strings, which is most of the saving on those payloads.
+ *
+ * <p>Built from Boot's {@link Jackson2ObjectMapperBuilder} so CBOR bodies follow the same
+ * {@code spring.jackson.*} settings and modules as JSON, e.g. ISO dates rather than timestamps.
+ * The bean replaces Spring's default CBOR converter in place, after the JSON converter.
+ */
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .build());
+    }
+}
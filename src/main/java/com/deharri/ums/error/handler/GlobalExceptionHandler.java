@@ -4,6 +4,7 @@ import com.deharri.ums.error.exception.AuthenticationException;
 import com.deharri.ums.error.exception.AuthorizationException;
 import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
 import com.deharri.ums.error.exception.FieldsValidationException;
+import com.deharri.ums.error.exception.FileUploadException;
 import com.deharri.ums.error.response.BaseResponse;
 import com.deharri.ums.error.response.DataIntegrityViolationExceptionResponse;
 import com.deharri.ums.error.response.FieldsValidationExceptionResponse;
@@ -261,6 +262,26 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    /**
+     * Handles failures storing an uploaded file.
+     */
+    @ExceptionHandler(FileUploadException.class)
+    public ResponseEntity<BaseResponse> handleFileUploadException(
+            FileUploadException e,
+            HttpServletRequest request
+    ) {
+        log.error("File upload failed on {}: {}", request.getRequestURI(), e.getMessage());
+
+        return ResponseEntity
+                .status(BAD_GATEWAY)
+                .body(new BaseResponse(
+                        BAD_GATEWAY,
+                        e.getMessage(),
+                        LocalDateTime.now(),
+                        request.getRequestURI()
+                ));
+    }
+
     /**
      * Handles malformed JSON or unreadable request body.
      */
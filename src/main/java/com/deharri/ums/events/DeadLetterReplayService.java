@@ -0,0 +1,149 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves records from a dead-letter topic back to the topic they came from, a batch at a time,
+ * once whatever made them fail has been fixed.
+ *
+ * <p>Records are read as raw bytes and republished unchanged, keyed as before so per-key order
+ * holds. The replay group's offsets are committed only after every send is acknowledged; a
+ * failed batch is replayed again next time, which the listeners tolerate because each of them
+ * applies a job's event once. A record that still cannot be applied dead-letters again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterReplayService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String REPLAY_GROUP_ID = "user-mgmt-service-dlt-replay";
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${job-events.dlt.replay.poll-timeout:2s}")
+    private Duration pollTimeout;
+
+    @Value("${job-events.dlt.replay.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    public record ReplayResult(String deadLetterTopic, String targetTopic, int replayed, long remaining) {}
+
+    public ReplayResult replay(String deadLetterTopic, int limit) {
+        String targetTopic = JobEventTopics.DEAD_LETTER_SOURCES.get(deadLetterTopic);
+        if (targetTopic == null) {
+            throw new CustomDataIntegrityViolationException("Unknown dead-letter topic: " + deadLetterTopic);
+        }
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new CustomDataIntegrityViolationException(
+                    "Replay batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(limit));
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        try (Consumer<String, byte[]> consumer =
+                     consumerFactory.createConsumer(REPLAY_GROUP_ID, null, "-dlt-replay", overrides)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return new ReplayResult(deadLetterTopic, targetTopic, 0, 0);
+            }
+            // Assigned rather than subscribed: a one-off read should not wait on a group rebalance
+            consumer.assign(partitions);
+
+            List<ConsumerRecord<String, byte[]>> batch = takeBatch(consumer, limit);
+            Map<TopicPartition, OffsetAndMetadata> replayedUpTo = new HashMap<>();
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (ConsumerRecord<String, byte[]> record : batch) {
+                sends.add(kafkaTemplate.send(targetTopic, record.key(), record.value()));
+                replayedUpTo.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+            }
+            awaitSends(sends, deadLetterTopic);
+            if (!replayedUpTo.isEmpty()) {
+                consumer.commitSync(replayedUpTo);
+            }
+
+            long remaining = remaining(consumer, partitions);
+            log.info("Replayed {} records from {} to {}, {} left", batch.size(), deadLetterTopic, targetTopic, remaining);
+            return new ReplayResult(deadLetterTopic, targetTopic, batch.size(), remaining);
+        }
+    }
+
+    // Each poll returns partitions in turn, so stopping at the limit leaves every partition's
+    // taken records a prefix of what was read, which is what the commit assumes
+    private List<ConsumerRecord<String, byte[]>> takeBatch(Consumer<String, byte[]> consumer, int limit) {
+        List<ConsumerRecord<String, byte[]>> batch = new ArrayList<>(limit);
+        while (batch.size() < limit) {
+            ConsumerRecords<String, byte[]> polled = consumer.poll(pollTimeout);
+            if (polled.isEmpty()) {
+                break;
+            }
+            for (ConsumerRecord<String, byte[]> record : polled) {
+                if (batch.size() == limit) {
+                    break;
+                }
+                batch.add(record);
+            }
+        }
+        return batch;
+    }
+
+    private void awaitSends(List<CompletableFuture<?>> sends, String deadLetterTopic) {
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted replaying " + deadLetterTopic, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Replay of " + deadLetterTopic + " failed; nothing was committed", e);
+        }
+    }
+
+    private long remaining(Consumer<String, byte[]> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions);
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        long remaining = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata replayedUpTo = committed.get(partition);
+            long from = replayedUpTo == null
+                    ? beginnings.get(partition)
+                    : Math.max(replayedUpTo.offset(), beginnings.get(partition));
+            remaining += ends.get(partition) - from;
+        }
+        return remaining;
+    }
+}
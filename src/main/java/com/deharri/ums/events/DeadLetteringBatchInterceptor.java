@@ -0,0 +1,62 @@
+package com.deharri.ums.events;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.ConsumerAwareRecordRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Takes records whose value could not be deserialized out of a poll before the batch listener
+ * sees it, and hands them to the dead-letter recoverer. Left in, a poison record would reach
+ * the listener as a null event and be dropped with only a log line.
+ *
+ * <p>The recoverer publishes synchronously, before the listener's transaction; if that
+ * transaction then fails, the poll is redelivered and the record is dead-lettered again.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetteringBatchInterceptor implements BatchInterceptor<Object, Object> {
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(DeadLetteringBatchInterceptor.class);
+
+    private final ConsumerAwareRecordRecoverer deadLetterRecoverer;
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records,
+                                                     Consumer<Object, Object> consumer) {
+        Map<TopicPartition, List<ConsumerRecord<Object, Object>>> kept = new HashMap<>();
+        boolean deadLettered = false;
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<Object, Object>> partitionRecords = new ArrayList<>();
+            for (ConsumerRecord<Object, Object> record : records.records(partition)) {
+                DeserializationException failure = record.value() != null ? null
+                        : SerializationUtils.getExceptionFromHeader(
+                                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+                if (failure == null) {
+                    partitionRecords.add(record);
+                    continue;
+                }
+                log.warn("Dead-lettering undeserializable record {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), failure.getMessage());
+                deadLetterRecoverer.accept(record, consumer, failure);
+                deadLettered = true;
+            }
+            if (!partitionRecords.isEmpty()) {
+                kept.put(partition, partitionRecords);
+            }
+        }
+        return deadLettered ? new ConsumerRecords<>(kept) : records;
+    }
+}
@@ -0,0 +1,57 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.sync.BulkStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reverses what a cancelled job contributed: its rating, through {@link RatingAggregator}, and
+ * its completed-job count when {@link ProcessedJobEventLedger} shows the confirmation was
+ * counted. Both are recorded per job, so a repeated cancellation changes nothing. An event that
+ * fails is retried through delay topics and then parked in {@code job.cancelled-dlt}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobCancelledListener {
+
+    private final RatingAggregator ratingAggregator;
+    private final ProcessedJobEventLedger processedJobEventLedger;
+    private final BulkStatsService bulkStatsService;
+
+    @RetryableTopic(attempts = "${job-events.retry.attempts:4}", backoff = @Backoff(
+            delayExpression = "${job-events.retry.delay-ms:1000}",
+            multiplierExpression = "${job-events.retry.multiplier:4}",
+            maxDelayExpression = "${job-events.retry.max-delay-ms:60000}"))
+    @KafkaListener(topics = JobEventTopics.JOB_CANCELLED, groupId = "user-mgmt-service")
+    @Transactional
+    public void onJobCancelled(JobLifecycleEvent event) {
+        if (event == null || event.getJobId() == null) {
+            log.warn("Ignoring malformed job.cancelled event: {}", event);
+            return;
+        }
+        log.info("UMS received job.cancelled for job {}", event.getJobId());
+
+        ratingAggregator.withdraw(event.getJobId());
+        if (!processedJobEventLedger.cancel(event.getJobId())) {
+            return;
+        }
+        UUID workerUserId = event.getDispatchedWorkerId() != null
+                ? event.getDispatchedWorkerId()
+                : event.getAssignedWorkerId();
+        if (workerUserId != null) {
+            bulkStatsService.incrementWorkerJobsCompleted(Map.of(workerUserId, -1));
+        }
+        if (event.getAssignedAgencyId() != null) {
+            bulkStatsService.incrementAgencyJobsCompleted(Map.of(event.getAssignedAgencyId(), -1));
+        }
+    }
+}
@@ -1,84 +1,112 @@
 package com.deharri.ums.events;
 
-import com.deharri.ums.agency.AgencyRepository;
-import com.deharri.ums.agency.entity.Agency;
-import com.deharri.ums.worker.WorkerRepository;
-import com.deharri.ums.worker.entity.Worker;
+import com.deharri.ums.sync.BulkStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
  * Increments {@code totalJobsCompleted} on workers and/or agencies in response to
  * {@code job.confirmed} events. Replaces the previous synchronous PUT-driven sync.
  *
- * <p>Increment-by-1 semantics. Re-delivery of an event would over-count in theory,
- * but Spring Kafka's default at-least-once delivery with auto-commit makes that rare
- * in practice. For FYP scope this is a worthwhile trade for the simplicity gain.
+ * <p>Consumes a whole poll at a time. Increments are summed per worker and per agency and
+ * applied as one relative {@code total + n} UPDATE each, in a single transaction, so racing
+ * events and stats PUTs cannot lose each other's writes. Offsets are committed when this
+ * method returns, after the database commit. If the transaction fails, the container hands the
+ * poll's events to {@code job.confirmed.failed} and moves on; {@link JobConfirmedRetryListener}
+ * retries them there one at a time with backoff (see {@code KafkaErrorHandlingConfig}).
+ *
+ * <p>Each job counts once: {@link ProcessedJobEventLedger} claims the poll's job ids in the
+ * same transaction, and events for jobs already claimed, whether redelivered or duplicated
+ * within the poll, are skipped.
+ *
+ * <p>The container runs {@code job-events.listener.concurrency} consumers. Kafka gives each
+ * partition to one of them, so events with the same key stay in order while partitions drain
+ * in parallel; threads beyond the partition count sit idle. Poll size, processing time and
+ * per-partition lag go to {@link JobEventConsumerMetrics}.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JobConfirmedListener {
 
-    private final WorkerRepository workerRepository;
-    private final AgencyRepository agencyRepository;
+    private final BulkStatsService bulkStatsService;
+    private final ProcessedJobEventLedger processedJobEventLedger;
+    private final JobEventConsumerMetrics jobEventConsumerMetrics;
 
-    @KafkaListener(topics = "job.confirmed", groupId = "user-mgmt-service")
+    @KafkaListener(topics = JobEventTopics.JOB_CONFIRMED, groupId = "user-mgmt-service", batch = "true",
+            concurrency = "${job-events.listener.concurrency:3}", containerFactory = "jobConfirmedContainerFactory")
     @Transactional
-    public void onJobConfirmed(JobLifecycleEvent event) {
-        if (event == null || event.getJobId() == null) {
-            log.warn("Ignoring malformed job.confirmed event: {}", event);
-            return;
-        }
-        log.info("UMS received job.confirmed for job {}", event.getJobId());
+    public void onJobConfirmed(List<JobLifecycleEvent> events, Consumer<?, ?> consumer) {
+        long start = System.nanoTime();
+        int applied = apply(events);
 
-        UUID workerUserId = event.getDispatchedWorkerId() != null
-                ? event.getDispatchedWorkerId()
-                : event.getAssignedWorkerId();
-        if (workerUserId != null) {
-            incrementWorkerJobsCompleted(workerUserId);
-        }
-        if (event.getAssignedAgencyId() != null) {
-            incrementAgencyJobsCompleted(event.getAssignedAgencyId());
+        jobEventConsumerMetrics.recordBatch(events.size(), applied, System.nanoTime() - start);
+        // Lag as of this poll's fetch position; known locally, no broker round trip
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.currentLag(partition).ifPresent(lag -> jobEventConsumerMetrics.recordLag(partition, lag));
         }
     }
 
-    private void incrementWorkerJobsCompleted(UUID workerUserId) {
-        try {
-            Worker worker = workerRepository.findByCoreUser_UserId(workerUserId)
-                    .or(() -> workerRepository.findById(workerUserId))
-                    .orElse(null);
-            if (worker == null) {
-                log.warn("Worker not found for userId {} — skipping stat increment", workerUserId);
-                return;
+    /**
+     * Applies the given events' increments, skipping jobs already counted, and returns how many
+     * events were applied.
+     */
+    @Transactional
+    public int apply(List<JobLifecycleEvent> events) {
+        List<JobLifecycleEvent> wellFormed = new ArrayList<>(events.size());
+        for (JobLifecycleEvent event : events) {
+            if (event == null || event.getJobId() == null) {
+                log.warn("Ignoring malformed job.confirmed event: {}", event);
+            } else {
+                wellFormed.add(event);
             }
-            int current = worker.getTotalJobsCompleted() == null ? 0 : worker.getTotalJobsCompleted();
-            worker.setTotalJobsCompleted(current + 1);
-            workerRepository.save(worker);
-            log.info("Incremented worker {} totalJobsCompleted to {}", workerUserId, current + 1);
-        } catch (Exception e) {
-            log.error("Failed to increment worker stats for {}: {}", workerUserId, e.getMessage());
         }
-    }
+        Set<UUID> claimed = processedJobEventLedger.claim(
+                wellFormed.stream().map(JobLifecycleEvent::getJobId).toList());
 
-    private void incrementAgencyJobsCompleted(UUID agencyId) {
-        try {
-            Agency agency = agencyRepository.findById(agencyId).orElse(null);
-            if (agency == null) {
-                log.warn("Agency not found for id {} — skipping stat increment", agencyId);
-                return;
+        // Sorted, so concurrent consumers lock rows in the same order
+        Map<UUID, Integer> workerJobs = new TreeMap<>();
+        Map<UUID, Integer> agencyJobs = new TreeMap<>();
+        int applied = 0;
+        for (JobLifecycleEvent event : wellFormed) {
+            // Removing makes a job counted by its first event only
+            if (!claimed.remove(event.getJobId())) {
+                continue;
             }
-            int current = agency.getTotalJobsCompleted() == null ? 0 : agency.getTotalJobsCompleted();
-            agency.setTotalJobsCompleted(current + 1);
-            agencyRepository.save(agency);
-            log.info("Incremented agency {} totalJobsCompleted to {}", agencyId, current + 1);
-        } catch (Exception e) {
-            log.error("Failed to increment agency stats for {}: {}", agencyId, e.getMessage());
+            applied++;
+            UUID workerUserId = event.getDispatchedWorkerId() != null
+                    ? event.getDispatchedWorkerId()
+                    : event.getAssignedWorkerId();
+            if (workerUserId != null) {
+                workerJobs.merge(workerUserId, 1, Integer::sum);
+            }
+            if (event.getAssignedAgencyId() != null) {
+                agencyJobs.merge(event.getAssignedAgencyId(), 1, Integer::sum);
+            }
+        }
+
+        List<UUID> unknownWorkers = bulkStatsService.incrementWorkerJobsCompleted(workerJobs);
+        List<UUID> unknownAgencies = bulkStatsService.incrementAgencyJobsCompleted(agencyJobs);
+        if (!unknownWorkers.isEmpty()) {
+            log.warn("Workers not found for ids {} — skipping stat increment", unknownWorkers);
+        }
+        if (!unknownAgencies.isEmpty()) {
+            log.warn("Agencies not found for ids {} — skipping stat increment", unknownAgencies);
         }
+        log.info("UMS applied {} of {} job.confirmed events to {} workers and {} agencies", applied, events.size(),
+                workerJobs.size() - unknownWorkers.size(), agencyJobs.size() - unknownAgencies.size());
+        return applied;
     }
 }
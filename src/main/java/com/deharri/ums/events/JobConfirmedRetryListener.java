@@ -0,0 +1,38 @@
+package com.deharri.ums.events;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Retries {@code job.confirmed} events from polls that {@link JobConfirmedListener} failed to
+ * apply, one event per transaction, so an event that keeps failing holds up only itself. Each
+ * attempt waits on a delay topic; once attempts run out the event goes to
+ * {@code job.confirmed.failed-dlt} for replay.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobConfirmedRetryListener {
+
+    private final JobConfirmedListener jobConfirmedListener;
+
+    @RetryableTopic(attempts = "${job-events.retry.attempts:4}", backoff = @Backoff(
+            delayExpression = "${job-events.retry.delay-ms:1000}",
+            multiplierExpression = "${job-events.retry.multiplier:4}",
+            maxDelayExpression = "${job-events.retry.max-delay-ms:60000}"))
+    @KafkaListener(topics = JobEventTopics.JOB_CONFIRMED_FAILED, groupId = "user-mgmt-service")
+    public void onFailedJobConfirmed(JobLifecycleEvent event) {
+        if (event == null) {
+            log.warn("Ignoring empty job.confirmed retry");
+            return;
+        }
+        log.info("UMS retrying job.confirmed for job {}", event.getJobId());
+        jobConfirmedListener.apply(List.of(event));
+    }
+}
@@ -0,0 +1,88 @@
+package com.deharri.ums.events;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters for the {@code job.confirmed} consumer: polls handled, their sizes,
+ * processing time and the lag each partition had after its last poll.
+ *
+ * <p>Updated by every listener thread without locking; a snapshot is consistent per field,
+ * not across fields. Counters reset when the instance restarts.
+ *
+ * <p>Registered as the container's rebalance listener, so a partition's lag is dropped when
+ * the partition is revoked or lost and {@code totalLag} covers only partitions this instance
+ * still owns.
+ */
+@Component
+public class JobEventConsumerMetrics implements ConsumerAwareRebalanceListener {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder appliedRecords = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong maxProcessingNanos = new AtomicLong();
+    private final Map<String, Long> lagByPartition = new ConcurrentHashMap<>();
+
+    public void recordBatch(int size, int applied, long elapsedNanos) {
+        batches.increment();
+        records.add(size);
+        appliedRecords.add(applied);
+        processingNanos.add(elapsedNanos);
+        maxBatchSize.accumulateAndGet(size, Math::max);
+        maxProcessingNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public void recordLag(TopicPartition partition, long lag) {
+        lagByPartition.put(partition.toString(), lag);
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        forgetLag(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        forgetLag(partitions);
+    }
+
+    public Snapshot snapshot() {
+        long batchCount = batches.sum();
+        Map<String, Long> lag = new TreeMap<>(lagByPartition);
+        return new Snapshot(
+                batchCount,
+                records.sum(),
+                appliedRecords.sum(),
+                maxBatchSize.get(),
+                batchCount == 0 ? 0 : (double) records.sum() / batchCount,
+                batchCount == 0 ? 0 : toMillis(processingNanos.sum()) / batchCount,
+                toMillis(maxProcessingNanos.get()),
+                lag.values().stream().mapToLong(Long::longValue).sum(),
+                lag);
+    }
+
+    private void forgetLag(Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> lagByPartition.remove(partition.toString()));
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public record Snapshot(long batches, long records, long appliedRecords, long maxBatchSize,
+                           double meanBatchSize, double meanProcessingMs, double maxProcessingMs,
+                           long totalLag, Map<String, Long> lagByPartition) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.deharri.ums.events;
+
+import java.util.Map;
+
+/**
+ * Topics UMS consumes job events from, and where events that cannot be applied end up.
+ *
+ * <p>Record listeners retry through {@code <topic>-retry-<n>} topics and dead-letter to
+ * {@code <topic>-dlt}. The batch {@code job.confirmed} listener cannot retry a single record in
+ * place, so a poll that fails is handed to {@link #JOB_CONFIRMED_FAILED} and retried there one
+ * event at a time; its dead letters are in that topic's {@code -dlt}.
+ */
+public final class JobEventTopics {
+
+    public static final String JOB_CONFIRMED = "job.confirmed";
+    public static final String JOB_CONFIRMED_FAILED = "job.confirmed.failed";
+    public static final String JOB_REVIEWED = "job.reviewed";
+    public static final String JOB_CANCELLED = "job.cancelled";
+
+    public static final String DLT_SUFFIX = "-dlt";
+
+    /** Each dead-letter topic, mapped to the topic its records are replayed to. */
+    public static final Map<String, String> DEAD_LETTER_SOURCES = Map.of(
+            JOB_CONFIRMED_FAILED + DLT_SUFFIX, JOB_CONFIRMED,
+            JOB_REVIEWED + DLT_SUFFIX, JOB_REVIEWED,
+            JOB_CANCELLED + DLT_SUFFIX, JOB_CANCELLED);
+
+    private JobEventTopics() {}
+}
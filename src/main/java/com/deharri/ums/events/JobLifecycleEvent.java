@@ -11,7 +11,7 @@ import java.util.UUID;
 
 /**
  * Mirror of jobs-service's {@code JobLifecycleEvent}. JSON shape is the contract.
- * UMS only consumes {@code job.confirmed}; CANCELLED variant is not subscribed to here.
+ * UMS consumes CONFIRMED from {@code job.confirmed} and CANCELLED from {@code job.cancelled}.
  */
 @Data
 @Builder
@@ -0,0 +1,37 @@
+package com.deharri.ums.events;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The rating a job currently contributes to its worker's and agency's averages. Kept so an
+ * edited rating or a cancelled job can be reversed exactly, without rescanning reviews.
+ */
+@Entity
+@Table(name = "job_ratings")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class JobRating {
+
+    @Id
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "worker_id", nullable = false)
+    private UUID workerId;
+
+    @Column(name = "agency_id")
+    private UUID agencyId;
+
+    @Column(name = "rating", nullable = false)
+    private Integer rating;
+
+    @Column(name = "rated_at", nullable = false)
+    private LocalDateTime ratedAt;
+}
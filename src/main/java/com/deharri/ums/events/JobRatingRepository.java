@@ -0,0 +1,10 @@
+package com.deharri.ums.events;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface JobRatingRepository extends JpaRepository<JobRating, UUID> {
+}
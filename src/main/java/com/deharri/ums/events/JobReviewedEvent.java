@@ -0,0 +1,28 @@
+package com.deharri.ums.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Mirror of jobs-service's {@code job.reviewed} event, published when a consumer rates a
+ * completed job or edits that rating. JSON shape is the contract.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class JobReviewedEvent {
+
+    private UUID jobId;
+    private UUID workerId;   // the worker's user id, as in JobLifecycleEvent
+    private UUID agencyId;   // set when the job was assigned through an agency
+    private Integer rating;  // 1 to 5 stars
+    private Instant occurredAt;
+}
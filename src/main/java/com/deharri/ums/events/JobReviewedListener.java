@@ -0,0 +1,37 @@
+package com.deharri.ums.events;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+/**
+ * Folds {@code job.reviewed} ratings into worker and agency averages through
+ * {@link RatingAggregator}. Each event is one O(1) update, and redelivery is harmless because
+ * a repeated rating matches the one already stored for its job. An event that fails is retried
+ * through delay topics and then parked in {@code job.reviewed-dlt}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobReviewedListener {
+
+    private final RatingAggregator ratingAggregator;
+
+    @RetryableTopic(attempts = "${job-events.retry.attempts:4}", backoff = @Backoff(
+            delayExpression = "${job-events.retry.delay-ms:1000}",
+            multiplierExpression = "${job-events.retry.multiplier:4}",
+            maxDelayExpression = "${job-events.retry.max-delay-ms:60000}"))
+    @KafkaListener(topics = JobEventTopics.JOB_REVIEWED, groupId = "user-mgmt-service",
+            properties = "spring.json.value.default.type=com.deharri.ums.events.JobReviewedEvent")
+    public void onJobReviewed(JobReviewedEvent event) {
+        if (event == null) {
+            log.warn("Ignoring empty job.reviewed event");
+            return;
+        }
+        log.info("UMS received job.reviewed for job {}", event.getJobId());
+        ratingAggregator.applyReview(event);
+    }
+}
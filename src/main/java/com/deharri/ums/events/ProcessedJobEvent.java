@@ -0,0 +1,36 @@
+package com.deharri.ums.events;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks a job whose {@code job.confirmed} event has been applied. Written by
+ * {@link ProcessedJobEventLedger} in the transaction that applies the increments, so a
+ * redelivered event finds it and is dropped. A cancelled job keeps its row, with
+ * {@code cancelledAt} set, so neither a late confirmation nor a repeated cancellation counts.
+ */
+@Entity
+@Table(name = "processed_job_events", indexes = {
+        // Backs the pruning scan
+        @Index(name = "idx_processed_job_event_processed_at", columnList = "processed_at")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class ProcessedJobEvent {
+
+    @Id
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+}
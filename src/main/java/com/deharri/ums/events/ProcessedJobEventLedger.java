@@ -0,0 +1,149 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.util.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Remembers which jobs' {@code job.confirmed} events have been applied, so redelivery does not
+ * count a job twice.
+ *
+ * <p>Claims are written in the caller's transaction: the ledger row commits or rolls back with
+ * the increments it guards, and its primary key makes a concurrent duplicate fail the second
+ * transaction rather than double count. Recently committed job ids are also kept in a bounded
+ * LRU, so the common redelivery of a just-processed poll is dropped without a query. Rows older
+ * than the retention are pruned in the background; job-service never replays that far back.
+ */
+@Component
+@Slf4j
+public class ProcessedJobEventLedger {
+
+    private static final String INSERT_PROCESSED =
+            "INSERT INTO processed_job_events (job_id, processed_at) VALUES (?, ?)";
+
+    private static final String MARK_CANCELLED =
+            "UPDATE processed_job_events SET cancelled_at = ? WHERE job_id = ? AND cancelled_at IS NULL";
+
+    private static final String INSERT_CANCELLED =
+            "INSERT INTO processed_job_events (job_id, processed_at, cancelled_at) VALUES (?, ?, ?)";
+
+    private final ProcessedJobEventRepository processedJobEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LruCache<UUID, Boolean> recentlyProcessed;
+    private final Duration retention;
+    private final int pruneChunkSize;
+
+    public ProcessedJobEventLedger(ProcessedJobEventRepository processedJobEventRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${job-events.dedup.cache-size:50000}") int cacheSize,
+                                   @Value("${job-events.dedup.retention:30d}") Duration retention,
+                                   @Value("${job-events.dedup.prune-chunk-size:1000}") int pruneChunkSize) {
+        this.processedJobEventRepository = processedJobEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recentlyProcessed = new LruCache<>(cacheSize);
+        this.retention = retention;
+        this.pruneChunkSize = pruneChunkSize;
+    }
+
+    /**
+     * Records the given jobs as processed and returns those that had not been processed before,
+     * each once. Must run in the transaction that applies their effects.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Set<UUID> claim(Collection<UUID> jobIds) {
+        Set<UUID> unseen = new LinkedHashSet<>();
+        for (UUID jobId : jobIds) {
+            if (recentlyProcessed.get(jobId) == null) {
+                unseen.add(jobId);
+            }
+        }
+        if (unseen.isEmpty()) {
+            return unseen;
+        }
+
+        List<UUID> alreadyProcessed = processedJobEventRepository.findProcessedJobIds(unseen);
+        alreadyProcessed.forEach(jobId -> recentlyProcessed.put(jobId, Boolean.TRUE));
+        alreadyProcessed.forEach(unseen::remove);
+        if (unseen.isEmpty()) {
+            return unseen;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> claimed = new ArrayList<>(unseen);
+        jdbcTemplate.batchUpdate(INSERT_PROCESSED, claimed, claimed.size(), (ps, jobId) -> {
+            ps.setObject(1, jobId);
+            ps.setTimestamp(2, now);
+        });
+        // Only remember the claim once it is durable; a rollback must leave the job unprocessed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                claimed.forEach(jobId -> recentlyProcessed.put(jobId, Boolean.TRUE));
+            }
+        });
+        return unseen;
+    }
+
+    /**
+     * Records a job's cancellation in the caller's transaction.
+     *
+     * @return true when the job's confirmation had been counted and must now be undone; false
+     *         when it was never counted or was already cancelled. A job cancelled before its
+     *         confirmation arrives is marked processed, so the confirmation is dropped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean cancel(UUID jobId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(MARK_CANCELLED, now, jobId) > 0) {
+            return true;
+        }
+        if (!processedJobEventRepository.existsById(jobId)) {
+            jdbcTemplate.update(INSERT_CANCELLED, jobId, now, now);
+        }
+        return false;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${job-events.dedup.prune-fixed-delay-ms:3600000}",
+            initialDelayString = "${job-events.dedup.prune-initial-delay-ms:120000}")
+    public void prune() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<UUID> jobIds = processedJobEventRepository.findJobIdsProcessedBefore(
+                        cutoff, PageRequest.of(0, pruneChunkSize));
+                return jobIds.isEmpty() ? 0 : processedJobEventRepository.deleteByJobIds(jobIds);
+            });
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+        }
+        if (total > 0) {
+            log.info("Pruned {} processed job events older than {}", total, cutoff);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.deharri.ums.events;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProcessedJobEventRepository extends JpaRepository<ProcessedJobEvent, UUID> {
+
+    @Query("SELECT p.jobId FROM ProcessedJobEvent p WHERE p.jobId IN :jobIds")
+    List<UUID> findProcessedJobIds(@Param("jobIds") Collection<UUID> jobIds);
+
+    @Query("SELECT p.jobId FROM ProcessedJobEvent p WHERE p.processedAt < :cutoff")
+    List<UUID> findJobIdsProcessedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedJobEvent p WHERE p.jobId IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+}
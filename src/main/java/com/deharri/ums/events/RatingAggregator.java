@@ -0,0 +1,83 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.sync.BulkStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Maintains worker and agency rating averages from review events without rescanning reviews.
+ *
+ * <p>Workers and agencies keep a rating count and sum. Each job's current rating is kept in
+ * {@link JobRating}, so every event becomes one delta: a new rating adds one to the count and
+ * the stars to the sum, an edit adds the difference, a cancelled job takes its rating back out.
+ * The agency the job was done through gets the same delta as the worker, so its average rolls up
+ * from its workers' jobs. A redelivered review matches the stored rating and changes nothing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregator {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
+    private final JobRatingRepository jobRatingRepository;
+    private final BulkStatsService bulkStatsService;
+
+    @Transactional
+    public void applyReview(JobReviewedEvent event) {
+        if (event.getJobId() == null || event.getWorkerId() == null || event.getRating() == null
+                || event.getRating() < MIN_RATING || event.getRating() > MAX_RATING) {
+            log.warn("Ignoring malformed job.reviewed event: {}", event);
+            return;
+        }
+
+        JobRating current = jobRatingRepository.findById(event.getJobId()).orElse(null);
+        if (current == null) {
+            jobRatingRepository.save(JobRating.builder()
+                    .jobId(event.getJobId())
+                    .workerId(event.getWorkerId())
+                    .agencyId(event.getAgencyId())
+                    .rating(event.getRating())
+                    .ratedAt(LocalDateTime.now())
+                    .build());
+            applyDelta(event.getWorkerId(), event.getAgencyId(), 1, event.getRating());
+            return;
+        }
+
+        int difference = event.getRating() - current.getRating();
+        if (difference == 0) {
+            return;
+        }
+        current.setRating(event.getRating());
+        current.setRatedAt(LocalDateTime.now());
+        // An edit keeps the attribution of the original rating, whose delta it corrects
+        applyDelta(current.getWorkerId(), current.getAgencyId(), 0, difference);
+    }
+
+    /**
+     * Takes a cancelled job's rating, if it has one, back out of its worker's and agency's
+     * averages.
+     */
+    @Transactional
+    public void withdraw(UUID jobId) {
+        jobRatingRepository.findById(jobId).ifPresent(rating -> {
+            jobRatingRepository.delete(rating);
+            applyDelta(rating.getWorkerId(), rating.getAgencyId(), -1, -rating.getRating());
+        });
+    }
+
+    private void applyDelta(UUID workerId, UUID agencyId, int countDelta, long sumDelta) {
+        if (!bulkStatsService.adjustWorkerRating(workerId, countDelta, sumDelta)) {
+            log.warn("Worker not found for id {} — skipping rating update", workerId);
+        }
+        if (agencyId != null && !bulkStatsService.adjustAgencyRating(agencyId, countDelta, sumDelta)) {
+            log.warn("Agency not found for id {} — skipping rating update", agencyId);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.deharri.ums.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-process event published by {@link com.deharri.ums.subscription.SubscriptionExpirer}
+ * once per expired chunk, inside the same transaction as the expiry update. Listeners that
+ * need to react atomically should use {@code @EventListener}; ones that must only see
+ * committed state should use {@code @TransactionalEventListener}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SubscriptionExpiredEvent {
+
+    public enum AccountType { WORKER, AGENCY }
+
+    private final AccountType accountType;
+    private final List<UUID> accountIds;
+    private final LocalDateTime expiredAt;
+}
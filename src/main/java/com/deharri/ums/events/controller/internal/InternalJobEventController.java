@@ -0,0 +1,39 @@
+package com.deharri.ums.events.controller.internal;
+
+import com.deharri.ums.events.DeadLetterReplayService;
+import com.deharri.ums.events.JobEventConsumerMetrics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/internal/events")
+@RequiredArgsConstructor
+@Tag(name = "Internal Events API", description = "Internal endpoints for inter-service communication")
+public class InternalJobEventController {
+
+    private final JobEventConsumerMetrics jobEventConsumerMetrics;
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @GetMapping("/job-confirmed/metrics")
+    @Operation(summary = "Consumer lag, poll size and processing time for job.confirmed on this instance")
+    public ResponseEntity<JobEventConsumerMetrics.Snapshot> getJobConfirmedMetrics() {
+        return ResponseEntity.ok(jobEventConsumerMetrics.snapshot());
+    }
+
+    @PostMapping("/dead-letters/{topic}/replay")
+    @Operation(summary = "Republish up to limit records from a dead-letter topic to the topic they failed on; "
+            + "call again until remaining is 0")
+    public ResponseEntity<DeadLetterReplayService.ReplayResult> replayDeadLetters(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(deadLetterReplayService.replay(topic, limit));
+    }
+}
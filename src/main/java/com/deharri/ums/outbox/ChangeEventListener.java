@@ -0,0 +1,35 @@
+package com.deharri.ums.outbox;
+
+import com.deharri.ums.outbox.payload.UserUpdatedPayload;
+import com.deharri.ums.outbox.payload.WorkerUpdatedPayload;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.entity.Worker;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits {@code user.updated} and {@code worker.updated} for every insert or update of those rows,
+ * whichever service method made it. Changes to their one-to-one child rows (availability, CNIC
+ * verification, UserData) count only because the services stamp the parent with
+ * {@code markChanged()}. JPQL and JDBC bulk updates (subscription expiry, rating
+ * and job stats) bypass entity callbacks; expiry has its own event, and stats are not part of
+ * {@code worker.updated} at all since job-service is where they originate.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeEventListener {
+
+    private final OutboxWriter outboxWriter;
+
+    @PostPersist
+    @PostUpdate
+    void onChange(Object entity) {
+        if (entity instanceof Worker worker) {
+            outboxWriter.append(EventTypes.WORKER_UPDATED, worker.getWorkerId(), WorkerUpdatedPayload.from(worker));
+        } else if (entity instanceof CoreUser user) {
+            outboxWriter.append(EventTypes.USER_UPDATED, user.getUserId(), UserUpdatedPayload.from(user));
+        }
+    }
+}
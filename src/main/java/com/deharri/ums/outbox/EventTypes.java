@@ -0,0 +1,12 @@
+package com.deharri.ums.outbox;
+
+/** Event types UMS publishes; each is also the name of the Kafka topic it is sent to. */
+public final class EventTypes {
+
+    public static final String USER_UPDATED = "user.updated";
+    public static final String WORKER_UPDATED = "worker.updated";
+    public static final String AGENCY_MEMBERSHIP_CHANGED = "agency.membership.changed";
+    public static final String SUBSCRIPTION_EXPIRED = "subscription.expired";
+
+    private EventTypes() {}
+}
@@ -0,0 +1,11 @@
+package com.deharri.ums.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * JSON value of every published record. {@code eventId} is unique per event, so consumers can
+ * discard the duplicates that at-least-once delivery allows.
+ */
+public record OutboxEnvelope(UUID eventId, String type, UUID aggregateId, LocalDateTime occurredAt, Object data) {
+}
@@ -0,0 +1,45 @@
+package com.deharri.ums.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A domain event waiting to be published to Kafka. Rows are written by {@link OutboxWriter} in
+ * the same transaction as the change they describe and deleted by {@link OutboxRelay} once the
+ * broker has acknowledged them, so an event is published if and only if its change commits.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Publication order; an aggregate's rows are inserted while its row lock is held
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "sequence_id", updatable = false, nullable = false)
+    private Long sequenceId;
+
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private UUID eventId;
+
+    // Also the Kafka topic, e.g. worker.updated
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    // Kafka record key, so one aggregate's events stay in order on one partition
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
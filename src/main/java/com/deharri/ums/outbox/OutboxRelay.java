@@ -0,0 +1,108 @@
+package com.deharri.ums.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the outbox to Kafka in batches.
+ *
+ * <p>Each batch locks the oldest rows, sends them all keyed by aggregate id and then waits for
+ * the acknowledgements, so a batch costs one flush rather than one round trip per event.
+ * Acknowledged rows are deleted in the same transaction. Once an aggregate's event fails, its
+ * later events in the batch are kept too, and the whole run is retried from the oldest row on
+ * the next poll. Delivery is at least once: consumers deduplicate on the envelope's eventId.
+ *
+ * <p>The row lock is held while sending. That serialises relays across instances, which is
+ * what keeps an aggregate's events in order; one relay easily keeps up with this service.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout:10s}")
+    private Duration sendTimeout;
+
+    @Scheduled(
+            fixedDelayString = "${outbox.relay.fixed-delay-ms:1000}",
+            initialDelayString = "${outbox.relay.initial-delay-ms:10000}")
+    public void relay() {
+        // Keep going while batches come back full and fully published
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> relayBatch()))) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    boolean relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockOldest(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(kafkaTemplate.send(event.getEventType(), event.getAggregateId().toString(), event.getPayload()));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> published = new ArrayList<>(batch.size());
+        Set<UUID> blocked = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (awaitAck(event, sends.get(i)) && !blocked.contains(event.getAggregateId())) {
+                published.add(event.getSequenceId());
+            } else {
+                blocked.add(event.getAggregateId());
+            }
+        }
+        if (!published.isEmpty()) {
+            outboxEventRepository.deleteBySequenceIdIn(published);
+        }
+        if (published.size() < batch.size()) {
+            log.warn("Published {} of {} outbox events; the rest will be retried", published.size(), batch.size());
+        }
+        return published.size() == batchSize;
+    }
+
+    private boolean awaitAck(OutboxEvent event, CompletableFuture<SendResult<String, String>> send) {
+        try {
+            send.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Publishing {} event {} failed: {}", event.getEventType(), event.getEventId(), e.toString());
+            return false;
+        }
+    }
+}
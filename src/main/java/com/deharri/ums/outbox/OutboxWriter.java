@@ -0,0 +1,39 @@
+package com.deharri.ums.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Appends events to the outbox. Writes go through JDBC on the caller's transaction, so they
+ * commit or roll back with the change, and so they can also be made from JPA entity callbacks
+ * where the EntityManager must not be used.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void append(String eventType, UUID aggregateId, Object data) {
+        UUID eventId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new OutboxEnvelope(eventId, eventType, aggregateId, now, data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise " + eventType + " event", e);
+        }
+        jdbcTemplate.update(
+                "INSERT INTO outbox_events (event_id, event_type, aggregate_id, payload, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?)",
+                eventId, eventType, aggregateId, payload, Timestamp.valueOf(now));
+    }
+}
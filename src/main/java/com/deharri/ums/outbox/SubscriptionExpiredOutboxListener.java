@@ -0,0 +1,28 @@
+package com.deharri.ums.outbox;
+
+import com.deharri.ums.events.SubscriptionExpiredEvent;
+import com.deharri.ums.outbox.payload.SubscriptionExpiredPayload;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Turns each expired chunk into one {@code subscription.expired} event per account. Runs inside
+ * the expiry transaction, so the events commit with the status change.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubscriptionExpiredOutboxListener {
+
+    private final OutboxWriter outboxWriter;
+
+    @EventListener
+    public void onSubscriptionExpired(SubscriptionExpiredEvent event) {
+        for (UUID accountId : event.getAccountIds()) {
+            outboxWriter.append(EventTypes.SUBSCRIPTION_EXPIRED, accountId,
+                    new SubscriptionExpiredPayload(event.getAccountType(), accountId, event.getExpiredAt()));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.deharri.ums.outbox.payload;
+
+import java.util.UUID;
+
+public record AgencyMembershipChangedPayload(UUID agencyId, UUID workerId, UUID userId, Change change) {
+
+    public enum Change { JOINED, REMOVED, LEFT }
+}
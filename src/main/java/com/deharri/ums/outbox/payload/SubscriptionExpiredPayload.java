@@ -0,0 +1,9 @@
+package com.deharri.ums.outbox.payload;
+
+import com.deharri.ums.events.SubscriptionExpiredEvent.AccountType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record SubscriptionExpiredPayload(AccountType accountType, UUID accountId, LocalDateTime expiredAt) {
+}
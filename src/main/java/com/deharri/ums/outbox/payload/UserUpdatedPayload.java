@@ -0,0 +1,17 @@
+package com.deharri.ums.outbox.payload;
+
+import com.deharri.ums.user.entity.CoreUser;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record UserUpdatedPayload(UUID userId, String username, String firstName, String lastName,
+                                 String profilePicturePath, LocalDateTime lastUpdatedAt) {
+
+    public static UserUpdatedPayload from(CoreUser user) {
+        return new UserUpdatedPayload(user.getUserId(), user.getUsername(), user.getFirstName(),
+                user.getLastName(),
+                user.getUserData() != null ? user.getUserData().getProfilePicturePath() : null,
+                user.getLastUpdatedAt());
+    }
+}
@@ -0,0 +1,42 @@
+package com.deharri.ums.outbox.payload;
+
+import com.deharri.ums.worker.entity.Worker;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Columns of the worker row plus its eagerly loaded status rows. Lazy associations are only
+ * referenced by id, which Hibernate answers without initialising them, because the payload is
+ * built inside a flush.
+ *
+ * <p>Rating and completed-job stats are left out: they change through JDBC updates driven by
+ * job-service's own events, which never pass through this payload, so any value here would be
+ * stale. Consumers that need them read the internal API.
+ */
+public record WorkerUpdatedPayload(UUID workerId, UUID userId, String workerType, String city, String area,
+                                   Integer experienceYears, BigDecimal hourlyRate, BigDecimal dailyRate,
+                                   String availabilityStatus, boolean verified, boolean subscriptionActive,
+                                   LocalDateTime subscriptionExpiresAt, UUID agencyId,
+                                   LocalDateTime lastUpdatedAt) {
+
+    public static WorkerUpdatedPayload from(Worker worker) {
+        return new WorkerUpdatedPayload(
+                worker.getWorkerId(),
+                worker.getCoreUser() != null ? worker.getCoreUser().getUserId() : null,
+                worker.getWorkerType() != null ? worker.getWorkerType().name() : null,
+                worker.getCity() != null ? worker.getCity().name() : null,
+                worker.getArea(),
+                worker.getExperienceYears(),
+                worker.getHourlyRate(),
+                worker.getDailyRate(),
+                worker.getAvailabilityStatus() != null
+                        ? worker.getAvailabilityStatus().getAvailabilityStatus().name() : null,
+                worker.isVerified(),
+                worker.isSubscriptionActive(),
+                worker.getSubscriptionExpiresAt(),
+                worker.getAgency() != null ? worker.getAgency().getAgencyId() : null,
+                worker.getLastUpdatedAt());
+    }
+}
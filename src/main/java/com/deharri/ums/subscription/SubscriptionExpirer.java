@@ -0,0 +1,96 @@
+package com.deharri.ums.subscription;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
+import com.deharri.ums.events.SubscriptionExpiredEvent;
+import com.deharri.ums.events.SubscriptionExpiredEvent.AccountType;
+import com.deharri.ums.worker.WorkerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Single lifecycle sweep for worker and agency subscriptions.
+ *
+ * <p>Each run scans the subscription index for lapsed accounts and expires them in
+ * fixed-size chunks: one id scan plus one set-based {@code UPDATE} per chunk, each chunk in
+ * its own short transaction, so no entity is ever loaded and row locks are held briefly.
+ * A {@link SubscriptionExpiredEvent} is published per chunk inside that transaction, carrying
+ * only the accounts the update expired; one renewed after the scan is left out.
+ *
+ * <p>The sweep runs every minute by default, and read paths also compare
+ * {@code subscriptionExpiresAt} against the clock, so a lapsed account is hidden
+ * even before the sweep reaches it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SubscriptionExpirer {
+
+    private final WorkerRepository workerRepository;
+    private final AgencyRepository agencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${subscription.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(
+            fixedDelayString = "${subscription.expiry.fixed-delay-ms:60000}",
+            initialDelayString = "${subscription.expiry.initial-delay-ms:30000}")
+    public void expireStaleSubscriptions() {
+        int workers = expireInChunks(AccountType.WORKER,
+                (cutoff, page) -> workerRepository.findIdsWithExpiredSubscription(cutoff, page),
+                workerRepository::expireSubscriptions,
+                workerRepository::findIdsExpiredAt);
+        int agencies = expireInChunks(AccountType.AGENCY,
+                (cutoff, page) -> agencyRepository.findIdsBySubscriptionStatusAndSubscriptionExpiresAtBefore(
+                        AgencySubscriptionStatus.ACTIVE, cutoff, page),
+                agencyRepository::expireSubscriptions,
+                agencyRepository::findIdsExpiredAt);
+        if (workers > 0 || agencies > 0) {
+            log.info("Expired {} worker and {} agency subscriptions", workers, agencies);
+        }
+    }
+
+    private int expireInChunks(AccountType type,
+                               BiFunction<LocalDateTime, PageRequest, List<UUID>> scan,
+                               BiFunction<List<UUID>, LocalDateTime, Integer> expire,
+                               BiFunction<List<UUID>, LocalDateTime, List<UUID>> findExpired) {
+        int total = 0;
+        while (true) {
+            Integer expired = transactionTemplate.execute(status -> {
+                // Truncated to the column precision so the re-select can match the stamp
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                List<UUID> ids = scan.apply(now, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                if (expire.apply(ids, now) == 0) {
+                    return 0;
+                }
+                // The rows are locked by the update until commit, so this is exactly what it changed
+                List<UUID> expiredIds = findExpired.apply(ids, now);
+                eventPublisher.publishEvent(new SubscriptionExpiredEvent(type, expiredIds, now));
+                return expiredIds.size();
+            });
+            // Always page 0: expired rows drop out of the scan. Stop on an empty or
+            // no-op chunk so a row we cannot update never spins the loop.
+            if (expired == null || expired == 0) {
+                return total;
+            }
+            total += expired;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.dto.response.InternalAgencyDto;
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.user.dto.response.InternalUserDto;
+import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.dto.response.InternalWorkerSummaryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Batch identity lookups for other services. Each batch is answered by one IN query over a
+ * projection, and ids may be either of the two identifiers a caller is likely to hold (user or
+ * worker id, agency or owner id). Answers are keyed by the id that was asked for; ids that
+ * match nothing are left out of the map.
+ */
+@Service
+public class BatchLookupService {
+
+    private final UserRepository userRepository;
+    private final WorkerRepository workerRepository;
+    private final AgencyRepository agencyRepository;
+    private final int maxIds;
+
+    public BatchLookupService(UserRepository userRepository,
+                              WorkerRepository workerRepository,
+                              AgencyRepository agencyRepository,
+                              @Value("${internal.batch.max-ids:200}") int maxIds) {
+        this.userRepository = userRepository;
+        this.workerRepository = workerRepository;
+        this.agencyRepository = agencyRepository;
+        this.maxIds = maxIds;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, InternalUserDto> findUsers(Collection<UUID> ids) {
+        Set<UUID> requested = distinct(ids);
+        if (requested.isEmpty()) {
+            return Map.of();
+        }
+        return keyByRequested(requested, userRepository.findIdentitiesByUserOrWorkerIds(requested),
+                UserRepository.IdentityRow::getUserId, UserRepository.IdentityRow::getWorkerId,
+                InternalUserDto::from);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, InternalWorkerSummaryDto> findWorkers(Collection<UUID> ids) {
+        Set<UUID> requested = distinct(ids);
+        if (requested.isEmpty()) {
+            return Map.of();
+        }
+        return keyByRequested(requested, workerRepository.findSummariesByWorkerOrUserIds(requested),
+                WorkerRepository.SummaryRow::getWorkerId, WorkerRepository.SummaryRow::getUserId,
+                InternalWorkerSummaryDto::from);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<UUID, InternalAgencyDto> findAgencies(Collection<UUID> ids) {
+        Set<UUID> requested = distinct(ids);
+        if (requested.isEmpty()) {
+            return Map.of();
+        }
+        return keyByRequested(requested, agencyRepository.findSummariesByAgencyOrOwnerIds(requested),
+                AgencyRepository.SummaryRow::getAgencyId, AgencyRepository.SummaryRow::getOwnerUserId,
+                InternalAgencyDto::from);
+    }
+
+    private Set<UUID> distinct(Collection<UUID> ids) {
+        Set<UUID> requested = new LinkedHashSet<>();
+        ids.stream().filter(Objects::nonNull).forEach(requested::add);
+        if (requested.size() > maxIds) {
+            throw new CustomDataIntegrityViolationException(
+                    "At most " + maxIds + " ids can be looked up per request");
+        }
+        return requested;
+    }
+
+    // A row can answer two requested ids at once, e.g. a worker asked for by both its ids
+    private static <R, D> Map<UUID, D> keyByRequested(Set<UUID> requested, List<R> rows,
+                                                      Function<R, UUID> primaryId,
+                                                      Function<R, UUID> alternateId,
+                                                      Function<R, D> mapper) {
+        Map<UUID, D> answers = new LinkedHashMap<>();
+        for (R row : rows) {
+            D dto = mapper.apply(row);
+            UUID primary = primaryId.apply(row);
+            UUID alternate = alternateId.apply(row);
+            if (requested.contains(primary)) {
+                answers.put(primary, dto);
+            }
+            if (alternate != null && requested.contains(alternate)) {
+                answers.put(alternate, dto);
+            }
+        }
+        return answers;
+    }
+}
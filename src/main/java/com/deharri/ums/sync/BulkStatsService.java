@@ -0,0 +1,254 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto.Outcome;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto.RowOutcome;
+import com.deharri.ums.sync.dto.StatsUpdateRowDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies rating and completed-job stats from job-service's reconciliation in bulk.
+ *
+ * <p>Rows become JDBC batches of single-row UPDATE statements in one transaction, so nothing
+ * is loaded into the persistence context and a thousand rows cost a handful of round trips
+ * rather than a thousand read-modify-write calls. Each statement's update count gives the row's
+ * outcome. lastUpdatedAt is stamped explicitly because JPA auditing does not see these writes
+ * and the delta feed depends on it.
+ *
+ * <p>It also applies the completed-job increments that {@code JobConfirmedListener} aggregates
+ * from each poll and the rating deltas from {@code RatingAggregator}, as relative updates.
+ */
+@Service
+public class BulkStatsService {
+
+    // The rating is replaced as a whole (count, sum and the average derived from them) only when
+    // the row gives one; the flag ahead of each value says whether it does. A deprecated bare
+    // average is written with NULL totals, the legacy state rating deltas leave alone.
+    private static final String ABSOLUTE_STATS =
+            "average_rating = CASE WHEN ? THEN ? ELSE average_rating END, " +
+            "rating_count = CASE WHEN ? THEN ? ELSE rating_count END, " +
+            "rating_sum = CASE WHEN ? THEN ? ELSE rating_sum END, " +
+            "total_jobs_completed = COALESCE(?, total_jobs_completed), last_updated_at = ? ";
+
+    // Worker rows may be addressed by worker id or by the worker's user id, as in the single-row API
+    private static final String UPDATE_WORKER_STATS =
+            "UPDATE worker SET " + ABSOLUTE_STATS + "WHERE worker_id = ? OR user_id = ?";
+
+    private static final String UPDATE_AGENCY_STATS =
+            "UPDATE agency SET " + ABSOLUTE_STATS + "WHERE agency_id = ?";
+
+    // Relative updates: concurrent increments and stats writes never overwrite each other
+    private static final String INCREMENT_WORKER_JOBS =
+            "UPDATE worker SET total_jobs_completed = COALESCE(total_jobs_completed, 0) + ?, " +
+            "last_updated_at = ? WHERE worker_id = ? OR user_id = ?";
+
+    private static final String INCREMENT_AGENCY_JOBS =
+            "UPDATE agency SET total_jobs_completed = COALESCE(total_jobs_completed, 0) + ?, " +
+            "last_updated_at = ? WHERE agency_id = ?";
+
+    // Applies a rating delta and recomputes the average from the new count and sum; the right-hand
+    // side reads the row's values from before the update. A row whose count is still NULL predates
+    // count and sum and holds a legacy average of unknown weight: the NULLs absorb the delta and
+    // the average is kept until a stats update seeds the count and sum.
+    private static final String RATING_DELTA =
+            "rating_count = rating_count + ?, rating_sum = rating_sum + ?, " +
+            "average_rating = CASE WHEN rating_count IS NULL THEN average_rating " +
+            "WHEN rating_count + ? > 0 THEN ROUND(CAST(rating_sum + ? AS DECIMAL(12, 2)) / (rating_count + ?), 2) " +
+            "ELSE NULL END, last_updated_at = ? ";
+
+    // Rows without a legacy average have nothing to preserve and can start counting from zero
+    private static final String SEED_EMPTY_WORKER_RATINGS =
+            "UPDATE worker SET rating_count = 0, rating_sum = 0 WHERE rating_count IS NULL AND average_rating IS NULL";
+
+    private static final String SEED_EMPTY_AGENCY_RATINGS =
+            "UPDATE agency SET rating_count = 0, rating_sum = 0 WHERE rating_count IS NULL AND average_rating IS NULL";
+
+    private static final String ADJUST_WORKER_RATING =
+            "UPDATE worker SET " + RATING_DELTA + "WHERE worker_id = ? OR user_id = ?";
+
+    private static final String ADJUST_AGENCY_RATING =
+            "UPDATE agency SET " + RATING_DELTA + "WHERE agency_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxRows;
+    private final int jdbcBatchSize;
+
+    public BulkStatsService(JdbcTemplate jdbcTemplate,
+                            @Value("${internal.stats-batch.max-rows:5000}") int maxRows,
+                            @Value("${internal.stats-batch.jdbc-batch-size:500}") int jdbcBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxRows = maxRows;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Transactional
+    public BulkStatsUpdateResultDto updateWorkerStats(List<StatsUpdateRowDto> rows) {
+        return apply(rows, UPDATE_WORKER_STATS, true);
+    }
+
+    @Transactional
+    public BulkStatsUpdateResultDto updateAgencyStats(List<StatsUpdateRowDto> rows) {
+        return apply(rows, UPDATE_AGENCY_STATS, false);
+    }
+
+    /**
+     * Adds completed jobs to workers, keyed by worker id or the worker's user id.
+     *
+     * @return the ids that matched no worker
+     */
+    @Transactional
+    public List<UUID> incrementWorkerJobsCompleted(Map<UUID, Integer> increments) {
+        return increment(increments, INCREMENT_WORKER_JOBS, true);
+    }
+
+    /**
+     * Adds completed jobs to agencies.
+     *
+     * @return the ids that matched no agency
+     */
+    @Transactional
+    public List<UUID> incrementAgencyJobsCompleted(Map<UUID, Integer> increments) {
+        return increment(increments, INCREMENT_AGENCY_JOBS, false);
+    }
+
+    /**
+     * Adds {@code countDelta} ratings totalling {@code sumDelta} to a worker, keyed by worker id or
+     * the worker's user id, and recomputes its average in the same statement.
+     *
+     * @return whether a worker matched
+     */
+    @Transactional
+    public boolean adjustWorkerRating(UUID workerOrUserId, int countDelta, long sumDelta) {
+        return adjustRating(ADJUST_WORKER_RATING, countDelta, sumDelta, workerOrUserId, workerOrUserId);
+    }
+
+    /**
+     * Agency counterpart of {@link #adjustWorkerRating}.
+     *
+     * @return whether the agency exists
+     */
+    @Transactional
+    public boolean adjustAgencyRating(UUID agencyId, int countDelta, long sumDelta) {
+        return adjustRating(ADJUST_AGENCY_RATING, countDelta, sumDelta, agencyId);
+    }
+
+    /**
+     * Starts count and sum at zero for rows that have neither those nor a legacy average, so
+     * rating deltas apply to them. Rows that do have a legacy average keep it until a stats update
+     * supplies their count and sum.
+     *
+     * @return the number of worker and agency rows seeded
+     */
+    @Transactional
+    public int seedEmptyRatingTotals() {
+        return jdbcTemplate.update(SEED_EMPTY_WORKER_RATINGS) + jdbcTemplate.update(SEED_EMPTY_AGENCY_RATINGS);
+    }
+
+    private boolean adjustRating(String sql, int countDelta, long sumDelta, UUID... ids) {
+        Object[] args = new Object[6 + ids.length];
+        args[0] = countDelta;
+        args[1] = sumDelta;
+        args[2] = countDelta;
+        args[3] = sumDelta;
+        args[4] = countDelta;
+        args[5] = Timestamp.valueOf(LocalDateTime.now());
+        System.arraycopy(ids, 0, args, 6, ids.length);
+        return jdbcTemplate.update(sql, args) > 0;
+    }
+
+    private List<UUID> increment(Map<UUID, Integer> increments, String sql, boolean matchUserId) {
+        if (increments.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<UUID, Integer>> entries = new ArrayList<>(increments.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[][] counts = jdbcTemplate.batchUpdate(sql, entries, jdbcBatchSize, (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setTimestamp(2, now);
+            ps.setObject(3, entry.getKey());
+            if (matchUserId) {
+                ps.setObject(4, entry.getKey());
+            }
+        });
+
+        List<UUID> unmatched = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (!matched(counts[i / jdbcBatchSize][i % jdbcBatchSize])) {
+                unmatched.add(entries.get(i).getKey());
+            }
+        }
+        return unmatched;
+    }
+
+    private BulkStatsUpdateResultDto apply(List<StatsUpdateRowDto> rows, String sql, boolean matchUserId) {
+        if (rows.size() > maxRows) {
+            throw new CustomDataIntegrityViolationException(
+                    "At most " + maxRows + " stats rows can be applied per request");
+        }
+        List<StatsUpdateRowDto> changes = rows.stream()
+                .filter(row -> row.hasRating() || row.getTotalJobsCompleted() != null)
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[][] counts = jdbcTemplate.batchUpdate(sql, changes, jdbcBatchSize, (ps, row) -> {
+            ps.setBoolean(1, row.hasRating());
+            ps.setObject(2, row.resolveAverageRating(), Types.NUMERIC);
+            ps.setBoolean(3, row.hasRating());
+            ps.setObject(4, row.getRatingCount(), Types.INTEGER);
+            ps.setBoolean(5, row.hasRating());
+            ps.setObject(6, row.getRatingSum(), Types.BIGINT);
+            ps.setObject(7, row.getTotalJobsCompleted(), Types.INTEGER);
+            ps.setTimestamp(8, now);
+            ps.setObject(9, row.getId());
+            if (matchUserId) {
+                ps.setObject(10, row.getId());
+            }
+        });
+
+        List<RowOutcome> outcomes = new ArrayList<>(rows.size());
+        int updated = 0;
+        int notFound = 0;
+        int next = 0;
+        for (StatsUpdateRowDto row : rows) {
+            if (!row.hasRating() && row.getTotalJobsCompleted() == null) {
+                outcomes.add(new RowOutcome(row.getId(), Outcome.SKIPPED));
+                continue;
+            }
+            int count = counts[next / jdbcBatchSize][next % jdbcBatchSize];
+            next++;
+            if (matched(count)) {
+                outcomes.add(new RowOutcome(row.getId(), Outcome.UPDATED));
+                updated++;
+            } else {
+                outcomes.add(new RowOutcome(row.getId(), Outcome.NOT_FOUND));
+                notFound++;
+            }
+        }
+
+        return BulkStatsUpdateResultDto.builder()
+                .updated(updated)
+                .notFound(notFound)
+                .skipped(rows.size() - updated - notFound)
+                .rows(outcomes)
+                .build();
+    }
+
+    // Some drivers report SUCCESS_NO_INFO for batched statements; the statement did run
+    private static boolean matched(int updateCount) {
+        return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+    }
+}
@@ -0,0 +1,53 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a delta feed: the last change returned, as (lastUpdatedAt, id), and the last
+ * tombstone returned, as (deletedAt, tombstoneId). Clients treat the encoded form as opaque
+ * and send it back unchanged to continue the feed.
+ */
+@Getter
+@AllArgsConstructor
+public class DeltaCursor {
+
+    // Sorts before every real id, so a fresh position includes rows changed exactly at `since`
+    static final UUID MIN_ID = new UUID(0L, 0L);
+
+    private static final String VERSION = "v1";
+
+    private final LocalDateTime changedAt;
+    private final UUID changedId;
+    private final LocalDateTime deletedAt;
+    private final long tombstoneId;
+
+    public static DeltaCursor startingAt(LocalDateTime since) {
+        return new DeltaCursor(since, MIN_ID, since, 0L);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, changedAt.toString(), changedId.toString(),
+                deletedAt.toString(), Long.toString(tombstoneId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DeltaCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            return new DeltaCursor(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]),
+                    LocalDateTime.parse(parts[3]), Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new CustomDataIntegrityViolationException("Invalid sync cursor");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.dto.response.InternalAgencyDto;
+import com.deharri.ums.agency.entity.Agency;
+import com.deharri.ums.base.TimeStampFields;
+import com.deharri.ums.sync.dto.DeltaPageDto;
+import com.deharri.ums.sync.dto.TombstoneDto;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.user.dto.response.InternalUserDto;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.dto.response.InternalWorkerProfileDto;
+import com.deharri.ums.worker.entity.Worker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Change feeds for the internal user, worker and agency APIs.
+ *
+ * <p>Each page is a keyset scan on the indexed (lastUpdatedAt, id) columns plus a keyset scan
+ * of the entity type's tombstones, so a sync costs as much as the number of changes rather than
+ * the size of the table. Rows changed within the last {@code sync.delta.settle-seconds} are
+ * held back until a later poll: a transaction that commits a little after it stamped
+ * lastUpdatedAt would otherwise land behind a cursor that has already moved past it.
+ */
+@Service
+public class DeltaSyncService {
+
+    // Feed start when the caller gives neither since nor cursor
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final UserRepository userRepository;
+    private final WorkerRepository workerRepository;
+    private final AgencyRepository agencyRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final long settleSeconds;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public DeltaSyncService(UserRepository userRepository,
+                            WorkerRepository workerRepository,
+                            AgencyRepository agencyRepository,
+                            SyncTombstoneRepository syncTombstoneRepository,
+                            @Value("${sync.delta.settle-seconds:5}") long settleSeconds,
+                            @Value("${sync.delta.default-limit:100}") int defaultLimit,
+                            @Value("${sync.delta.max-limit:500}") int maxLimit) {
+        this.userRepository = userRepository;
+        this.workerRepository = workerRepository;
+        this.agencyRepository = agencyRepository;
+        this.syncTombstoneRepository = syncTombstoneRepository;
+        this.settleSeconds = settleSeconds;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Transactional(readOnly = true)
+    public DeltaPageDto<InternalUserDto> userChanges(LocalDateTime since, String cursor, Integer limit) {
+        return page(SyncEntityType.USER, since, cursor, limit,
+                userRepository::findChangedAfter, CoreUser::getUserId, InternalUserDto::from);
+    }
+
+    @Transactional(readOnly = true)
+    public DeltaPageDto<InternalWorkerProfileDto> workerChanges(LocalDateTime since, String cursor, Integer limit) {
+        return page(SyncEntityType.WORKER, since, cursor, limit,
+                workerRepository::findChangedAfter, Worker::getWorkerId, InternalWorkerProfileDto::from);
+    }
+
+    @Transactional(readOnly = true)
+    public DeltaPageDto<InternalAgencyDto> agencyChanges(LocalDateTime since, String cursor, Integer limit) {
+        return page(SyncEntityType.AGENCY, since, cursor, limit,
+                agencyRepository::findChangedAfter, Agency::getAgencyId, InternalAgencyDto::from);
+    }
+
+    private <E extends TimeStampFields, D> DeltaPageDto<D> page(
+            SyncEntityType type, LocalDateTime since, String cursor, Integer limit,
+            ChangedRowsQuery<E> query, Function<E, UUID> idOf, Function<E, D> mapper) {
+        DeltaCursor position = cursor != null && !cursor.isBlank()
+                ? DeltaCursor.decode(cursor)
+                : DeltaCursor.startingAt(since != null ? since : BEGINNING);
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        Pageable pageable = PageRequest.of(0, pageSize);
+        LocalDateTime until = LocalDateTime.now().minusSeconds(settleSeconds);
+
+        List<E> changed = query.find(position.getChangedAt(), position.getChangedId(), until, pageable);
+        List<SyncTombstone> tombstones = syncTombstoneRepository.findPage(
+                type, position.getDeletedAt(), position.getTombstoneId(), until, pageable);
+
+        LocalDateTime changedAt = position.getChangedAt();
+        UUID changedId = position.getChangedId();
+        if (!changed.isEmpty()) {
+            E last = changed.get(changed.size() - 1);
+            changedAt = last.getLastUpdatedAt();
+            changedId = idOf.apply(last);
+        }
+        LocalDateTime deletedAt = position.getDeletedAt();
+        long tombstoneId = position.getTombstoneId();
+        if (!tombstones.isEmpty()) {
+            SyncTombstone last = tombstones.get(tombstones.size() - 1);
+            deletedAt = last.getDeletedAt();
+            tombstoneId = last.getTombstoneId();
+        }
+
+        return DeltaPageDto.<D>builder()
+                .items(changed.stream().map(mapper).toList())
+                .tombstones(tombstones.stream()
+                        .map(t -> new TombstoneDto(t.getEntityId(), t.getDeletedAt()))
+                        .toList())
+                .nextCursor(new DeltaCursor(changedAt, changedId, deletedAt, tombstoneId).encode())
+                .hasMore(changed.size() == pageSize || tombstones.size() == pageSize)
+                .build();
+    }
+
+    @FunctionalInterface
+    interface ChangedRowsQuery<E> {
+        List<E> find(LocalDateTime after, UUID afterId, LocalDateTime until, Pageable pageable);
+    }
+}
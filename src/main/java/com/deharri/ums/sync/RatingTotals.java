@@ -0,0 +1,36 @@
+package com.deharri.ums.sync;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rules shared by every write of a worker's or agency's rating state. The average is always
+ * derived from the count and sum, so stats updates send those instead of an average that the
+ * next {@code job.reviewed} delta would overwrite.
+ */
+public final class RatingTotals {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
+    private RatingTotals() {
+    }
+
+    /** True when both are absent, or both are present and the sum is possible for the count. */
+    public static boolean isValid(Integer ratingCount, Long ratingSum) {
+        if (ratingCount == null || ratingSum == null) {
+            return ratingCount == null && ratingSum == null;
+        }
+        return ratingCount >= 0
+                && ratingSum >= (long) ratingCount * MIN_RATING
+                && ratingSum <= (long) ratingCount * MAX_RATING;
+    }
+
+    /** Average to two places, as the rating delta computes it; null while there are no ratings. */
+    public static BigDecimal average(int ratingCount, long ratingSum) {
+        if (ratingCount <= 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(ratingCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,28 @@
+package com.deharri.ums.sync;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives rows created before rating count and sum existed a zero count and sum when they have
+ * no average either. Rows with a legacy average are left for job-service's stats reconciliation
+ * to seed, so their average is not replaced by the first new review.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingTotalsSeedRunner implements ApplicationRunner {
+
+    private final BulkStatsService bulkStatsService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int seeded = bulkStatsService.seedEmptyRatingTotals();
+        if (seeded > 0) {
+            log.info("Seeded empty rating totals on {} worker/agency rows", seeded);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.deharri.ums.sync;
+
+public enum SyncEntityType {
+    USER,
+    WORKER,
+    AGENCY
+}
@@ -0,0 +1,39 @@
+package com.deharri.ums.sync;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks a deleted user, worker or agency so the delta feeds can tell downstream copies
+ * to drop it. Written by {@link SyncTombstoneListener} in the deleting transaction.
+ */
+@Entity
+@Table(name = "sync_tombstones", indexes = {
+        // Backs the keyset scan of one entity type's deletions
+        @Index(name = "idx_sync_tombstone_feed", columnList = "entity_type, deleted_at, tombstone_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tombstone_id")
+    private Long tombstoneId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
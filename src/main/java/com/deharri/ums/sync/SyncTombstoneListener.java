@@ -0,0 +1,44 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.agency.entity.Agency;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.entity.Worker;
+import jakarta.persistence.PreRemove;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Records a {@link SyncTombstone} whenever a user, worker or agency is removed through JPA.
+ *
+ * <p>The row is inserted with JDBC on the transaction's connection rather than through the
+ * entity manager, which must not be used from inside a flush. It therefore commits or rolls
+ * back with the delete itself. Bulk JPQL or native deletes bypass entity callbacks and
+ * must record their own tombstones.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncTombstoneListener {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PreRemove
+    void onRemove(Object entity) {
+        if (entity instanceof Worker worker) {
+            record(SyncEntityType.WORKER, worker.getWorkerId());
+        } else if (entity instanceof CoreUser user) {
+            record(SyncEntityType.USER, user.getUserId());
+        } else if (entity instanceof Agency agency) {
+            record(SyncEntityType.AGENCY, agency.getAgencyId());
+        }
+    }
+
+    private void record(SyncEntityType type, Object entityId) {
+        jdbcTemplate.update(
+                "INSERT INTO sync_tombstones (entity_type, entity_id, deleted_at) VALUES (?, ?, ?)",
+                type.name(), entityId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.deharri.ums.sync;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    // Deletions after the (deletedAt, tombstoneId) position and before the settle bound, oldest first
+    @Query("SELECT t FROM SyncTombstone t WHERE t.entityType = :type AND t.deletedAt < :until " +
+            "AND (t.deletedAt > :after OR (t.deletedAt = :after AND t.tombstoneId > :afterId)) " +
+            "ORDER BY t.deletedAt, t.tombstoneId")
+    List<SyncTombstone> findPage(@Param("type") SyncEntityType type,
+                                 @Param("after") LocalDateTime after,
+                                 @Param("afterId") long afterId,
+                                 @Param("until") LocalDateTime until,
+                                 Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.deharri.ums.sync.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLookupRequestDto {
+
+    @NotNull(message = "ids is required")
+    private List<UUID> ids;
+}
@@ -0,0 +1,20 @@
+package com.deharri.ums.sync.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatsUpdateRequestDto {
+
+    @NotNull(message = "rows is required")
+    private List<@Valid StatsUpdateRowDto> rows;
+}
@@ -0,0 +1,36 @@
+package com.deharri.ums.sync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Outcome of a bulk stats update; {@code rows} follows the order of the request. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatsUpdateResultDto {
+    private int updated;
+    private int notFound;
+    private int skipped;
+    private List<RowOutcome> rows;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        // Neither stat was given, so no statement was sent for the row
+        SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowOutcome {
+        private UUID id;
+        private Outcome outcome;
+    }
+}
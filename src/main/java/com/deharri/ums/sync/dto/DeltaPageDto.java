@@ -0,0 +1,24 @@
+package com.deharri.ums.sync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a delta feed. {@code items} are the current state of rows changed since the
+ * cursor, {@code tombstones} the ids deleted since it. Keep requesting with
+ * {@code nextCursor} while {@code hasMore} is true, then store it for the next sync.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaPageDto<T> {
+    private List<T> items;
+    private List<TombstoneDto> tombstones;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,65 @@
+package com.deharri.ums.sync.dto;
+
+import com.deharri.ums.sync.RatingTotals;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One row of a bulk stats update. A null stat leaves the stored value unchanged. The rating is
+ * given as its count and sum, together, and the average is derived from them. A bare
+ * averageRating is still accepted from callers that have not moved to the totals.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsUpdateRowDto {
+
+    @NotNull(message = "id is required")
+    private UUID id;
+    /**
+     * @deprecated send {@code ratingCount} and {@code ratingSum} instead. Still applied as the
+     * absolute average when no totals are given; the totals are then cleared, so rating deltas
+     * keep this average until a later update supplies them.
+     */
+    @Deprecated
+    @DecimalMin(value = "0.00", message = "averageRating must be between 0 and 5")
+    @DecimalMax(value = "5.00", message = "averageRating must be between 0 and 5")
+    private BigDecimal averageRating;
+    private Integer ratingCount;
+    private Long ratingSum;
+    private Integer totalJobsCompleted;
+
+    @JsonIgnore
+    @AssertTrue(message = "ratingCount and ratingSum must be given together, with a sum of 1 to 5 stars per rating")
+    public boolean isRatingTotalsValid() {
+        return RatingTotals.isValid(ratingCount, ratingSum);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "averageRating is deprecated and cannot be combined with ratingCount and ratingSum")
+    public boolean isAverageRatingAlone() {
+        return averageRating == null || (ratingCount == null && ratingSum == null);
+    }
+
+    @JsonIgnore
+    public boolean hasRating() {
+        return ratingCount != null || averageRating != null;
+    }
+
+    /** The average to store: derived from the totals, or the deprecated absolute average. */
+    @JsonIgnore
+    public BigDecimal resolveAverageRating() {
+        return ratingCount != null ? RatingTotals.average(ratingCount, ratingSum) : averageRating;
+    }
+}
@@ -0,0 +1,18 @@
+package com.deharri.ums.sync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TombstoneDto {
+    private UUID id;
+    private LocalDateTime deletedAt;
+}
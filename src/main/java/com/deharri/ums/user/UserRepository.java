@@ -1,10 +1,17 @@
 package com.deharri.ums.user;
 
 import com.deharri.ums.user.entity.CoreUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +24,51 @@ public interface UserRepository extends JpaRepository<CoreUser, UUID> {
     Optional<UUID> getUuidByUsername(String username);
 
     boolean existsByUserDataPhoneNumber(String phoneNumber);
+
+    // Keyset page of the user change feed, ordered by (lastUpdatedAt, userId)
+    @Query("SELECT u FROM CoreUser u LEFT JOIN FETCH u.userData " +
+            "WHERE u.lastUpdatedAt < :until " +
+            "AND (u.lastUpdatedAt > :after OR (u.lastUpdatedAt = :after AND u.userId > :afterId)) " +
+            "ORDER BY u.lastUpdatedAt, u.userId")
+    List<CoreUser> findChangedAfter(@Param("after") LocalDateTime after,
+                                    @Param("afterId") UUID afterId,
+                                    @Param("until") LocalDateTime until,
+                                    Pageable pageable);
+
+    /**
+     * Identities for a batch lookup in one query. Each id may be a user id or a worker id, so
+     * the worker id is returned alongside to let the caller key rows by whichever was asked for.
+     */
+    @Query("SELECT u.userId AS userId, w.workerId AS workerId, u.username AS username, " +
+            "u.firstName AS firstName, u.lastName AS lastName " +
+            "FROM CoreUser u LEFT JOIN Worker w ON w.coreUser = u " +
+            "WHERE u.userId IN :ids OR w.workerId IN :ids")
+    List<IdentityRow> findIdentitiesByUserOrWorkerIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Records the thumbnail only while {@code picturePath} is still the current picture,
+     * so a variant finished after the user replaced their picture is not attached.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserData d SET d.profilePictureThumbnailPath = :thumbnailPath " +
+            "WHERE d.profilePicturePath = :picturePath")
+    int setProfilePictureThumbnail(@Param("picturePath") String picturePath,
+                                   @Param("thumbnailPath") String thumbnailPath);
+
+    // Moves the owner of a picture in the change feed after a bulk write to their UserData
+    @Transactional
+    @Modifying
+    @Query("UPDATE CoreUser u SET u.lastUpdatedAt = :now WHERE u.userData IN " +
+            "(SELECT d FROM UserData d WHERE d.profilePicturePath = :picturePath)")
+    int markChangedByProfilePicture(@Param("picturePath") String picturePath,
+                                    @Param("now") LocalDateTime now);
+
+    interface IdentityRow {
+        UUID getUserId();
+        UUID getWorkerId();
+        String getUsername();
+        String getFirstName();
+        String getLastName();
+    }
 }
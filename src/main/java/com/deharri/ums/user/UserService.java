@@ -1,7 +1,11 @@
 package com.deharri.ums.user;
 
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
 import com.deharri.ums.amazon.dto.SignedUrlDto;
+import com.deharri.ums.amazon.image.ImageDerivativeService;
+import com.deharri.ums.amazon.image.ImageVariant;
+import com.deharri.ums.amazon.upload.MediaUploadService;
 import com.deharri.ums.annotations.CheckPassword;
 import com.deharri.ums.annotations.ValidateArguments;
 import com.deharri.ums.enums.UserRole;
@@ -17,6 +21,7 @@ import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.user.mapper.UserMapper;
 import com.deharri.ums.util.PhoneNumberNormalizer;
 import com.deharri.ums.verification.TwilioVerifyService;
+import com.deharri.ums.worker.WorkerRepository;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -26,7 +31,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -35,10 +42,14 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final WorkerRepository workerRepository;
     private final PermissionService permissionService;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final S3Service s3Service;
+    private final MediaUploadService mediaUploadService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final StorageDeletionQueue storageDeletionQueue;
     private final TwilioVerifyService twilioVerifyService;
 
     public UserProfileDto getMyProfile() {
@@ -73,6 +84,7 @@ public class UserService {
         // }
         // currentUser.getUserData().setPhoneNumber(newE164);
         currentUser.getUserData().setPhoneNumber(dto.getNewPhoneNumber());
+        currentUser.markChanged();
         userRepository.save(currentUser);
         return new ResponseMessageDto("Phone Number Updated Successfully!");
     }
@@ -94,6 +106,7 @@ public class UserService {
     public ResponseMessageDto updateEmail(UserEmailUpdateDto dto) {
         CoreUser currentUser = permissionService.getLoggedInUser();
         currentUser.getUserData().setEmail(dto.getNewEmail());
+        currentUser.markChanged();
         userRepository.save(currentUser);
         return new ResponseMessageDto("Email Updated Successfully!");
     }
@@ -111,24 +124,55 @@ public class UserService {
     public List<UserProfileDto> getAllUserProfiles() {
         List<CoreUser> coreUsers = userRepository.findAll();
         return coreUsers.stream()
-                .map(userMapper::coreUserToUserProfileDto)
+                .map(userMapper::coreUserToUserProfileListItemDto)
                 .toList();
     }
 
-    @Transactional
     public ResponseMessageDto updateProfilePicture(@NotNull MultipartFile picture) {
         CoreUser currentUser = permissionService.getLoggedInUser();
-        String oldPictureUrl = currentUser.getUserData().getProfilePicturePath();
-        if (oldPictureUrl != null && !oldPictureUrl.isEmpty()) {
-            s3Service.deleteFile(oldPictureUrl);
-        }
         String picturePath = s3Service.generateFileKey(currentUser.getUserId(), Objects.requireNonNull(picture.getOriginalFilename()));
-        s3Service.uploadFile(picture, picturePath);
-        currentUser.getUserData().setProfilePicturePath(picturePath);
-        userRepository.save(currentUser);
+        mediaUploadService.uploadAll(currentUser.getUserId(), Map.of(picturePath, picture));
+        attachProfilePicture(currentUser, picturePath);
+        return new ResponseMessageDto("Profile Picture Updated Successfully!");
+    }
+
+    /**
+     * Attaches a picture the client uploaded straight to storage through an upload intent.
+     */
+    public ResponseMessageDto attachUploadedProfilePicture(String picturePath) {
+        attachProfilePicture(permissionService.getLoggedInUser(), picturePath);
         return new ResponseMessageDto("Profile Picture Updated Successfully!");
     }
 
+    private void attachProfilePicture(CoreUser currentUser, String picturePath) {
+        String oldPictureUrl = currentUser.getUserData().getProfilePicturePath();
+        mediaUploadService.commit(List.of(picturePath), () -> {
+            currentUser.getUserData().setProfilePicturePath(picturePath);
+            currentUser.getUserData().setProfilePictureThumbnailPath(null);
+            currentUser.markChanged();
+            userRepository.save(currentUser);
+            // The worker feed carries the picture too
+            workerRepository.markChangedByUserId(currentUser.getUserId(), LocalDateTime.now());
+            // Queued with the attach, so a failed upload or rollback keeps the old picture
+            storageDeletionQueue.enqueue(oldPictureUrl);
+            imageDerivativeService.deleteVariants(oldPictureUrl);
+        });
+        imageDerivativeService.generateVariants(picturePath)
+                .thenAccept(variants -> attachThumbnail(picturePath, variants.get(ImageVariant.THUMBNAIL)));
+    }
+
+    private void attachThumbnail(String picturePath, String thumbnailPath) {
+        if (thumbnailPath == null) {
+            return;
+        }
+        // Zero rows means the picture was replaced while its variants were generated
+        if (userRepository.setProfilePictureThumbnail(picturePath, thumbnailPath) == 0) {
+            imageDerivativeService.deleteVariants(picturePath);
+        } else {
+            userRepository.markChangedByProfilePicture(picturePath, LocalDateTime.now());
+        }
+    }
+
     public SignedUrlDto getMyProfilePictureUrl() {
         URL url = s3Service.generatePresignedUrl(permissionService.getLoggedInUser().getUserData().getProfilePicturePath(), 100);
         return new SignedUrlDto(url);
@@ -1,17 +1,25 @@
 package com.deharri.ums.user.controller.internal;
 
 import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.sync.BatchLookupService;
+import com.deharri.ums.sync.DeltaSyncService;
+import com.deharri.ums.sync.dto.BatchLookupRequestDto;
+import com.deharri.ums.sync.dto.DeltaPageDto;
 import com.deharri.ums.user.UserRepository;
 import com.deharri.ums.user.dto.response.InternalUserDto;
 import com.deharri.ums.user.entity.CoreUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -22,6 +30,23 @@ import java.util.UUID;
 public class InternalUserController {
 
     private final UserRepository userRepository;
+    private final DeltaSyncService deltaSyncService;
+    private final BatchLookupService batchLookupService;
+
+    @GetMapping("/changes")
+    @Operation(summary = "Users changed or deleted since a timestamp or cursor (incremental sync)")
+    public ResponseEntity<DeltaPageDto<InternalUserDto>> getUserChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(deltaSyncService.userChanges(since, cursor, limit));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get many users' identities by user or worker id, keyed by the id asked for")
+    public ResponseEntity<Map<UUID, InternalUserDto>> getUsersByIds(@Valid @RequestBody BatchLookupRequestDto request) {
+        return ResponseEntity.ok(batchLookupService.findUsers(request.getIds()));
+    }
 
     @GetMapping("/{userId}")
     @Operation(summary = "Get a user's basic identity (for chat-service display name resolution)")
@@ -29,11 +54,6 @@ public class InternalUserController {
     public ResponseEntity<InternalUserDto> getUserById(@PathVariable UUID userId) {
         CoreUser user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
-        return ResponseEntity.ok(InternalUserDto.builder()
-                .userId(user.getUserId())
-                .username(user.getUsername())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .build());
+        return ResponseEntity.ok(InternalUserDto.from(user));
     }
 }
@@ -1,5 +1,7 @@
 package com.deharri.ums.user.dto.response;
 
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.user.entity.CoreUser;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +18,22 @@ public class InternalUserDto {
     private String username;
     private String firstName;
     private String lastName;
+
+    public static InternalUserDto from(CoreUser user) {
+        return InternalUserDto.builder()
+                .userId(user.getUserId())
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .build();
+    }
+
+    public static InternalUserDto from(UserRepository.IdentityRow row) {
+        return InternalUserDto.builder()
+                .userId(row.getUserId())
+                .username(row.getUsername())
+                .firstName(row.getFirstName())
+                .lastName(row.getLastName())
+                .build();
+    }
 }
@@ -1,6 +1,8 @@
 package com.deharri.ums.user.entity;
 
 import com.deharri.ums.base.TimeStampFields;
+import com.deharri.ums.outbox.ChangeEventListener;
+import com.deharri.ums.sync.SyncTombstoneListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -12,8 +14,13 @@ import java.util.UUID;
         name = "core_user",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_core_user_username", columnNames = "username"),
+        },
+        indexes = {
+                // Keyset order of the internal change feed.
+                @Index(name = "idx_core_user_last_updated", columnList = "last_updated_at, user_id")
         }
 )
+@EntityListeners({SyncTombstoneListener.class, ChangeEventListener.class})
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
 @Builder
@@ -33,6 +33,9 @@ public class UserData {
 
     private String profilePicturePath;
 
+    // Small variant for list views; null until it has been generated for the current picture
+    private String profilePictureThumbnailPath;
+
     @Enumerated(EnumType.STRING)
     private List<UserRole> userRoles;
 
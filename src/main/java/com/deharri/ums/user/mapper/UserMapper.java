@@ -19,4 +19,9 @@ public abstract class UserMapper {
     @Mapping(target = "profilePictureUrl", expression = "java(userMapperHelper.getProfilePictureUrl(coreUser.getUserData().getProfilePicturePath()))")
     public abstract UserProfileDto coreUserToUserProfileDto(CoreUser coreUser);
 
+    @Mapping(target = "email", source = "coreUser.userData.email")
+    @Mapping(target = "phoneNumber", source = "coreUser.userData.phoneNumber")
+    @Mapping(target = "profilePictureUrl", expression = "java(userMapperHelper.getProfilePictureThumbnailUrl(coreUser.getUserData()))")
+    public abstract UserProfileDto coreUserToUserProfileListItemDto(CoreUser coreUser);
+
 }
@@ -2,6 +2,7 @@ package com.deharri.ums.user.mapper;
 
 import com.deharri.ums.amazon.S3Service;
 import com.deharri.ums.permission.PermissionService;
+import com.deharri.ums.user.entity.UserData;
 import lombok.RequiredArgsConstructor;
 import org.mapstruct.Named;
 import org.springframework.stereotype.Component;
@@ -21,4 +22,14 @@ public class UserMapperHelper {
         return s3Service.generatePresignedUrl(profilePicturePath, 600);
     }
 
+    // List views get the thumbnail, falling back to the original until it exists
+    @Named("getProfilePictureThumbnailUrl")
+    public URL getProfilePictureThumbnailUrl(UserData userData) {
+        String thumbnailPath = userData.getProfilePictureThumbnailPath();
+        if (thumbnailPath != null && !thumbnailPath.isBlank()) {
+            return s3Service.generatePresignedUrl(thumbnailPath, 600);
+        }
+        return getProfilePictureUrl(userData.getProfilePicturePath());
+    }
+
 }
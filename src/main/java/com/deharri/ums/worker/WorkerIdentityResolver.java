@@ -0,0 +1,27 @@
+package com.deharri.ums.worker;
+
+import com.deharri.ums.worker.entity.Worker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resolves an id that may be either a worker id or the worker's user id. Other services are
+ * not consistent about which one they send (job-service stores the JWT user id as the
+ * assigned worker), so every internal entry point accepts both.
+ *
+ * <p>Each lookup is one query matching either the worker primary key or the unique user_id
+ * join column, rather than a primary-key lookup followed by a user-id lookup on a miss.
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkerIdentityResolver {
+
+    private final WorkerRepository workerRepository;
+
+    public Optional<Worker> findWorker(UUID workerOrUserId) {
+        return workerRepository.findByWorkerIdOrUserId(workerOrUserId);
+    }
+}
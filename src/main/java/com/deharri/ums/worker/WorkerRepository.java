@@ -1,28 +1,116 @@
 package com.deharri.ums.worker;
 
+import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.entity.AvailabilityStatus;
+import com.deharri.ums.worker.entity.CnicVerification;
 import com.deharri.ums.worker.entity.Worker;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface WorkerRepository extends JpaRepository<Worker, UUID> {
 
+    // Rows per cursor round trip for streamAllForSync; matches the batch size of Worker's collections
+    int SYNC_FETCH_SIZE = 500;
+
     Optional<Worker> findByCoreUser(CoreUser currentUser);
 
     Optional<Worker> findByCoreUser_UserId(UUID userId);
 
-    List<Worker> findAllBySubscriptionActiveTrue();
+    // Either id in one lookup: worker_id is the primary key and user_id a unique join column
+    @Query("SELECT w FROM Worker w WHERE w.workerId = :id OR w.coreUser.userId = :id")
+    Optional<Worker> findByWorkerIdOrUserId(@Param("id") UUID id);
+
+    // Membership check that touches one worker row whatever the agency's size
+    @Query("SELECT COUNT(w) > 0 FROM Worker w " +
+            "WHERE w.agency.agencyId = :agencyId AND (w.workerId = :id OR w.coreUser.userId = :id)")
+    boolean existsInAgency(@Param("agencyId") UUID agencyId, @Param("id") UUID workerOrUserId);
+
+    // Moves a worker in the change feed when the account rows its feed item carries (names,
+    // profile picture) change; a bulk update, so it emits no worker.updated
+    @Modifying
+    @Query("UPDATE Worker w SET w.lastUpdatedAt = :now WHERE w.coreUser.userId = :userId")
+    int markChangedByUserId(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    // Same for every worker of an agency, whose name the worker feed carries
+    @Modifying
+    @Query("UPDATE Worker w SET w.lastUpdatedAt = :now WHERE w.agency.agencyId = :agencyId")
+    int markChangedByAgencyId(@Param("agencyId") UUID agencyId, @Param("now") LocalDateTime now);
+
+    /**
+     * Every worker with the to-one associations the internal sync reads, in a single query.
+     * Rows are read through a server-side cursor of {@link #SYNC_FETCH_SIZE} rows and are
+     * read-only, so a caller that clears the persistence context as it goes holds a bounded
+     * number of entities. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + SYNC_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT w FROM Worker w JOIN FETCH w.coreUser u LEFT JOIN FETCH u.userData " +
+            "LEFT JOIN FETCH w.agency LEFT JOIN FETCH w.availabilityStatus LEFT JOIN FETCH w.cnicVerification")
+    Stream<Worker> streamAllForSync();
+
+    /**
+     * Keyset page of the worker change feed: rows changed after the (lastUpdatedAt, workerId)
+     * position and before {@code until}, in that order, with the associations the sync reads.
+     */
+    @Query("SELECT w FROM Worker w JOIN FETCH w.coreUser u LEFT JOIN FETCH u.userData " +
+            "LEFT JOIN FETCH w.agency LEFT JOIN FETCH w.availabilityStatus LEFT JOIN FETCH w.cnicVerification " +
+            "WHERE w.lastUpdatedAt < :until " +
+            "AND (w.lastUpdatedAt > :after OR (w.lastUpdatedAt = :after AND w.workerId > :afterId)) " +
+            "ORDER BY w.lastUpdatedAt, w.workerId")
+    List<Worker> findChangedAfter(@Param("after") LocalDateTime after,
+                                  @Param("afterId") UUID afterId,
+                                  @Param("until") LocalDateTime until,
+                                  Pageable pageable);
+
+    /**
+     * Subscribed workers whose subscription has not lapsed yet. The expiry check keeps
+     * lapsed workers hidden between two runs of the subscription sweep.
+     */
+    @Query("SELECT w FROM Worker w WHERE w.subscriptionActive = true " +
+            "AND (w.subscriptionExpiresAt IS NULL OR w.subscriptionExpiresAt > :now)")
+    List<Worker> findAllWithActiveSubscription(@Param("now") LocalDateTime now);
+
+    @Query("SELECT w.workerId FROM Worker w " +
+            "WHERE w.subscriptionActive = true AND w.subscriptionExpiresAt < :cutoff")
+    List<UUID> findIdsWithExpiredSubscription(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Set-based expiry for one chunk. The expiry predicate is repeated so a worker
+     * renewed between the id scan and this update is left untouched.
+     */
+    @Modifying
+    @Query("UPDATE Worker w SET w.subscriptionActive = false, w.lastUpdatedAt = :now " +
+            "WHERE w.workerId IN :ids AND w.subscriptionActive = true AND w.subscriptionExpiresAt < :now")
+    int expireSubscriptions(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    // The ids of a chunk that expireSubscriptions actually expired at :now
+    @Query("SELECT w.workerId FROM Worker w " +
+            "WHERE w.workerId IN :ids AND w.subscriptionActive = false AND w.lastUpdatedAt = :now")
+    List<UUID> findIdsExpiredAt(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
 
     @Query(value = """
         SELECT * FROM worker w
         WHERE w.subscription_active = true
+        AND (w.subscription_expires_at IS NULL OR w.subscription_expires_at > :now)
         AND w.shop_latitude IS NOT NULL
         AND w.shop_longitude IS NOT NULL
         AND (:workerType IS NULL OR w.worker_type = :workerType)
@@ -36,6 +124,44 @@ public interface WorkerRepository extends JpaRepository<Worker, UUID> {
         @Param("lat") double lat,
         @Param("lng") double lng,
         @Param("radiusKm") double radiusKm,
-        @Param("workerType") String workerType
+        @Param("workerType") String workerType,
+        @Param("now") LocalDateTime now
     );
+
+    // Current agency of each given worker in one query; agencyId is null for unaffiliated workers
+    @Query("SELECT w.workerId AS workerId, a.agencyId AS agencyId FROM Worker w LEFT JOIN w.agency a " +
+            "WHERE w.workerId IN :ids")
+    List<AgencyAffiliationRow> findAgencyAffiliations(@Param("ids") Collection<UUID> ids);
+
+    // Display summaries for a batch lookup in one query; each id may be a worker id or a user id
+    @Query("SELECT w.workerId AS workerId, u.userId AS userId, u.username AS username, " +
+            "u.firstName AS firstName, u.lastName AS lastName, d.profilePicturePath AS profilePicturePath, " +
+            "w.workerType AS workerType, w.city AS city, s.availabilityStatus AS availabilityStatus, " +
+            "v.verificationStatus AS verificationStatus, w.averageRating AS averageRating, " +
+            "w.totalJobsCompleted AS totalJobsCompleted, a.agencyName AS agencyName " +
+            "FROM Worker w JOIN w.coreUser u LEFT JOIN u.userData d " +
+            "LEFT JOIN w.availabilityStatus s LEFT JOIN w.cnicVerification v LEFT JOIN w.agency a " +
+            "WHERE w.workerId IN :ids OR u.userId IN :ids")
+    List<SummaryRow> findSummariesByWorkerOrUserIds(@Param("ids") Collection<UUID> ids);
+
+    interface AgencyAffiliationRow {
+        UUID getWorkerId();
+        UUID getAgencyId();
+    }
+
+    interface SummaryRow {
+        UUID getWorkerId();
+        UUID getUserId();
+        String getUsername();
+        String getFirstName();
+        String getLastName();
+        String getProfilePicturePath();
+        Worker.WorkerType getWorkerType();
+        PakistanCity getCity();
+        AvailabilityStatus.Status getAvailabilityStatus();
+        CnicVerification.Status getVerificationStatus();
+        BigDecimal getAverageRating();
+        Integer getTotalJobsCompleted();
+        String getAgencyName();
+    }
 }
@@ -1,6 +1,9 @@
 package com.deharri.ums.worker;
 
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.image.ImageDerivativeService;
+import com.deharri.ums.amazon.upload.MediaUploadService;
 import com.deharri.ums.enums.UserRole;
 import com.deharri.ums.error.exception.AuthorizationException;
 import com.deharri.ums.error.exception.ResourceNotFoundException;
@@ -23,9 +26,11 @@ import org.springframework.web.multipart.MultipartFile;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -35,6 +40,9 @@ public class WorkerService {
     private final WorkerMapper workerMapper;
     private final PermissionService permissionService;
     private final S3Service s3Service;
+    private final MediaUploadService mediaUploadService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final StorageDeletionQueue storageDeletionQueue;
 
     @Transactional
     public ResponseMessageDto createWorkerAccount(CreateWorkerAccountDto dto) {
@@ -48,23 +56,45 @@ public class WorkerService {
         return Worker.WorkerType.getAllTypes();
     }
 
-    @Transactional
     public String submitCnicForVerification(MultipartFile cnicFront, MultipartFile cnicBack) {
         var currentUser = permissionService.getLoggedInUser();
         String frontPath = s3Service.generateFileKey(currentUser.getUserId(), Objects.requireNonNull(cnicFront.getOriginalFilename()));
         String backPath = s3Service.generateFileKey(currentUser.getUserId(), Objects.requireNonNull(cnicBack.getOriginalFilename()));
-        s3Service.uploadFile(cnicFront, frontPath);
-        s3Service.uploadFile(cnicBack, backPath);
         var currentWorker = workerRepository.findByCoreUser(currentUser)
                 .orElseThrow(() -> new AuthorizationException("Worker account not found for given user"));
-        currentWorker.getCnicVerification().setCnicFrontPath(frontPath);
-        currentWorker.getCnicVerification().setCnicBackPath(backPath);
-        workerRepository.save(currentWorker);
+        // Both sides upload in parallel and outside any transaction
+        mediaUploadService.uploadAll(currentUser.getUserId(), Map.of(frontPath, cnicFront, backPath, cnicBack));
+        attachCnicPaths(currentWorker, frontPath, backPath);
         return "CNIC submitted for verification successfully";
     }
 
+    /**
+     * Attaches CNIC images the client uploaded straight to storage through upload intents.
+     * Either side may be null to leave it unchanged.
+     */
+    public ResponseMessageDto attachUploadedCnicImages(String frontPath, String backPath) {
+        var currentWorker = workerRepository.findByCoreUser(permissionService.getLoggedInUser())
+                .orElseThrow(() -> new AuthorizationException("Worker account not found for given user"));
+        attachCnicPaths(currentWorker, frontPath, backPath);
+        return new ResponseMessageDto("CNIC submitted for verification successfully");
+    }
+
+    private void attachCnicPaths(Worker worker, String frontPath, String backPath) {
+        List<String> keys = Stream.of(frontPath, backPath).filter(Objects::nonNull).toList();
+        mediaUploadService.commit(keys, () -> {
+            if (frontPath != null) {
+                worker.getCnicVerification().setCnicFrontPath(frontPath);
+            }
+            if (backPath != null) {
+                worker.getCnicVerification().setCnicBackPath(backPath);
+            }
+            worker.markChanged();
+            workerRepository.save(worker);
+        });
+    }
+
     public List<WorkerListItemDto> getAllWorkers() {
-        return workerRepository.findAllBySubscriptionActiveTrue().stream()
+        return workerRepository.findAllWithActiveSubscription(LocalDateTime.now()).stream()
                 .map(workerMapper::workerToListItemDto)
                 .collect(Collectors.toList());
     }
@@ -116,12 +146,12 @@ public class WorkerService {
         availability.setUnavailableFrom(dto.getUnavailableFrom());
         availability.setUnavailableUntil(dto.getUnavailableUntil());
         availability.setUnavailabilityReason(dto.getUnavailabilityReason());
+        worker.markChanged();
 
         workerRepository.save(worker);
         return workerMapper.workerToProfileResponseDto(worker);
     }
 
-    @Transactional
     public ResponseMessageDto uploadPortfolioImage(MultipartFile portfolioImage) {
         var currentUser = permissionService.getLoggedInUser();
         Worker worker = workerRepository.findByCoreUser(currentUser)
@@ -131,14 +161,30 @@ public class WorkerService {
                 currentUser.getUserId(),
                 Objects.requireNonNull(portfolioImage.getOriginalFilename())
         );
-        s3Service.uploadFile(portfolioImage, imagePath);
+        mediaUploadService.uploadAll(currentUser.getUserId(), Map.of(imagePath, portfolioImage));
+        attachPortfolioImage(worker, imagePath);
 
-        worker.getPortfolioImagePaths().add(imagePath);
-        workerRepository.save(worker);
+        return new ResponseMessageDto("Portfolio image uploaded successfully");
+    }
 
+    /**
+     * Attaches a portfolio image the client uploaded straight to storage through an upload intent.
+     */
+    public ResponseMessageDto attachUploadedPortfolioImage(String imagePath) {
+        Worker worker = workerRepository.findByCoreUser(permissionService.getLoggedInUser())
+                .orElseThrow(() -> new AuthorizationException("Worker account not found for current user"));
+        attachPortfolioImage(worker, imagePath);
         return new ResponseMessageDto("Portfolio image uploaded successfully");
     }
 
+    private void attachPortfolioImage(Worker worker, String imagePath) {
+        mediaUploadService.commit(List.of(imagePath), () -> {
+            worker.getPortfolioImagePaths().add(imagePath);
+            workerRepository.save(worker);
+        });
+        imageDerivativeService.generateVariants(imagePath);
+    }
+
     @Transactional
     public ResponseMessageDto deletePortfolioImage(String imagePath) {
         var currentUser = permissionService.getLoggedInUser();
@@ -150,8 +196,9 @@ public class WorkerService {
         }
 
         worker.getPortfolioImagePaths().remove(imagePath);
-        s3Service.deleteFile(imagePath);
         workerRepository.save(worker);
+        storageDeletionQueue.enqueue(imagePath);
+        imageDerivativeService.deleteVariants(imagePath);
 
         return new ResponseMessageDto("Portfolio image deleted successfully");
     }
@@ -161,7 +208,8 @@ public class WorkerService {
         // smaller cities still see workers from neighbouring metros.
         if (radiusKm > 200) radiusKm = 200;
         if (radiusKm < 1) radiusKm = 1;
-        List<Worker> workers = workerRepository.findNearbySubscribedWorkers(lat, lng, radiusKm, workerType);
+        List<Worker> workers = workerRepository.findNearbySubscribedWorkers(
+                lat, lng, radiusKm, workerType, LocalDateTime.now());
         double finalRadius = radiusKm;
         return workers.stream()
                 .map(w -> {
@@ -0,0 +1,68 @@
+package com.deharri.ums.worker;
+
+import com.deharri.ums.worker.dto.response.InternalWorkerProfileDto;
+import com.deharri.ums.worker.entity.Worker;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes every worker profile as newline-delimited JSON for downstream resyncs.
+ *
+ * <p>Workers are read through a cursor in chunks of {@link WorkerRepository#SYNC_FETCH_SIZE}.
+ * Each chunk is written and flushed, then detached from the persistence context, so memory
+ * stays flat however many workers there are. The element collections of a chunk are loaded
+ * together through batch fetching rather than per worker.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkerSyncExporter {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final WorkerRepository workerRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // Returns the number of profiles written
+    @Transactional(readOnly = true)
+    public long writeAll(OutputStream out) throws IOException {
+        long written = 0;
+        List<Worker> chunk = new ArrayList<>(WorkerRepository.SYNC_FETCH_SIZE);
+        try (Stream<Worker> workers = workerRepository.streamAllForSync();
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Worker> iterator = workers.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == WorkerRepository.SYNC_FETCH_SIZE) {
+                    written += writeChunk(chunk, generator);
+                }
+            }
+            written += writeChunk(chunk, generator);
+        }
+        return written;
+    }
+
+    private int writeChunk(List<Worker> chunk, JsonGenerator generator) throws IOException {
+        int size = chunk.size();
+        for (Worker worker : chunk) {
+            generator.writeObject(InternalWorkerProfileDto.from(worker));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        chunk.clear();
+        entityManager.clear();
+        return size;
+    }
+}
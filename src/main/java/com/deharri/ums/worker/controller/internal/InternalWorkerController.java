@@ -1,21 +1,36 @@
 package com.deharri.ums.worker.controller.internal;
 
-import com.deharri.ums.enums.Language;
-import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.sync.BatchLookupService;
+import com.deharri.ums.sync.BulkStatsService;
+import com.deharri.ums.sync.DeltaSyncService;
+import com.deharri.ums.sync.RatingTotals;
+import com.deharri.ums.sync.dto.BatchLookupRequestDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateRequestDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto;
+import com.deharri.ums.sync.dto.DeltaPageDto;
+import com.deharri.ums.worker.WorkerIdentityResolver;
 import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.WorkerSyncExporter;
 import com.deharri.ums.worker.dto.request.UpdateWorkerStatsDto;
 import com.deharri.ums.worker.dto.response.InternalWorkerProfileDto;
+import com.deharri.ums.worker.dto.response.InternalWorkerSummaryDto;
 import com.deharri.ums.worker.entity.Worker;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -26,27 +41,65 @@ import java.util.UUID;
 public class InternalWorkerController {
 
     private final WorkerRepository workerRepository;
+    private final WorkerIdentityResolver workerIdentityResolver;
+    private final WorkerSyncExporter workerSyncExporter;
+    private final DeltaSyncService deltaSyncService;
+    private final BatchLookupService batchLookupService;
+    private final BulkStatsService bulkStatsService;
 
     @GetMapping
-    @Operation(summary = "Get all workers (for bulk sync)")
+    @Operation(summary = "Get all workers (for bulk sync; prefer /stream for full resyncs)")
     @Transactional(readOnly = true)
     public ResponseEntity<List<InternalWorkerProfileDto>> getAllWorkers() {
         List<Worker> workers = workerRepository.findAll();
         List<InternalWorkerProfileDto> dtos = workers.stream()
-                .map(this::toInternalDto)
+                .map(InternalWorkerProfileDto::from)
                 .toList();
         log.info("Internal API: Returning {} worker profiles for sync", dtos.size());
         return ResponseEntity.ok(dtos);
     }
 
+    @GetMapping(value = "/stream", produces = WorkerSyncExporter.NDJSON)
+    @Operation(summary = "Stream all workers as NDJSON, one profile per line (for bulk sync)")
+    public void streamAllWorkers(HttpServletResponse response) throws IOException {
+        response.setContentType(WorkerSyncExporter.NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        long written = workerSyncExporter.writeAll(response.getOutputStream());
+        log.info("Internal API: Streamed {} worker profiles for sync", written);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Workers changed or deleted since a timestamp or cursor (incremental sync)")
+    public ResponseEntity<DeltaPageDto<InternalWorkerProfileDto>> getWorkerChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(deltaSyncService.workerChanges(since, cursor, limit));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get many worker summaries by worker or user id, keyed by the id asked for")
+    public ResponseEntity<Map<UUID, InternalWorkerSummaryDto>> getWorkersByIds(@Valid @RequestBody BatchLookupRequestDto request) {
+        return ResponseEntity.ok(batchLookupService.findWorkers(request.getIds()));
+    }
+
     @GetMapping("/{workerId}")
     @Operation(summary = "Get single worker (for single sync, workerId here can be userId)")
     @Transactional(readOnly = true)
     public ResponseEntity<InternalWorkerProfileDto> getWorkerById(@PathVariable UUID workerId) {
-        Worker worker = workerRepository.findByCoreUser_UserId(workerId)
-                .or(() -> workerRepository.findById(workerId))
+        Worker worker = workerIdentityResolver.findWorker(workerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Worker not found: " + workerId));
-        return ResponseEntity.ok(toInternalDto(worker));
+        return ResponseEntity.ok(InternalWorkerProfileDto.from(worker));
+    }
+
+    @PostMapping("/stats/batch")
+    @Operation(summary = "Apply many workers' stats in one transaction (ids may be worker or user ids)")
+    public ResponseEntity<BulkStatsUpdateResultDto> updateWorkerStatsBatch(
+            @Valid @RequestBody BulkStatsUpdateRequestDto request) {
+        BulkStatsUpdateResultDto result = bulkStatsService.updateWorkerStats(request.getRows());
+        log.info("Bulk worker stats: {} updated, {} not found, {} skipped",
+                result.getUpdated(), result.getNotFound(), result.getSkipped());
+        return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{workerId}/stats")
@@ -54,54 +107,29 @@ public class InternalWorkerController {
     @Transactional
     public ResponseEntity<Void> updateWorkerStats(
             @PathVariable UUID workerId,
-            @RequestBody UpdateWorkerStatsDto statsDto) {
-        // Job-service stores userId (from JWT) as assignedWorkerId, so look up by userId
-        Worker worker = workerRepository.findByCoreUser_UserId(workerId)
-                .or(() -> workerRepository.findById(workerId))
+            @Valid @RequestBody UpdateWorkerStatsDto statsDto) {
+        // Job-service stores userId (from JWT) as assignedWorkerId, so accept either id
+        Worker worker = workerIdentityResolver.findWorker(workerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Worker not found: " + workerId));
 
-        if (statsDto.getAverageRating() != null) {
+        if (statsDto.getRatingCount() != null) {
+            worker.setRatingCount(statsDto.getRatingCount());
+            worker.setRatingSum(statsDto.getRatingSum());
+            worker.setAverageRating(RatingTotals.average(statsDto.getRatingCount(), statsDto.getRatingSum()));
+        } else if (statsDto.getAverageRating() != null) {
+            // Deprecated bare average: kept as a legacy value of unknown weight until totals arrive
+            log.warn("Deprecated averageRating in stats update for worker {}", workerId);
             worker.setAverageRating(statsDto.getAverageRating());
+            worker.setRatingCount(null);
+            worker.setRatingSum(null);
         }
         if (statsDto.getTotalJobsCompleted() != null) {
             worker.setTotalJobsCompleted(statsDto.getTotalJobsCompleted());
         }
 
         workerRepository.save(worker);
-        log.info("Updated stats for worker {}: rating={}, jobsCompleted={}",
-                workerId, statsDto.getAverageRating(), statsDto.getTotalJobsCompleted());
+        log.info("Updated stats for worker {}: ratings={}/{}, jobsCompleted={}", workerId,
+                statsDto.getRatingSum(), statsDto.getRatingCount(), statsDto.getTotalJobsCompleted());
         return ResponseEntity.ok().build();
     }
-
-    private InternalWorkerProfileDto toInternalDto(Worker worker) {
-        return InternalWorkerProfileDto.builder()
-                .workerId(worker.getWorkerId())
-                .userId(worker.getCoreUser().getUserId())
-                .username(worker.getCoreUser().getUsername())
-                .firstName(worker.getCoreUser().getFirstName())
-                .lastName(worker.getCoreUser().getLastName())
-                .profilePicturePath(worker.getCoreUser().getUserData() != null
-                        ? worker.getCoreUser().getUserData().getProfilePicturePath() : null)
-                .workerType(worker.getWorkerType() != null ? worker.getWorkerType().name() : null)
-                .skills(worker.getSkills())
-                .bio(worker.getBio())
-                .experienceYears(worker.getExperienceYears())
-                .hourlyRate(worker.getHourlyRate())
-                .dailyRate(worker.getDailyRate())
-                .city(worker.getCity() != null ? worker.getCity().name() : null)
-                .area(worker.getArea())
-                .serviceCities(worker.getServiceCities() != null
-                        ? worker.getServiceCities().stream().map(PakistanCity::name).toList()
-                        : List.of())
-                .languages(worker.getLanguages() != null
-                        ? worker.getLanguages().stream().map(Language::name).toList()
-                        : List.of())
-                .availabilityStatus(worker.getAvailabilityStatus() != null
-                        ? worker.getAvailabilityStatus().getAvailabilityStatus().name() : null)
-                .isVerified(worker.isVerified())
-                .averageRating(worker.getAverageRating())
-                .totalJobsCompleted(worker.getTotalJobsCompleted())
-                .agencyName(worker.getAgency() != null ? worker.getAgency().getAgencyName() : null)
-                .build();
-    }
 }
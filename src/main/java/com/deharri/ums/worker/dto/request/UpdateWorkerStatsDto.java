@@ -1,15 +1,44 @@
 package com.deharri.ums.worker.dto.request;
 
+import com.deharri.ums.sync.RatingTotals;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+/** Absolute worker stats. The rating is given as its count and sum; the average is derived.
+ * A bare averageRating is still accepted from callers that have not moved to the totals. */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UpdateWorkerStatsDto {
+    /**
+     * @deprecated send {@code ratingCount} and {@code ratingSum} instead. Still applied as the
+     * absolute average when no totals are given; the totals are then cleared, so rating deltas
+     * keep this average until a later update supplies them.
+     */
+    @Deprecated
+    @DecimalMin(value = "0.00", message = "averageRating must be between 0 and 5")
+    @DecimalMax(value = "5.00", message = "averageRating must be between 0 and 5")
     private BigDecimal averageRating;
+    private Integer ratingCount;
+    private Long ratingSum;
     private Integer totalJobsCompleted;
+
+    @JsonIgnore
+    @AssertTrue(message = "ratingCount and ratingSum must be given together, with a sum of 1 to 5 stars per rating")
+    public boolean isRatingTotalsValid() {
+        return RatingTotals.isValid(ratingCount, ratingSum);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "averageRating is deprecated and cannot be combined with ratingCount and ratingSum")
+    public boolean isAverageRatingAlone() {
+        return averageRating == null || (ratingCount == null && ratingSum == null);
+    }
 }
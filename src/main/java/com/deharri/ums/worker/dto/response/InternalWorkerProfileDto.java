@@ -1,5 +1,8 @@
 package com.deharri.ums.worker.dto.response;
 
+import com.deharri.ums.enums.Language;
+import com.deharri.ums.enums.PakistanCity;
+import com.deharri.ums.worker.entity.Worker;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -35,4 +38,36 @@ public class InternalWorkerProfileDto {
     private BigDecimal averageRating;
     private Integer totalJobsCompleted;
     private String agencyName;
+
+    public static InternalWorkerProfileDto from(Worker worker) {
+        return InternalWorkerProfileDto.builder()
+                .workerId(worker.getWorkerId())
+                .userId(worker.getCoreUser().getUserId())
+                .username(worker.getCoreUser().getUsername())
+                .firstName(worker.getCoreUser().getFirstName())
+                .lastName(worker.getCoreUser().getLastName())
+                .profilePicturePath(worker.getCoreUser().getUserData() != null
+                        ? worker.getCoreUser().getUserData().getProfilePicturePath() : null)
+                .workerType(worker.getWorkerType() != null ? worker.getWorkerType().name() : null)
+                .skills(worker.getSkills())
+                .bio(worker.getBio())
+                .experienceYears(worker.getExperienceYears())
+                .hourlyRate(worker.getHourlyRate())
+                .dailyRate(worker.getDailyRate())
+                .city(worker.getCity() != null ? worker.getCity().name() : null)
+                .area(worker.getArea())
+                .serviceCities(worker.getServiceCities() != null
+                        ? worker.getServiceCities().stream().map(PakistanCity::name).toList()
+                        : List.of())
+                .languages(worker.getLanguages() != null
+                        ? worker.getLanguages().stream().map(Language::name).toList()
+                        : List.of())
+                .availabilityStatus(worker.getAvailabilityStatus() != null
+                        ? worker.getAvailabilityStatus().getAvailabilityStatus().name() : null)
+                .isVerified(worker.isVerified())
+                .averageRating(worker.getAverageRating())
+                .totalJobsCompleted(worker.getTotalJobsCompleted())
+                .agencyName(worker.getAgency() != null ? worker.getAgency().getAgencyName() : null)
+                .build();
+    }
 }
@@ -0,0 +1,53 @@
+package com.deharri.ums.worker.dto.response;
+
+import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.entity.CnicVerification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Display fields of a worker for batch lookups. Skills, service cities and languages are left
+ * to {@link InternalWorkerProfileDto} so a batch stays a single flat query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InternalWorkerSummaryDto {
+    private UUID workerId;
+    private UUID userId;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String profilePicturePath;
+    private String workerType;
+    private String city;
+    private String availabilityStatus;
+    private Boolean isVerified;
+    private BigDecimal averageRating;
+    private Integer totalJobsCompleted;
+    private String agencyName;
+
+    public static InternalWorkerSummaryDto from(WorkerRepository.SummaryRow row) {
+        return InternalWorkerSummaryDto.builder()
+                .workerId(row.getWorkerId())
+                .userId(row.getUserId())
+                .username(row.getUsername())
+                .firstName(row.getFirstName())
+                .lastName(row.getLastName())
+                .profilePicturePath(row.getProfilePicturePath())
+                .workerType(row.getWorkerType() != null ? row.getWorkerType().name() : null)
+                .city(row.getCity() != null ? row.getCity().name() : null)
+                .availabilityStatus(row.getAvailabilityStatus() != null ? row.getAvailabilityStatus().name() : null)
+                .isVerified(row.getVerificationStatus() == CnicVerification.Status.VERIFIED)
+                .averageRating(row.getAverageRating())
+                .totalJobsCompleted(row.getTotalJobsCompleted())
+                .agencyName(row.getAgencyName())
+                .build();
+    }
+}
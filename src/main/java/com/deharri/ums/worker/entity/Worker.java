@@ -4,10 +4,13 @@ import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.base.TimeStampFields;
 import com.deharri.ums.enums.Language;
 import com.deharri.ums.enums.PakistanCity;
+import com.deharri.ums.outbox.ChangeEventListener;
+import com.deharri.ums.sync.SyncTombstoneListener;
 import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.worker.dto.response.WorkerTypeDto;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,6 +20,13 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        // Backs the subscription sweep and the subscribed-only listing/nearby filters.
+        @Index(name = "idx_worker_subscription", columnList = "subscription_active, subscription_expires_at"),
+        // Keyset order of the internal change feed.
+        @Index(name = "idx_worker_last_updated", columnList = "last_updated_at, worker_id")
+})
+@EntityListeners({SyncTombstoneListener.class, ChangeEventListener.class})
 @NoArgsConstructor @AllArgsConstructor
 @Builder
 @Getter
@@ -63,7 +73,10 @@ public class Worker extends TimeStampFields {
 
     private String area; // Specific area/locality within the city
 
+    // Batch fetching loads the collections of many workers in one query when they are
+    // read in bulk, e.g. by the internal sync export, instead of one query per worker.
     @Builder.Default
+    @BatchSize(size = 500)
     @ElementCollection(targetClass = PakistanCity.class)
     @CollectionTable(name = "worker_service_cities", joinColumns = @JoinColumn(name = "worker_id"))
     @Enumerated(EnumType.STRING)
@@ -72,6 +85,7 @@ public class Worker extends TimeStampFields {
 
     // Languages
     @Builder.Default
+    @BatchSize(size = 500)
     @ElementCollection(targetClass = Language.class)
     @CollectionTable(name = "worker_languages", joinColumns = @JoinColumn(name = "worker_id"))
     @Enumerated(EnumType.STRING)
@@ -97,6 +111,13 @@ public class Worker extends TimeStampFields {
     @Builder.Default
     private Integer totalJobsCompleted = 0; // Total number of jobs completed
 
+    // Running rating state kept from job.reviewed events; averageRating = ratingSum / ratingCount
+    @Builder.Default
+    private Integer ratingCount = 0;
+
+    @Builder.Default
+    private Long ratingSum = 0L;
+
     // Subscription
     @Column(name = "subscription_active", nullable = false, columnDefinition = "boolean default false not null")
     private boolean subscriptionActive = false;
@@ -123,6 +144,10 @@ public class Worker extends TimeStampFields {
         if (workerId == null) {
             workerId = UUID.randomUUID();
         }
+        if (ratingCount == null || ratingSum == null) {
+            ratingCount = 0;
+            ratingSum = 0L;
+        }
         availabilityStatus = AvailabilityStatus.builder()
                 .availabilityStatus(AvailabilityStatus.Status.AVAILABLE)
                 .unavailableFrom(null)
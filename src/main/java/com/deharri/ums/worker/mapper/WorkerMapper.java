@@ -25,6 +25,8 @@ public abstract class WorkerMapper {
     @Mapping(target = "availabilityStatus", ignore = true)
     @Mapping(target = "portfolioImagePaths", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
     @Mapping(target = "totalJobsCompleted", ignore = true)
     public abstract Worker createWorkerAccountDtoToWorker(CreateWorkerAccountDto createWorkerAccountDto);
 
@@ -35,6 +37,8 @@ public abstract class WorkerMapper {
     @Mapping(target = "agency", ignore = true)
     @Mapping(target = "portfolioImagePaths", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
     @Mapping(target = "totalJobsCompleted", ignore = true)
     @Mapping(target = "workerType", ignore = true) // Worker type cannot be changed
     public abstract void updateWorkerFromDto(UpdateWorkerProfileDto updateDto, @MappingTarget Worker worker);
@@ -62,7 +66,7 @@ public abstract class WorkerMapper {
     @Mapping(target = "firstName", source = "coreUser.firstName")
     @Mapping(target = "lastName", source = "coreUser.lastName")
     @Mapping(target = "username", source = "coreUser.username")
-    @Mapping(target = "profilePictureUrl", expression = "java(workerMapperHelper.getProfilePictureUrl(worker))")
+    @Mapping(target = "profilePictureUrl", expression = "java(workerMapperHelper.getProfilePictureThumbnailUrl(worker))")
     @Mapping(target = "availabilityStatus", source = "availabilityStatus.availabilityStatus")
     @Mapping(target = "isVerified", expression = "java(worker.isVerified())")
     @Mapping(target = "agencyName", expression = "java(worker.getAgency() != null ? worker.getAgency().getAgencyName() : null)")
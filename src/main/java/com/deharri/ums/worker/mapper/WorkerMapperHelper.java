@@ -55,6 +55,20 @@ public class WorkerMapperHelper {
         return null;
     }
 
+    // List views get the thumbnail, falling back to the original until it exists
+    @Named("getProfilePictureThumbnailUrl")
+    public String getProfilePictureThumbnailUrl(Worker worker) {
+        try {
+            String thumbnailPath = worker.getCoreUser().getUserData().getProfilePictureThumbnailPath();
+            if (thumbnailPath != null && !thumbnailPath.isBlank()) {
+                return s3Service.generatePresignedUrl(thumbnailPath, 100).toString();
+            }
+        } catch (Exception e) {
+            // Fall through to the original picture
+        }
+        return getProfilePictureUrl(worker);
+    }
+
     @Named("getPortfolioUrls")
     public List<String> getPortfolioUrls(Worker worker) {
         if (worker.getPortfolioImagePaths() == null || worker.getPortfolioImagePaths().isEmpty()) {
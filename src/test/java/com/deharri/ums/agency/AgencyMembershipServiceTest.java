@@ -0,0 +1,133 @@
+package com.deharri.ums.agency;
+
+import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.worker.WorkerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AgencyMembershipService Unit Tests")
+class AgencyMembershipServiceTest {
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private AgencyRepository agencyRepository;
+
+    private AgencyMembershipService agencyMembershipService;
+
+    private UUID agencyId;
+    private UUID workerId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        agencyMembershipService = new AgencyMembershipService(workerRepository, agencyRepository, 100, 60);
+        agencyId = UUID.randomUUID();
+        workerId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+    }
+
+    @Nested
+    @DisplayName("isMember()")
+    class IsMemberTests {
+
+        @Test
+        @DisplayName("Should answer repeated checks from the cache")
+        void givenMember_whenIsMemberTwice_thenQueryOnce() {
+            // given
+            when(workerRepository.existsInAgency(agencyId, workerId)).thenReturn(true);
+
+            // when
+            boolean first = agencyMembershipService.isMember(agencyId, workerId);
+            boolean second = agencyMembershipService.isMember(agencyId, workerId);
+
+            // then
+            assertThat(first).isTrue();
+            assertThat(second).isTrue();
+            verify(workerRepository, times(1)).existsInAgency(agencyId, workerId);
+            verify(agencyRepository, never()).existsById(agencyId);
+        }
+
+        @Test
+        @DisplayName("Should cache a negative answer for an existing agency")
+        void givenNonMember_whenIsMemberTwice_thenQueryOnce() {
+            // given
+            when(workerRepository.existsInAgency(agencyId, userId)).thenReturn(false);
+            when(agencyRepository.existsById(agencyId)).thenReturn(true);
+
+            // when
+            agencyMembershipService.isMember(agencyId, userId);
+            boolean second = agencyMembershipService.isMember(agencyId, userId);
+
+            // then
+            assertThat(second).isFalse();
+            verify(workerRepository, times(1)).existsInAgency(agencyId, userId);
+        }
+
+        @Test
+        @DisplayName("Should throw ResourceNotFoundException when the agency does not exist")
+        void givenUnknownAgency_whenIsMember_thenThrowResourceNotFoundException() {
+            // given
+            when(workerRepository.existsInAgency(agencyId, workerId)).thenReturn(false);
+            when(agencyRepository.existsById(agencyId)).thenReturn(false);
+
+            // when / then
+            assertThatThrownBy(() -> agencyMembershipService.isMember(agencyId, workerId))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("Should re-query after expiry")
+        void givenZeroTtl_whenIsMemberTwice_thenQueryTwice() {
+            // given
+            agencyMembershipService = new AgencyMembershipService(workerRepository, agencyRepository, 100, 0);
+            when(workerRepository.existsInAgency(agencyId, workerId)).thenReturn(true);
+
+            // when
+            agencyMembershipService.isMember(agencyId, workerId);
+            agencyMembershipService.isMember(agencyId, workerId);
+
+            // then
+            verify(workerRepository, times(2)).existsInAgency(agencyId, workerId);
+        }
+    }
+
+    @Nested
+    @DisplayName("evict()")
+    class EvictTests {
+
+        @Test
+        @DisplayName("Should drop answers cached under both the worker id and the user id")
+        void givenCachedAnswers_whenEvict_thenRequery() {
+            // given
+            when(workerRepository.existsInAgency(agencyId, workerId)).thenReturn(false, true);
+            when(workerRepository.existsInAgency(agencyId, userId)).thenReturn(false, true);
+            when(agencyRepository.existsById(agencyId)).thenReturn(true);
+            agencyMembershipService.isMember(agencyId, workerId);
+            agencyMembershipService.isMember(agencyId, userId);
+
+            // when
+            agencyMembershipService.evict(agencyId, workerId, userId);
+
+            // then
+            assertThat(agencyMembershipService.isMember(agencyId, workerId)).isTrue();
+            assertThat(agencyMembershipService.isMember(agencyId, userId)).isTrue();
+        }
+    }
+}
@@ -3,12 +3,20 @@ package com.deharri.ums.agency;
 import com.deharri.ums.agency.dto.request.CreateAgencyDto;
 import com.deharri.ums.agency.dto.request.UpdateAgencyDto;
 import com.deharri.ums.agency.dto.response.AgencyListItemDto;
+import com.deharri.ums.agency.dto.response.AgencyMembershipHistoryDto;
 import com.deharri.ums.agency.dto.response.AgencyProfileResponseDto;
+import com.deharri.ums.agency.dto.response.AgencySearchPageDto;
+import com.deharri.ums.agency.dto.response.AgencySentInvitationDto;
+import com.deharri.ums.agency.dto.response.BulkInviteResultDto;
+import com.deharri.ums.agency.dto.response.KeysetPageDto;
 import com.deharri.ums.agency.entity.Agency;
 import com.deharri.ums.agency.entity.AgencyMember;
 import com.deharri.ums.agency.mapper.AgencyMapper;
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.upload.MediaUploadService;
 import com.deharri.ums.enums.AgencyRole;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
 import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.enums.UserRole;
 import com.deharri.ums.error.exception.AuthorizationException;
@@ -18,6 +26,7 @@ import com.deharri.ums.permission.PermissionService;
 import com.deharri.ums.user.dto.response.ResponseMessageDto;
 import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.user.entity.UserData;
+import com.deharri.ums.worker.WorkerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -27,19 +36,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -59,15 +79,38 @@ class AgencyServiceTest {
     @Mock
     private AgencyMapper agencyMapper;
 
+    @Mock
+    private WorkerAgencyInvitationRepository invitationRepository;
+
     @Mock
     private PermissionService permissionService;
 
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     @Mock
     private S3Service s3Service;
 
+    @Mock
+    private MediaUploadService mediaUploadService;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
     @InjectMocks
     private AgencyService agencyService;
 
+    // Commit runs the attach callback in the real service; do the same here
+    private void runCommitsInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(mediaUploadService).commit(any(), any());
+    }
+
     private CoreUser currentUser;
     private Agency agency;
     private UUID agencyId;
@@ -252,7 +295,8 @@ class AgencyServiceTest {
                     .totalJobsCompleted(7)
                     .build();
 
-            when(agencyRepository.findAll()).thenReturn(List.of(agency1, agency2));
+            when(agencyRepository.findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+                    eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class))).thenReturn(List.of(agency1, agency2));
             when(agencyMapper.agencyToListItemDto(agency1)).thenReturn(dto1);
             when(agencyMapper.agencyToListItemDto(agency2)).thenReturn(dto2);
 
@@ -264,7 +308,8 @@ class AgencyServiceTest {
             assertThat(result.get(0).getAgencyName()).isEqualTo("Agency 1");
             assertThat(result.get(1).getAgencyName()).isEqualTo("Agency 2");
 
-            verify(agencyRepository).findAll();
+            verify(agencyRepository).findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+                    eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class));
             verify(agencyMapper).agencyToListItemDto(agency1);
             verify(agencyMapper).agencyToListItemDto(agency2);
         }
@@ -273,7 +318,8 @@ class AgencyServiceTest {
         @DisplayName("Should return empty list when no agencies exist")
         void givenNoAgencies_whenGetAllAgencies_thenReturnEmptyList() {
             // given
-            when(agencyRepository.findAll()).thenReturn(Collections.emptyList());
+            when(agencyRepository.findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+                    eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class))).thenReturn(Collections.emptyList());
 
             // when
             List<AgencyListItemDto> result = agencyService.getAllAgencies();
@@ -281,7 +327,80 @@ class AgencyServiceTest {
             // then
             assertThat(result).isEmpty();
 
-            verify(agencyRepository).findAll();
+            verify(agencyRepository).findAllBySubscriptionStatusAndSubscriptionExpiresAtAfter(
+                    eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class));
+        }
+    }
+
+    // ========================================================================
+    // searchAgencies() tests
+    // ========================================================================
+
+    @Nested
+    @DisplayName("searchAgencies()")
+    class SearchAgenciesTests {
+
+        @Test
+        @DisplayName("Should page active agencies in the query and cap the page size")
+        void givenNoLocation_whenSearchAgencies_thenQueryActiveAgenciesByCity() {
+            // given
+            AgencyRepository.DiscoveryRow row = mock(AgencyRepository.DiscoveryRow.class);
+            AgencyListItemDto dto = AgencyListItemDto.builder().agencyName("Agency 1").build();
+            when(agencyRepository.searchActive(eq(PakistanCity.LAHORE), eq(PakistanCity.ISLAMABAD),
+                    any(LocalDateTime.class), eq(PageRequest.of(2, 100))))
+                    .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(2, 100), 201));
+            when(agencyMapper.discoveryRowToListItemDto(row)).thenReturn(dto);
+
+            // when
+            AgencySearchPageDto result = agencyService.searchAgencies(
+                    PakistanCity.LAHORE, PakistanCity.ISLAMABAD, null, null, 10, 2, 500);
+
+            // then
+            assertThat(result.getItems()).containsExactly(dto);
+            assertThat(result.getPage()).isEqualTo(2);
+            assertThat(result.getSize()).isEqualTo(100);
+            assertThat(result.getTotalElements()).isEqualTo(201);
+            assertThat(result.getTotalPages()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should search a bounding box around the point and report rounded distances")
+        void givenLocation_whenSearchAgencies_thenSearchNearbyWithinBoundingBox() {
+            // given
+            AgencyRepository.NearbyDiscoveryRow row = mock(AgencyRepository.NearbyDiscoveryRow.class);
+            when(row.getDistanceKm()).thenReturn(4.4449);
+            when(agencyMapper.discoveryRowToListItemDto(row)).thenReturn(AgencyListItemDto.builder().build());
+            when(agencyRepository.searchActiveNearby(eq(31.5), eq(74.3), eq(200.0),
+                    eq(31.5 - 200 / 111.045), eq(31.5 + 200 / 111.045),
+                    any(Double.class), any(Double.class), isNull(), eq("LAHORE"),
+                    any(LocalDateTime.class), eq(PageRequest.of(0, 20))))
+                    .thenReturn(new PageImpl<>(List.of(row), PageRequest.of(0, 20), 1));
+
+            // when
+            AgencySearchPageDto result = agencyService.searchAgencies(
+                    null, PakistanCity.LAHORE, 31.5, 74.3, 500, 0, 20);
+
+            // then
+            assertThat(result.getItems()).singleElement()
+                    .satisfies(item -> assertThat(item.getDistanceKm()).isEqualTo(4.4));
+            ArgumentCaptor<Double> minLng = ArgumentCaptor.forClass(Double.class);
+            ArgumentCaptor<Double> maxLng = ArgumentCaptor.forClass(Double.class);
+            verify(agencyRepository).searchActiveNearby(eq(31.5), eq(74.3), eq(200.0), any(Double.class),
+                    any(Double.class), minLng.capture(), maxLng.capture(), isNull(), eq("LAHORE"),
+                    any(LocalDateTime.class), any());
+            // Longitude degrees are shorter away from the equator, so the box is wider than it is tall
+            assertThat(maxLng.getValue() - minLng.getValue()).isGreaterThan(2 * 200 / 111.045);
+        }
+
+        @Test
+        @DisplayName("Should reject a latitude without a longitude")
+        void givenLatitudeOnly_whenSearchAgencies_thenThrowCustomDataIntegrityViolationException() {
+            // when / then
+            assertThatThrownBy(() -> agencyService.searchAgencies(null, null, 31.5, null, 10, 0, 20))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("lat and lng must be given together");
+
+            verifyNoInteractions(agencyRepository);
         }
     }
 
@@ -514,6 +633,7 @@ class AgencyServiceTest {
             when(permissionService.getLoggedInUser()).thenReturn(currentUser);
             when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
             when(s3Service.generateFileKey(eq(userId), eq("new-license.pdf"))).thenReturn(newLicensePath);
+            runCommitsInline();
 
             // when
             ResponseMessageDto result = agencyService.uploadLicenseDocument(licenseDocument);
@@ -522,9 +642,9 @@ class AgencyServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getMessage()).isEqualTo("License document uploaded successfully");
 
-            verify(s3Service).deleteFile("old/license/path.pdf");
+            verify(storageDeletionQueue).enqueue("old/license/path.pdf");
             verify(s3Service).generateFileKey(userId, "new-license.pdf");
-            verify(s3Service).uploadFile(licenseDocument, newLicensePath);
+            verify(mediaUploadService).uploadAll(userId, Map.of(newLicensePath, licenseDocument));
             assertThat(agency.getLicensePath()).isEqualTo(newLicensePath);
             verify(agencyRepository).save(agency);
         }
@@ -543,6 +663,7 @@ class AgencyServiceTest {
             when(permissionService.getLoggedInUser()).thenReturn(currentUser);
             when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
             when(s3Service.generateFileKey(eq(userId), eq("license.pdf"))).thenReturn(newLicensePath);
+            runCommitsInline();
 
             // when
             ResponseMessageDto result = agencyService.uploadLicenseDocument(licenseDocument);
@@ -551,9 +672,9 @@ class AgencyServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getMessage()).isEqualTo("License document uploaded successfully");
 
-            verify(s3Service, never()).deleteFile(any());
+            verifyNoInteractions(storageDeletionQueue);
             verify(s3Service).generateFileKey(userId, "license.pdf");
-            verify(s3Service).uploadFile(licenseDocument, newLicensePath);
+            verify(mediaUploadService).uploadAll(userId, Map.of(newLicensePath, licenseDocument));
             assertThat(agency.getLicensePath()).isEqualTo(newLicensePath);
             verify(agencyRepository).save(agency);
         }
@@ -576,4 +697,156 @@ class AgencyServiceTest {
             verify(agencyRepository, never()).save(any());
         }
     }
+
+    // ========================================================================
+    // getMyAgencyMembersHistory() / getMyAgencyInvitations() tests
+    // ========================================================================
+
+    @Nested
+    @DisplayName("getMyAgencyMembersHistory() / getMyAgencyInvitations()")
+    class KeysetViewTests {
+
+        @Test
+        @DisplayName("Should fetch one row beyond the page and return a cursor at the last row kept")
+        void givenMoreRowsThanPage_whenGetMembersHistory_thenReturnPageWithCursor() {
+            // given
+            AgencyMemberRepository.MembershipHistoryRow first = mock(AgencyMemberRepository.MembershipHistoryRow.class);
+            AgencyMemberRepository.MembershipHistoryRow second = mock(AgencyMemberRepository.MembershipHistoryRow.class);
+            AgencyMemberRepository.MembershipHistoryRow extra = mock(AgencyMemberRepository.MembershipHistoryRow.class);
+            UUID memberId = UUID.randomUUID();
+            Instant joinedAt = Instant.parse("2026-03-01T10:15:30.123456Z");
+            when(second.getMembershipStatus()).thenReturn(AgencyMember.MembershipStatus.LEFT);
+            when(second.getJoinedAt()).thenReturn(joinedAt);
+            when(second.getMemberId()).thenReturn(memberId);
+            when(permissionService.getLoggedInUser()).thenReturn(currentUser);
+            when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
+            when(agencyMemberRepository.findMembershipHistory(agency, PageRequest.of(0, 3)))
+                    .thenReturn(List.of(first, second, extra));
+            when(agencyMapper.membershipHistoryRowToDto(any()))
+                    .thenReturn(AgencyMembershipHistoryDto.builder().build());
+
+            // when
+            KeysetPageDto<AgencyMembershipHistoryDto> page = agencyService.getMyAgencyMembersHistory(null, 2);
+            agencyService.getMyAgencyMembersHistory(page.getNextCursor(), 2);
+
+            // then
+            assertThat(page.getItems()).hasSize(2);
+            assertThat(page.isHasMore()).isTrue();
+            verify(agencyMapper, never()).membershipHistoryRowToDto(extra);
+            verify(agencyMemberRepository).findMembershipHistoryAfter(agency, AgencyMember.MembershipStatus.LEFT,
+                    joinedAt, memberId, PageRequest.of(0, 3));
+        }
+
+        @Test
+        @DisplayName("Should return the last page without a cursor")
+        void givenFewerRowsThanPage_whenGetInvitations_thenReturnLastPage() {
+            // given
+            WorkerAgencyInvitationRepository.SentInvitationRow row = mock(WorkerAgencyInvitationRepository.SentInvitationRow.class);
+            AgencySentInvitationDto dto = AgencySentInvitationDto.builder().status("PENDING").build();
+            when(permissionService.getLoggedInUser()).thenReturn(currentUser);
+            when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
+            when(invitationRepository.findSentInvitations(agency, PageRequest.of(0, 101))).thenReturn(List.of(row));
+            when(agencyMapper.sentInvitationRowToDto(row)).thenReturn(dto);
+
+            // when
+            KeysetPageDto<AgencySentInvitationDto> page = agencyService.getMyAgencyInvitations("", 500);
+
+            // then
+            assertThat(page.getItems()).containsExactly(dto);
+            assertThat(page.isHasMore()).isFalse();
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor it did not issue")
+        void givenMalformedCursor_whenGetInvitations_thenThrowCustomDataIntegrityViolationException() {
+            // given
+            when(permissionService.getLoggedInUser()).thenReturn(currentUser);
+            when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
+
+            // when / then
+            assertThatThrownBy(() -> agencyService.getMyAgencyInvitations("not-a-cursor", 20))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("Invalid page cursor");
+
+            verifyNoInteractions(invitationRepository);
+        }
+    }
+
+    // ========================================================================
+    // inviteWorkersToAgency() tests
+    // ========================================================================
+
+    @Nested
+    @DisplayName("inviteWorkersToAgency()")
+    class InviteWorkersToAgencyTests {
+
+        private WorkerRepository.AgencyAffiliationRow affiliation(UUID workerId, UUID currentAgencyId) {
+            WorkerRepository.AgencyAffiliationRow row = mock(WorkerRepository.AgencyAffiliationRow.class);
+            when(row.getWorkerId()).thenReturn(workerId);
+            when(row.getAgencyId()).thenReturn(currentAgencyId);
+            return row;
+        }
+
+        @Test
+        @DisplayName("Should report each worker's outcome and batch insert only the new invitations")
+        @SuppressWarnings("unchecked")
+        void givenMixedWorkers_whenInviteWorkers_thenInviteOnlyEligibleWorkers() {
+            // given
+            agency.setSubscriptionStatus(AgencySubscriptionStatus.ACTIVE);
+            agency.setSubscriptionExpiresAt(LocalDateTime.now().plusDays(30));
+            UUID free = UUID.randomUUID();
+            UUID pending = UUID.randomUUID();
+            UUID member = UUID.randomUUID();
+            UUID elsewhere = UUID.randomUUID();
+            UUID missing = UUID.randomUUID();
+            List<WorkerRepository.AgencyAffiliationRow> rows = List.of(
+                    affiliation(free, null), affiliation(pending, null),
+                    affiliation(member, agencyId), affiliation(elsewhere, UUID.randomUUID()));
+            when(permissionService.getLoggedInUser()).thenReturn(currentUser);
+            when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
+            when(workerRepository.findAgencyAffiliations(any())).thenReturn(rows);
+            when(invitationRepository.findPendingWorkerIds(eq(agency), any())).thenReturn(List.of(pending));
+
+            // when
+            BulkInviteResultDto result = agencyService.inviteWorkersToAgency(
+                    List.of(free, pending, member, elsewhere, missing, free));
+
+            // then
+            assertThat(result.getInvited()).isEqualTo(1);
+            assertThat(result.getSkipped()).isEqualTo(4);
+            assertThat(result.getWorkers())
+                    .extracting(BulkInviteResultDto.WorkerOutcome::getOutcome)
+                    .containsExactly(BulkInviteResultDto.Outcome.INVITED,
+                            BulkInviteResultDto.Outcome.ALREADY_PENDING,
+                            BulkInviteResultDto.Outcome.ALREADY_MEMBER,
+                            BulkInviteResultDto.Outcome.IN_OTHER_AGENCY,
+                            BulkInviteResultDto.Outcome.NOT_FOUND);
+            ArgumentCaptor<List<UUID>> batch = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(),
+                    any(ParameterizedPreparedStatementSetter.class));
+            assertThat(batch.getValue()).containsExactly(free);
+        }
+
+        @Test
+        @DisplayName("Should reject a batch above the limit before querying workers")
+        void givenTooManyWorkers_whenInviteWorkers_thenThrowCustomDataIntegrityViolationException() {
+            // given
+            agency.setSubscriptionStatus(AgencySubscriptionStatus.ACTIVE);
+            agency.setSubscriptionExpiresAt(LocalDateTime.now().plusDays(30));
+            List<UUID> workerIds = new ArrayList<>();
+            for (int i = 0; i < 201; i++) {
+                workerIds.add(UUID.randomUUID());
+            }
+            when(permissionService.getLoggedInUser()).thenReturn(currentUser);
+            when(agencyRepository.findByCoreUser(currentUser)).thenReturn(Optional.of(agency));
+
+            // when / then
+            assertThatThrownBy(() -> agencyService.inviteWorkersToAgency(workerIds))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("At most 200 workers can be invited per request");
+
+            verifyNoInteractions(workerRepository, jdbcTemplate);
+        }
+    }
 }
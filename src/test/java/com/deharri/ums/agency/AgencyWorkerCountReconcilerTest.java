@@ -0,0 +1,77 @@
+package com.deharri.ums.agency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AgencyWorkerCountReconciler Unit Tests")
+class AgencyWorkerCountReconcilerTest {
+
+    @Mock
+    private AgencyRepository agencyRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private AgencyWorkerCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reconciler, "chunkSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should recount drifted agencies chunk by chunk until none are left")
+    void givenDriftedAgencies_whenReconcile_thenRecountInChunks() {
+        // given
+        List<UUID> firstChunk = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> secondChunk = List.of(UUID.randomUUID());
+        when(agencyRepository.findIdsWithDriftedTotalWorkers(any(Pageable.class)))
+                .thenReturn(firstChunk, secondChunk, List.of());
+        when(agencyRepository.recountTotalWorkers(anyList(), any(LocalDateTime.class))).thenReturn(2, 1);
+
+        // when
+        reconciler.reconcile();
+
+        // then
+        verify(agencyRepository).recountTotalWorkers(eq(firstChunk), any(LocalDateTime.class));
+        verify(agencyRepository).recountTotalWorkers(eq(secondChunk), any(LocalDateTime.class));
+        verify(agencyRepository, times(3)).findIdsWithDriftedTotalWorkers(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should stop when a chunk recounts nothing instead of rescanning the same rows")
+    void givenChunkDeletedConcurrently_whenReconcile_thenStopLoop() {
+        // given
+        when(agencyRepository.findIdsWithDriftedTotalWorkers(any(Pageable.class)))
+                .thenReturn(List.of(UUID.randomUUID()));
+        when(agencyRepository.recountTotalWorkers(anyList(), any(LocalDateTime.class))).thenReturn(0);
+
+        // when
+        reconciler.reconcile();
+
+        // then
+        verify(agencyRepository, times(1)).findIdsWithDriftedTotalWorkers(any(Pageable.class));
+    }
+}
@@ -0,0 +1,130 @@
+package com.deharri.ums.amazon;
+
+import com.deharri.ums.amazon.storage.ObjectStorage;
+import com.deharri.ums.error.exception.FileUploadException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("S3Service Unit Tests")
+class S3ServiceTest {
+
+    @Mock
+    private ObjectStorage objectStorage;
+
+    private S3Service s3Service;
+
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        s3Service = new S3Service(objectStorage, 1);
+        ReflectionTestUtils.setField(s3Service, "permitTimeoutMs", 10L);
+        file = new MockMultipartFile("cnicFront", "front.jpg", "image/jpeg", new byte[]{1, 2, 3, 4, 5});
+    }
+
+    @Nested
+    @DisplayName("uploadFile()")
+    class UploadFileTests {
+
+        @Test
+        @DisplayName("Should pass content length and type so the backend can stream instead of buffering")
+        void givenFile_whenUploadFile_thenPassKnownLengthAndType() throws Exception {
+            // when
+            String result = s3Service.uploadFile(file, "deharri/users/key.jpg");
+
+            // then
+            verify(objectStorage).put(eq("deharri/users/key.jpg"), any(InputStream.class), eq(5L), eq("image/jpeg"));
+            assertThat(result).startsWith("File uploaded successfully");
+        }
+
+        @Test
+        @DisplayName("Should release the upload permit after a failed upload")
+        void givenFailingUpload_whenUploadFile_thenReleasePermit() throws Exception {
+            // given
+            doThrow(new IOException("boom")).doNothing()
+                    .when(objectStorage).put(anyString(), any(InputStream.class), anyLong(), anyString());
+
+            // when / then
+            assertThatThrownBy(() -> s3Service.uploadFile(file, "deharri/users/a.jpg"))
+                    .isInstanceOf(FileUploadException.class)
+                    .hasMessage("Error uploading file");
+            assertThat(s3Service.uploadFile(file, "deharri/users/b.jpg")).startsWith("File uploaded successfully");
+        }
+
+        @Test
+        @DisplayName("Should reject the upload when no permit frees up in time")
+        void givenNoFreePermit_whenUploadFile_thenRejectWithoutCallingStorage() {
+            // given
+            s3Service = new S3Service(objectStorage, 0);
+            ReflectionTestUtils.setField(s3Service, "permitTimeoutMs", 10L);
+
+            // when / then
+            assertThatThrownBy(() -> s3Service.uploadFile(file, "deharri/users/key.jpg"))
+                    .isInstanceOf(FileUploadException.class);
+            verifyNoInteractions(objectStorage);
+        }
+    }
+
+    @Nested
+    @DisplayName("uploadFileAsync()")
+    class UploadFileAsyncTests {
+
+        @Test
+        @DisplayName("Should hold the permit until the upload completes")
+        void givenPendingUpload_whenUploadFileAsync_thenReleasePermitOnCompletion() {
+            // given
+            CompletableFuture<Void> stored = new CompletableFuture<>();
+            when(objectStorage.putAsync(anyString(), any(InputStream.class), anyLong(), anyString())).thenReturn(stored);
+
+            // when
+            CompletableFuture<Void> first = s3Service.uploadFileAsync(file, "deharri/users/a.jpg");
+            CompletableFuture<Void> rejected = s3Service.uploadFileAsync(file, "deharri/users/b.jpg");
+            stored.complete(null);
+            CompletableFuture<Void> afterRelease = s3Service.uploadFileAsync(file, "deharri/users/c.jpg");
+
+            // then
+            assertThat(first).isCompleted();
+            assertThatThrownBy(rejected::join).hasCauseInstanceOf(FileUploadException.class);
+            assertThat(afterRelease).isCompleted();
+            verify(objectStorage).putAsync(eq("deharri/users/a.jpg"), any(InputStream.class), eq(5L), eq("image/jpeg"));
+        }
+
+        @Test
+        @DisplayName("Should fail with FileUploadException when storage fails")
+        void givenFailingStorage_whenUploadFileAsync_thenFailWithFileUploadException() {
+            // given
+            when(objectStorage.putAsync(anyString(), any(InputStream.class), anyLong(), anyString()))
+                    .thenReturn(CompletableFuture.failedFuture(new IOException("boom")));
+
+            // when
+            CompletableFuture<Void> result = s3Service.uploadFileAsync(file, "deharri/users/a.jpg");
+
+            // then
+            assertThatThrownBy(result::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(FileUploadException.class)
+                    .hasRootCauseMessage("boom");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.deharri.ums.amazon.deletion;
+
+import com.deharri.ums.amazon.S3Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StorageDeletionWorker Unit Tests")
+class StorageDeletionWorkerTest {
+
+    @Mock
+    private StorageDeletionRepository storageDeletionRepository;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private StorageDeletionWorker storageDeletionWorker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageDeletionWorker, "batchSize", 10);
+        ReflectionTestUtils.setField(storageDeletionWorker, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(storageDeletionWorker, "maxBackoff", Duration.ofHours(1));
+    }
+
+    private StorageDeletion deletion(long id, String key, int attempts) {
+        return StorageDeletion.builder()
+                .deletionId(id)
+                .objectKey(key)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should delete a batch in one request and drop the rows that succeeded")
+    void givenDueDeletions_whenDrain_thenBatchDeleteAndRemoveRows() {
+        // given
+        runTransactionsInline();
+        when(storageDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(deletion(1L, "a.jpg", 0), deletion(2L, "b.jpg", 0)));
+        when(s3Service.deleteFiles(List.of("a.jpg", "b.jpg"))).thenReturn(Map.of());
+
+        // when
+        storageDeletionWorker.drain();
+
+        // then
+        verify(s3Service).deleteFiles(List.of("a.jpg", "b.jpg"));
+        verify(storageDeletionRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(storageDeletionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reschedule failed keys with exponential backoff")
+    void givenPartialFailure_whenDrain_thenRescheduleFailedWithBackoff() {
+        // given
+        runTransactionsInline();
+        StorageDeletion failing = deletion(2L, "b.jpg", 2);
+        when(storageDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(deletion(1L, "a.jpg", 0), failing));
+        when(s3Service.deleteFiles(List.of("a.jpg", "b.jpg"))).thenReturn(Map.of("b.jpg", "SlowDown: Reduce your request rate"));
+        LocalDateTime before = LocalDateTime.now();
+
+        // when
+        storageDeletionWorker.drain();
+
+        // then
+        verify(storageDeletionRepository).deleteByIdIn(List.of(1L));
+        ArgumentCaptor<List<StorageDeletion>> retried = ArgumentCaptor.forClass(List.class);
+        verify(storageDeletionRepository).saveAll(retried.capture());
+        assertThat(retried.getValue()).containsExactly(failing);
+        assertThat(failing.getAttempts()).isEqualTo(3);
+        assertThat(failing.getLastError()).isEqualTo("SlowDown: Reduce your request rate");
+        // third attempt waits 30s * 2^2
+        assertThat(failing.getNextAttemptAt()).isAfterOrEqualTo(before.plusMinutes(2));
+    }
+
+    @Test
+    @DisplayName("Should reschedule the whole batch when the request itself fails")
+    void givenStorageOutage_whenDrain_thenRescheduleAll() {
+        // given
+        runTransactionsInline();
+        when(storageDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(deletion(1L, "a.jpg", 0)));
+        when(s3Service.deleteFiles(List.of("a.jpg"))).thenThrow(new RuntimeException("connect timed out"));
+
+        // when
+        storageDeletionWorker.drain();
+
+        // then
+        verify(storageDeletionRepository, never()).deleteByIdIn(any());
+        verify(storageDeletionRepository).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no deletion is due")
+    void givenEmptyQueue_whenDrain_thenDoNothing() {
+        // given
+        when(storageDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // when
+        storageDeletionWorker.drain();
+
+        // then
+        verifyNoInteractions(s3Service, transactionTemplate);
+    }
+}
@@ -0,0 +1,124 @@
+package com.deharri.ums.amazon.image;
+
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.storage.StoredObject;
+import com.deharri.ums.amazon.storage.StoredObjectInfo;
+import com.deharri.ums.amazon.storage.StoredObjectReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImageDerivativeService Unit Tests")
+class ImageDerivativeServiceTest {
+
+    private static final String ORIGINAL_KEY = "deharri/users/u/2026/02/24/uuid.png";
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
+    private ImageDerivativeService imageDerivativeService;
+
+    @BeforeEach
+    void setUp() {
+        imageDerivativeService = new ImageDerivativeService(s3Service, storageDeletionQueue, 1, 4, 50_000_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageDerivativeService.shutdown();
+    }
+
+    // Hands the content to the reader the way S3Service.readFile does
+    private void stubStoredObject(byte[] content) {
+        when(s3Service.readFile(eq(ORIGINAL_KEY), any())).thenAnswer(invocation -> {
+            StoredObjectReader<?> reader = invocation.getArgument(1);
+            try (StoredObject object = new StoredObject(
+                    new ByteArrayInputStream(content), new StoredObjectInfo(content.length, "image/png"))) {
+                return reader.read(object);
+            }
+        });
+    }
+
+    private byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Nested
+    @DisplayName("generateVariants()")
+    class GenerateVariantsTests {
+
+        @Test
+        @DisplayName("Should write every variant bounded to its size next to the original")
+        void givenLargeImage_whenGenerateVariants_thenWriteBoundedVariants() throws Exception {
+            // given
+            stubStoredObject(png(2000, 1000));
+
+            // when
+            Map<ImageVariant, String> variants = imageDerivativeService.generateVariants(ORIGINAL_KEY).get();
+
+            // then
+            assertThat(variants).containsEntry(ImageVariant.THUMBNAIL, "deharri/users/u/2026/02/24/uuid_thumb.png")
+                    .containsEntry(ImageVariant.MEDIUM, "deharri/users/u/2026/02/24/uuid_medium.png");
+
+            ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+            verify(s3Service).uploadBytes(thumbnail.capture(), eq("image/png"), eq(variants.get(ImageVariant.THUMBNAIL)));
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.getValue()));
+            assertThat(decoded.getWidth()).isEqualTo(160);
+            assertThat(decoded.getHeight()).isEqualTo(80);
+        }
+
+        @Test
+        @DisplayName("Should write nothing when the object is not an image")
+        void givenNonImage_whenGenerateVariants_thenReturnEmpty() throws Exception {
+            // given
+            stubStoredObject("%PDF-1.4".getBytes());
+
+            // when
+            Map<ImageVariant, String> variants = imageDerivativeService.generateVariants(ORIGINAL_KEY).get();
+
+            // then
+            assertThat(variants).isEmpty();
+            verify(s3Service, never()).uploadBytes(any(), anyString(), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("ImageVariant.keyFor()")
+    class KeyForTests {
+
+        @Test
+        @DisplayName("Should add the suffix before the extension, or at the end without one")
+        void givenKeys_whenKeyFor_thenSuffixBeforeExtension() {
+            assertThat(ImageVariant.THUMBNAIL.keyFor("a/b/c.jpg")).isEqualTo("a/b/c_thumb.jpg");
+            assertThat(ImageVariant.MEDIUM.keyFor("a.b/c")).isEqualTo("a.b/c_medium");
+        }
+    }
+}
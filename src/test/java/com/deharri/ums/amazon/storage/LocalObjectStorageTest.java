@@ -0,0 +1,138 @@
+package com.deharri.ums.amazon.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LocalObjectStorage Unit Tests")
+class LocalObjectStorageTest {
+
+    private static final String KEY = "deharri/users/abc/2026/01/01/pic.jpg";
+
+    @TempDir
+    Path root;
+
+    private LocalObjectStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalObjectStorage(root.toString(), "test-signing-key", "http://localhost:8081");
+    }
+
+    @Nested
+    @DisplayName("put(), get() and deleteAll()")
+    class ObjectTests {
+
+        @Test
+        @DisplayName("Should store, read back and delete an object")
+        void givenContent_whenPutGetDelete_thenRoundTrip() throws IOException {
+            // given
+            byte[] content = {1, 2, 3, 4, 5};
+
+            // when
+            storage.put(KEY, new ByteArrayInputStream(content), content.length, "image/jpeg");
+
+            // then
+            try (StoredObject object = storage.get(KEY)) {
+                assertThat(object.getContent().readAllBytes()).isEqualTo(content);
+                assertThat(object.getInfo().getContentLength()).isEqualTo(5L);
+                assertThat(object.getInfo().getContentType()).isEqualTo("image/jpeg");
+            }
+            assertThat(storage.deleteAll(List.of(KEY, "deharri/never-stored.jpg"))).isEmpty();
+            assertThat(storage.stat(KEY)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should not leave a partial object when the body is shorter than declared")
+        void givenTruncatedBody_whenPut_thenFailWithoutObject() throws IOException {
+            // when / then
+            assertThatThrownBy(() -> storage.put(KEY, new ByteArrayInputStream(new byte[3]), 10L, "image/jpeg"))
+                    .isInstanceOf(IOException.class);
+            assertThat(storage.stat(KEY)).isEmpty();
+            try (var files = Files.walk(root)) {
+                assertThat(files.filter(Files::isRegularFile)).isEmpty();
+            }
+        }
+
+        @Test
+        @DisplayName("Should stop reading a body longer than declared and store nothing")
+        void givenOverlongBody_whenPut_thenFailWithoutObject() throws IOException {
+            // given
+            ByteArrayInputStream body = new ByteArrayInputStream(new byte[64]);
+
+            // when / then
+            assertThatThrownBy(() -> storage.put(KEY, body, 10L, "image/jpeg"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("received 11");
+            assertThat(body.available()).isEqualTo(53);
+            assertThat(storage.stat(KEY)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should reject keys that escape the storage root")
+        void givenTraversalKey_whenPut_thenReject() {
+            // when / then
+            assertThatThrownBy(() -> storage.put("../outside.jpg", new ByteArrayInputStream(new byte[1]), 1L, "image/jpeg"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("presignGet() / presignPut() and verify()")
+    class SigningTests {
+
+        @Test
+        @DisplayName("Should accept a signature it issued for the same method, content type and size limit")
+        void givenPresignedPut_whenVerify_thenAccept() {
+            // when
+            UriComponents url = parse(storage.presignPut(KEY, "image/png", 1024L, Duration.ofMinutes(5)));
+
+            // then
+            long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+            String signature = url.getQueryParams().getFirst("signature");
+            assertThat(url.getPath()).isEqualTo("/api/v1/storage/objects");
+            assertThat(url.getQueryParams().getFirst("maxSize")).isEqualTo("1024");
+            assertThat(storage.verify("PUT", KEY, "image/png", 1024L, expires, signature)).isTrue();
+            assertThat(storage.verify("PUT", KEY, "image/png", 1048576L, expires, signature)).isFalse();
+            assertThat(storage.verify("PUT", KEY, "image/jpeg", 1024L, expires, signature)).isFalse();
+            assertThat(storage.verify("GET", KEY, null, null, expires, signature)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should reject expired and tampered signatures")
+        void givenExpiredOrTamperedSignature_whenVerify_thenReject() {
+            // given
+            UriComponents url = parse(storage.presignGet(KEY, Duration.ofMinutes(5)));
+            long expires = Long.parseLong(url.getQueryParams().getFirst("expires"));
+            String signature = url.getQueryParams().getFirst("signature");
+            UriComponents expired = parse(storage.presignGet(KEY, Duration.ofMinutes(-1)));
+
+            // when / then
+            assertThat(storage.verify("GET", KEY, null, null, expires, signature)).isTrue();
+            assertThat(storage.verify("GET", "deharri/other.jpg", null, null, expires, signature)).isFalse();
+            assertThat(storage.verify("GET", KEY, null, null, expires + 60, signature)).isFalse();
+            assertThat(storage.verify("GET", KEY, null, null,
+                    Long.parseLong(expired.getQueryParams().getFirst("expires")),
+                    expired.getQueryParams().getFirst("signature"))).isFalse();
+        }
+    }
+
+    private static UriComponents parse(URL url) {
+        return UriComponentsBuilder.fromUriString(url.toString()).build(true);
+    }
+}
@@ -0,0 +1,90 @@
+package com.deharri.ums.amazon.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LocalStorageController Unit Tests")
+class LocalStorageControllerTest {
+
+    private static final String KEY = "deharri/users/abc/2026/01/01/pic.jpg";
+
+    @TempDir
+    Path root;
+
+    private LocalObjectStorage storage;
+    private LocalStorageController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new LocalObjectStorage(root.toString(), "test-signing-key", "http://localhost:8081");
+        controller = new LocalStorageController(storage);
+    }
+
+    @Nested
+    @DisplayName("upload()")
+    class UploadTests {
+
+        @Test
+        @DisplayName("Should store a body within the signed size limit")
+        void givenBodyWithinLimit_whenUpload_thenStore() throws IOException {
+            // when
+            ResponseEntity<Void> response = upload(8L, request(new byte[8]));
+
+            // then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(storage.stat(KEY)).hasValueSatisfying(info -> assertThat(info.getContentLength()).isEqualTo(8L));
+        }
+
+        @Test
+        @DisplayName("Should reject a declared length over the signed limit before writing anything")
+        void givenOversizedContentLength_whenUpload_thenReturn413() throws IOException {
+            // when
+            ResponseEntity<Void> response = upload(8L, request(new byte[9]));
+
+            // then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+            assertThat(storage.stat(KEY)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should require a Content-Length")
+        void givenNoContentLength_whenUpload_thenReturn411() throws IOException {
+            // when
+            ResponseEntity<Void> response = upload(8L, request(null));
+
+            // then
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.LENGTH_REQUIRED);
+            assertThat(storage.stat(KEY)).isEmpty();
+        }
+    }
+
+    private ResponseEntity<Void> upload(long maxSize, MockHttpServletRequest request) throws IOException {
+        UriComponents url = UriComponentsBuilder.fromUriString(
+                storage.presignPut(KEY, "image/jpeg", maxSize, Duration.ofMinutes(5)).toString()).build(true);
+        return controller.upload(KEY, maxSize,
+                Long.parseLong(url.getQueryParams().getFirst("expires")),
+                url.getQueryParams().getFirst("signature"),
+                "image/jpeg", request);
+    }
+
+    // Without a body the mock reports no Content-Length, as for a chunked request
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", LocalObjectStorage.OBJECTS_PATH);
+        request.setContent(body);
+        return request;
+    }
+}
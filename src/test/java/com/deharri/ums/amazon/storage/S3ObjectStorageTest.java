@@ -0,0 +1,170 @@
+package com.deharri.ums.amazon.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.event.ProgressEvent;
+import com.amazonaws.event.ProgressEventType;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("S3ObjectStorage Unit Tests")
+class S3ObjectStorageTest {
+
+    @Mock
+    private AmazonS3 amazonS3;
+
+    @Mock
+    private TransferManager transferManager;
+
+    @Mock
+    private Upload upload;
+
+    private S3ObjectStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new S3ObjectStorage(amazonS3, transferManager);
+        ReflectionTestUtils.setField(storage, "bucketName", "test-bucket");
+    }
+
+    @Nested
+    @DisplayName("put()")
+    class PutTests {
+
+        @Test
+        @DisplayName("Should send content length and type so the SDK streams instead of buffering")
+        void givenStream_whenPut_thenPassKnownLengthAndType() throws Exception {
+            // given
+            when(transferManager.upload(any(PutObjectRequest.class))).thenReturn(upload);
+
+            // when
+            storage.put("deharri/users/key.jpg", new ByteArrayInputStream(new byte[5]), 5L, "image/jpeg");
+
+            // then
+            ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+            verify(transferManager).upload(captor.capture());
+            PutObjectRequest request = captor.getValue();
+            assertThat(request.getBucketName()).isEqualTo("test-bucket");
+            assertThat(request.getKey()).isEqualTo("deharri/users/key.jpg");
+            assertThat(request.getMetadata().getContentLength()).isEqualTo(5L);
+            assertThat(request.getMetadata().getContentType()).isEqualTo("image/jpeg");
+            verify(upload).waitForCompletion();
+        }
+
+        @Test
+        @DisplayName("Should complete the future from the transfer's completion event without waiting on it")
+        void givenAsyncPut_whenTransferCompletes_thenCompleteFuture() throws Exception {
+            // given
+            ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+            when(transferManager.upload(request.capture())).thenReturn(upload);
+
+            // when
+            CompletableFuture<Void> result = storage.putAsync(
+                    "deharri/users/key.jpg", new ByteArrayInputStream(new byte[5]), 5L, "image/jpeg");
+
+            // then
+            assertThat(result).isNotDone();
+            when(upload.getState()).thenReturn(TransferState.Completed);
+            request.getValue().getGeneralProgressListener()
+                    .progressChanged(new ProgressEvent(ProgressEventType.TRANSFER_COMPLETED_EVENT));
+            assertThat(result).isCompleted();
+            verify(upload, never()).waitForCompletion();
+        }
+
+        @Test
+        @DisplayName("Should fail the future from the transfer's state without waiting for its exception")
+        void givenAsyncPut_whenTransferFails_thenFailFutureFromState() throws Exception {
+            // given
+            ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+            when(transferManager.upload(request.capture())).thenReturn(upload);
+            when(upload.getState()).thenReturn(TransferState.Failed);
+
+            // when
+            CompletableFuture<Void> result = storage.putAsync(
+                    "deharri/users/key.jpg", new ByteArrayInputStream(new byte[5]), 5L, "image/jpeg");
+            request.getValue().getGeneralProgressListener()
+                    .progressChanged(new ProgressEvent(ProgressEventType.TRANSFER_FAILED_EVENT));
+
+            // then
+            assertThat(result).isCompletedExceptionally();
+            assertThatThrownBy(result::join).hasCauseInstanceOf(IOException.class).hasMessageContaining("Failed");
+            verify(upload, never()).waitForException();
+        }
+
+        @Test
+        @DisplayName("Should fail the future when the transfer cannot be started")
+        void givenRejectedTransfer_whenPutAsync_thenFailFutureWithCause() {
+            // given
+            AmazonClientException cause = new AmazonClientException("Unable to execute HTTP request");
+            when(transferManager.upload(any(PutObjectRequest.class))).thenThrow(cause);
+
+            // when
+            CompletableFuture<Void> result = storage.putAsync(
+                    "deharri/users/key.jpg", new ByteArrayInputStream(new byte[5]), 5L, "image/jpeg");
+
+            // then
+            assertThatThrownBy(result::join).hasCause(cause);
+        }
+    }
+
+    @Nested
+    @DisplayName("stat() and deleteAll()")
+    class StatAndDeleteTests {
+
+        @Test
+        @DisplayName("Should report a missing object as empty")
+        void givenMissingObject_whenStat_thenEmpty() {
+            // given
+            AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+            notFound.setStatusCode(404);
+            when(amazonS3.getObjectMetadata("test-bucket", "missing.jpg")).thenThrow(notFound);
+
+            // when / then
+            assertThat(storage.stat("missing.jpg")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return only the keys S3 failed to delete")
+        void givenPartialFailure_whenDeleteAll_thenReturnFailedKeys() {
+            // given
+            MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+            error.setKey("b.jpg");
+            error.setCode("AccessDenied");
+            error.setMessage("Access Denied");
+            when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+                    .thenThrow(new MultiObjectDeleteException(List.of(error), List.of()));
+
+            // when
+            Map<String, String> failed = storage.deleteAll(List.of("a.jpg", "b.jpg"));
+
+            // then
+            assertThat(failed).containsOnly(Map.entry("b.jpg", "AccessDenied: Access Denied"));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.agency.AgencyService;
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.dto.UploadCompletionDto;
+import com.deharri.ums.amazon.dto.UploadIntentDto;
+import com.deharri.ums.amazon.dto.UploadIntentRequestDto;
+import com.deharri.ums.amazon.storage.StoredObjectInfo;
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.error.exception.ResourceNotFoundException;
+import com.deharri.ums.permission.PermissionService;
+import com.deharri.ums.user.UserService;
+import com.deharri.ums.user.dto.response.ResponseMessageDto;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.WorkerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DirectUploadService Unit Tests")
+class DirectUploadServiceTest {
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
+    @Mock
+    private PermissionService permissionService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private WorkerService workerService;
+
+    @Mock
+    private AgencyService agencyService;
+
+    @InjectMocks
+    private DirectUploadService directUploadService;
+
+    private CoreUser coreUser;
+    private UUID userId;
+    private final String objectKey = "deharri/users/key.jpg";
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(directUploadService, "urlExpiryMinutes", 15L);
+        ReflectionTestUtils.setField(directUploadService, "maxSize", DataSize.ofMegabytes(10));
+        userId = UUID.randomUUID();
+        coreUser = CoreUser.builder().userId(userId).username("john_doe").build();
+    }
+
+    private PendingUpload pending(UUID owner, UploadTarget target) {
+        return PendingUpload.builder().objectKey(objectKey).userId(owner).target(target).build();
+    }
+
+    @Nested
+    @DisplayName("createIntent()")
+    class CreateIntentTests {
+
+        @Test
+        @DisplayName("Should reserve the key and return a presigned PUT URL")
+        void givenValidRequest_whenCreateIntent_thenRecordPendingAndPresign() throws Exception {
+            // given
+            UploadIntentRequestDto dto = new UploadIntentRequestDto(
+                    UploadTarget.PROFILE_PICTURE, "avatar.jpg", "image/jpeg", 2048L);
+            URL url = new URL("https://bucket.s3.amazonaws.com/deharri/users/key.jpg?X-Amz-Signature=abc");
+
+            when(permissionService.getLoggedInUser()).thenReturn(coreUser);
+            when(s3Service.generateFileKey(userId, "avatar.jpg")).thenReturn(objectKey);
+            when(s3Service.generatePresignedPutUrl(objectKey, "image/jpeg", DataSize.ofMegabytes(10).toBytes(), 15L)).thenReturn(url);
+
+            // when
+            UploadIntentDto result = directUploadService.createIntent(dto);
+
+            // then
+            assertThat(result.getObjectKey()).isEqualTo(objectKey);
+            assertThat(result.getUploadUrl()).isEqualTo(url);
+            assertThat(result.getContentType()).isEqualTo("image/jpeg");
+
+            ArgumentCaptor<PendingUpload> saved = ArgumentCaptor.forClass(PendingUpload.class);
+            verify(pendingUploadRepository).save(saved.capture());
+            assertThat(saved.getValue().getUserId()).isEqualTo(userId);
+            assertThat(saved.getValue().getTarget()).isEqualTo(UploadTarget.PROFILE_PICTURE);
+        }
+
+        @Test
+        @DisplayName("Should reject a content type the target does not accept")
+        void givenPdfForProfilePicture_whenCreateIntent_thenThrow() {
+            // given
+            UploadIntentRequestDto dto = new UploadIntentRequestDto(
+                    UploadTarget.PROFILE_PICTURE, "doc.pdf", "application/pdf", 2048L);
+
+            // when / then
+            assertThatThrownBy(() -> directUploadService.createIntent(dto))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class);
+            verifyNoInteractions(s3Service, pendingUploadRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("completeUpload()")
+    class CompleteUploadTests {
+
+        @Test
+        @DisplayName("Should attach the object to its target once it exists in storage")
+        void givenUploadedObject_whenCompleteUpload_thenAttach() {
+            // given
+            StoredObjectInfo metadata = new StoredObjectInfo(2048L, "image/jpeg");
+            ResponseMessageDto attached = new ResponseMessageDto("Profile Picture Updated Successfully!");
+
+            when(permissionService.getLoggedInUser()).thenReturn(coreUser);
+            when(pendingUploadRepository.findByObjectKey(objectKey))
+                    .thenReturn(Optional.of(pending(userId, UploadTarget.PROFILE_PICTURE)));
+            when(s3Service.findObjectMetadata(objectKey)).thenReturn(Optional.of(metadata));
+            when(userService.attachUploadedProfilePicture(objectKey)).thenReturn(attached);
+
+            // when
+            ResponseMessageDto result = directUploadService.completeUpload(new UploadCompletionDto(objectKey));
+
+            // then
+            assertThat(result).isEqualTo(attached);
+        }
+
+        @Test
+        @DisplayName("Should not let a user complete another user's intent")
+        void givenOtherUsersIntent_whenCompleteUpload_thenThrowNotFound() {
+            // given
+            when(permissionService.getLoggedInUser()).thenReturn(coreUser);
+            when(pendingUploadRepository.findByObjectKey(objectKey))
+                    .thenReturn(Optional.of(pending(UUID.randomUUID(), UploadTarget.PROFILE_PICTURE)));
+
+            // when / then
+            assertThatThrownBy(() -> directUploadService.completeUpload(new UploadCompletionDto(objectKey)))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verify(s3Service, never()).findObjectMetadata(any());
+        }
+
+        @Test
+        @DisplayName("Should fail when the object has not been uploaded")
+        void givenMissingObject_whenCompleteUpload_thenThrow() {
+            // given
+            when(permissionService.getLoggedInUser()).thenReturn(coreUser);
+            when(pendingUploadRepository.findByObjectKey(objectKey))
+                    .thenReturn(Optional.of(pending(userId, UploadTarget.PORTFOLIO_IMAGE)));
+            when(s3Service.findObjectMetadata(objectKey)).thenReturn(Optional.empty());
+
+            // when / then
+            assertThatThrownBy(() -> directUploadService.completeUpload(new UploadCompletionDto(objectKey)))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("File has not been uploaded yet");
+            verifyNoInteractions(workerService);
+        }
+
+        @Test
+        @DisplayName("Should discard an object that is larger than allowed")
+        void givenOversizedObject_whenCompleteUpload_thenDiscardAndThrow() {
+            // given
+            StoredObjectInfo metadata = new StoredObjectInfo(DataSize.ofMegabytes(50).toBytes(), "application/pdf");
+
+            when(permissionService.getLoggedInUser()).thenReturn(coreUser);
+            when(pendingUploadRepository.findByObjectKey(objectKey))
+                    .thenReturn(Optional.of(pending(userId, UploadTarget.AGENCY_LICENSE)));
+            when(s3Service.findObjectMetadata(objectKey)).thenReturn(Optional.of(metadata));
+
+            // when / then
+            assertThatThrownBy(() -> directUploadService.completeUpload(new UploadCompletionDto(objectKey)))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class);
+            verify(storageDeletionQueue).enqueue(objectKey);
+            verify(pendingUploadRepository).deleteByObjectKeyIn(List.of(objectKey));
+            verifyNoInteractions(agencyService);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.deharri.ums.amazon.upload;
+
+import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.error.exception.FileUploadException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MediaUploadService Unit Tests")
+class MediaUploadServiceTest {
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
+    private MediaUploadService mediaUploadService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final MultipartFile front = new MockMultipartFile("front", "front.jpg", "image/jpeg", new byte[]{1});
+    private final MultipartFile back = new MockMultipartFile("back", "back.jpg", "image/jpeg", new byte[]{2});
+
+    @BeforeEach
+    void setUp() {
+        mediaUploadService = new MediaUploadService(s3Service, pendingUploadRepository, storageDeletionQueue);
+    }
+
+    @Nested
+    @DisplayName("uploadAll()")
+    class UploadAllTests {
+
+        @Test
+        @DisplayName("Should record pending keys and upload every file")
+        void givenFiles_whenUploadAll_thenRecordAndUploadEach() {
+            // given
+            when(s3Service.uploadFileAsync(any(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+            // when
+            mediaUploadService.uploadAll(userId, Map.of("front-key", front, "back-key", back));
+
+            // then
+            verify(pendingUploadRepository).saveAll(anyList());
+            verify(s3Service).uploadFileAsync(front, "front-key");
+            verify(s3Service).uploadFileAsync(back, "back-key");
+            verify(pendingUploadRepository, never()).deleteByObjectKeyIn(anyList());
+        }
+
+        @Test
+        @DisplayName("Should queue the uploaded objects for deletion and throw when one upload fails")
+        void givenOneFailingUpload_whenUploadAll_thenDiscardOthersAndThrow() {
+            // given
+            when(s3Service.uploadFileAsync(any(), anyString())).thenAnswer(invocation ->
+                    "back-key".equals(invocation.getArgument(1))
+                            ? CompletableFuture.failedFuture(new FileUploadException("Error uploading file"))
+                            : CompletableFuture.completedFuture(null));
+
+            // when / then
+            assertThatThrownBy(() -> mediaUploadService.uploadAll(userId, Map.of("front-key", front, "back-key", back)))
+                    .isInstanceOf(FileUploadException.class)
+                    .hasMessage("Error uploading file");
+
+            verify(storageDeletionQueue).enqueue(Set.of("front-key", "back-key"));
+            verify(pendingUploadRepository).deleteByObjectKeyIn(Set.of("front-key", "back-key"));
+        }
+    }
+
+    @Nested
+    @DisplayName("commit()")
+    class CommitTests {
+
+        @Test
+        @DisplayName("Should run the attach callback and clear pending keys")
+        void givenKeys_whenCommit_thenAttachAndClear() {
+            // given
+            boolean[] attached = {false};
+
+            // when
+            mediaUploadService.commit(List.of("front-key"), () -> attached[0] = true);
+
+            // then
+            assertThat(attached[0]).isTrue();
+            verify(pendingUploadRepository).deleteByObjectKeyIn(List.of("front-key"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.deharri.ums.events;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerAwareRecordRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeadLetteringBatchInterceptor Unit Tests")
+class DeadLetteringBatchInterceptorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("job.confirmed", 0);
+
+    @Mock
+    private ConsumerAwareRecordRecoverer deadLetterRecoverer;
+
+    @Mock
+    private Consumer<Object, Object> consumer;
+
+    @InjectMocks
+    private DeadLetteringBatchInterceptor interceptor;
+
+    private ConsumerRecord<Object, Object> event(long offset) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "key",
+                JobLifecycleEvent.builder().jobId(UUID.randomUUID()).build());
+    }
+
+    private ConsumerRecord<Object, Object> undeserializable(long offset) {
+        byte[] data = "not json".getBytes(StandardCharsets.UTF_8);
+        RecordHeaders headers = new RecordHeaders();
+        SerializationUtils.deserializationException(headers, data,
+                new DeserializationException("bad payload", data, false, new IllegalArgumentException()), false);
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, 0L, TimestampType.CREATE_TIME,
+                0, data.length, "key", null, headers, Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter records that failed to deserialize and pass the rest on")
+    void givenPollWithPoisonRecord_whenIntercept_thenDeadLetterItAndKeepTheRest() {
+        // given
+        ConsumerRecord<Object, Object> first = event(0);
+        ConsumerRecord<Object, Object> poison = undeserializable(1);
+        ConsumerRecord<Object, Object> last = event(2);
+        ConsumerRecords<Object, Object> poll = new ConsumerRecords<>(Map.of(PARTITION, List.of(first, poison, last)));
+
+        // when
+        ConsumerRecords<Object, Object> result = interceptor.intercept(poll, consumer);
+
+        // then
+        assertThat(result.records(PARTITION)).containsExactly(first, last);
+        ArgumentCaptor<Exception> failure = ArgumentCaptor.forClass(Exception.class);
+        verify(deadLetterRecoverer).accept(eq(poison), eq(consumer), failure.capture());
+        assertThat(failure.getValue()).isInstanceOf(DeserializationException.class);
+        assertThat(((DeserializationException) failure.getValue()).getData())
+                .isEqualTo("not json".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should pass a clean poll through untouched, including tombstones")
+    void givenPollWithoutPoisonRecords_whenIntercept_thenReturnItUnchanged() {
+        // given
+        ConsumerRecord<Object, Object> tombstone = new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), 1, "key", null);
+        ConsumerRecords<Object, Object> poll = new ConsumerRecords<>(Map.of(PARTITION, List.of(event(0), tombstone)));
+
+        // when
+        ConsumerRecords<Object, Object> result = interceptor.intercept(poll, consumer);
+
+        // then
+        assertThat(result).isSameAs(poll);
+        verify(deadLetterRecoverer, never()).accept(any(), any(), any());
+    }
+}
@@ -0,0 +1,76 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.sync.BulkStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JobCancelledListener Unit Tests")
+class JobCancelledListenerTest {
+
+    @Mock
+    private RatingAggregator ratingAggregator;
+
+    @Mock
+    private ProcessedJobEventLedger processedJobEventLedger;
+
+    @Mock
+    private BulkStatsService bulkStatsService;
+
+    @InjectMocks
+    private JobCancelledListener jobCancelledListener;
+
+    private JobLifecycleEvent cancelled(UUID workerId, UUID agencyId) {
+        return JobLifecycleEvent.builder()
+                .type(JobLifecycleEvent.Type.CANCELLED)
+                .jobId(UUID.randomUUID())
+                .assignedWorkerId(workerId)
+                .assignedAgencyId(agencyId)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should undo the completed-job count of a job whose confirmation was counted")
+    void givenCountedJob_whenOnJobCancelled_thenDecrementWorkerAndAgency() {
+        // given
+        UUID workerId = UUID.randomUUID();
+        UUID agencyId = UUID.randomUUID();
+        JobLifecycleEvent event = cancelled(workerId, agencyId);
+        when(processedJobEventLedger.cancel(event.getJobId())).thenReturn(true);
+
+        // when
+        jobCancelledListener.onJobCancelled(event);
+
+        // then
+        verify(ratingAggregator).withdraw(event.getJobId());
+        verify(bulkStatsService).incrementWorkerJobsCompleted(Map.of(workerId, -1));
+        verify(bulkStatsService).incrementAgencyJobsCompleted(Map.of(agencyId, -1));
+    }
+
+    @Test
+    @DisplayName("Should leave counts alone for a job never counted or already cancelled")
+    void givenUncountedJob_whenOnJobCancelled_thenOnlyWithdrawRating() {
+        // given
+        JobLifecycleEvent event = cancelled(UUID.randomUUID(), null);
+        when(processedJobEventLedger.cancel(event.getJobId())).thenReturn(false);
+
+        // when
+        jobCancelledListener.onJobCancelled(event);
+
+        // then
+        verify(ratingAggregator).withdraw(event.getJobId());
+        verify(bulkStatsService, never()).incrementWorkerJobsCompleted(anyMap());
+    }
+}
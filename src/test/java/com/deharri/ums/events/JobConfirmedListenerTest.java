@@ -0,0 +1,138 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.sync.BulkStatsService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JobConfirmedListener Unit Tests")
+class JobConfirmedListenerTest {
+
+    @Mock
+    private BulkStatsService bulkStatsService;
+
+    @Mock
+    private ProcessedJobEventLedger processedJobEventLedger;
+
+    @Mock
+    private JobEventConsumerMetrics jobEventConsumerMetrics;
+
+    @Mock
+    private Consumer<String, JobLifecycleEvent> consumer;
+
+    @InjectMocks
+    private JobConfirmedListener jobConfirmedListener;
+
+    private JobLifecycleEvent confirmed(UUID assignedWorkerId, UUID dispatchedWorkerId, UUID agencyId) {
+        return JobLifecycleEvent.builder()
+                .type(JobLifecycleEvent.Type.CONFIRMED)
+                .jobId(UUID.randomUUID())
+                .assignedWorkerId(assignedWorkerId)
+                .dispatchedWorkerId(dispatchedWorkerId)
+                .assignedAgencyId(agencyId)
+                .build();
+    }
+
+    // The ledger accepts every job it has not been given before
+    private void claimAllJobs() {
+        when(processedJobEventLedger.claim(anyCollection()))
+                .thenAnswer(invocation -> new LinkedHashSet<>(invocation.<Collection<UUID>>getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Should sum a poll's increments per worker and per agency and apply them once each")
+    void givenPollOfEvents_whenOnJobConfirmed_thenApplyAggregatedIncrements() {
+        // given
+        UUID soloWorker = UUID.randomUUID();
+        UUID agencyWorker = UUID.randomUUID();
+        UUID agencyId = UUID.randomUUID();
+        List<JobLifecycleEvent> poll = Arrays.asList(
+                confirmed(soloWorker, null, null),
+                confirmed(soloWorker, null, null),
+                confirmed(null, agencyWorker, agencyId),
+                // The dispatched worker did the job, not the one originally assigned
+                confirmed(soloWorker, agencyWorker, agencyId),
+                confirmed(null, null, agencyId),
+                null);
+        claimAllJobs();
+        Map<UUID, Integer> workerJobs = Map.of(soloWorker, 2, agencyWorker, 2);
+        Map<UUID, Integer> agencyJobs = Map.of(agencyId, 3);
+        when(bulkStatsService.incrementWorkerJobsCompleted(workerJobs)).thenReturn(List.of());
+        when(bulkStatsService.incrementAgencyJobsCompleted(agencyJobs)).thenReturn(List.of(agencyId));
+
+        // when
+        jobConfirmedListener.onJobConfirmed(poll, consumer);
+
+        // then
+        verify(bulkStatsService).incrementWorkerJobsCompleted(workerJobs);
+        verify(bulkStatsService).incrementAgencyJobsCompleted(agencyJobs);
+    }
+
+    @Test
+    @DisplayName("Should count a job once when it is redelivered or repeated within the poll")
+    void givenDuplicateJobs_whenOnJobConfirmed_thenApplyEachClaimedJobOnce() {
+        // given
+        UUID workerId = UUID.randomUUID();
+        JobLifecycleEvent fresh = confirmed(workerId, null, null);
+        JobLifecycleEvent repeated = confirmed(workerId, null, null);
+        repeated.setJobId(fresh.getJobId());
+        JobLifecycleEvent redelivered = confirmed(workerId, null, null);
+        when(processedJobEventLedger.claim(List.of(fresh.getJobId(), repeated.getJobId(), redelivered.getJobId())))
+                .thenReturn(new LinkedHashSet<>(Set.of(fresh.getJobId())));
+        when(bulkStatsService.incrementWorkerJobsCompleted(Map.of(workerId, 1))).thenReturn(List.of());
+        when(bulkStatsService.incrementAgencyJobsCompleted(Map.of())).thenReturn(List.of());
+
+        // when
+        jobConfirmedListener.onJobConfirmed(List.of(fresh, repeated, redelivered), consumer);
+
+        // then
+        verify(bulkStatsService).incrementWorkerJobsCompleted(Map.of(workerId, 1));
+        verify(jobEventConsumerMetrics).recordBatch(eq(3), eq(1), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should record the lag of every assigned partition after the poll")
+    void givenAssignedPartitions_whenOnJobConfirmed_thenRecordLagPerPartition() {
+        // given
+        TopicPartition caughtUp = new TopicPartition("job.confirmed", 0);
+        TopicPartition behind = new TopicPartition("job.confirmed", 1);
+        TopicPartition unknown = new TopicPartition("job.confirmed", 2);
+        when(consumer.assignment()).thenReturn(Set.of(caughtUp, behind, unknown));
+        when(consumer.currentLag(caughtUp)).thenReturn(OptionalLong.of(0));
+        when(consumer.currentLag(behind)).thenReturn(OptionalLong.of(42));
+        when(consumer.currentLag(unknown)).thenReturn(OptionalLong.empty());
+        claimAllJobs();
+        when(bulkStatsService.incrementWorkerJobsCompleted(Map.of())).thenReturn(List.of());
+        when(bulkStatsService.incrementAgencyJobsCompleted(Map.of())).thenReturn(List.of());
+
+        // when
+        jobConfirmedListener.onJobConfirmed(List.of(), consumer);
+
+        // then
+        verify(jobEventConsumerMetrics).recordLag(caughtUp, 0);
+        verify(jobEventConsumerMetrics).recordLag(behind, 42);
+        verify(jobEventConsumerMetrics, never()).recordLag(eq(unknown), anyLong());
+    }
+}
@@ -0,0 +1,75 @@
+package com.deharri.ums.events;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JobEventConsumerMetrics Unit Tests")
+class JobEventConsumerMetricsTest {
+
+    private final JobEventConsumerMetrics jobEventConsumerMetrics = new JobEventConsumerMetrics();
+
+    @Test
+    @DisplayName("Should summarise poll sizes, processing time and the latest lag per partition")
+    void givenRecordedBatches_whenSnapshot_thenSummarise() {
+        // given
+        jobEventConsumerMetrics.recordBatch(100, 90, TimeUnit.MILLISECONDS.toNanos(20));
+        jobEventConsumerMetrics.recordBatch(300, 300, TimeUnit.MILLISECONDS.toNanos(40));
+        jobEventConsumerMetrics.recordLag(new TopicPartition("job.confirmed", 0), 500);
+        jobEventConsumerMetrics.recordLag(new TopicPartition("job.confirmed", 0), 12);
+        jobEventConsumerMetrics.recordLag(new TopicPartition("job.confirmed", 1), 3);
+
+        // when
+        JobEventConsumerMetrics.Snapshot snapshot = jobEventConsumerMetrics.snapshot();
+
+        // then
+        assertThat(snapshot.batches()).isEqualTo(2);
+        assertThat(snapshot.records()).isEqualTo(400);
+        assertThat(snapshot.appliedRecords()).isEqualTo(390);
+        assertThat(snapshot.maxBatchSize()).isEqualTo(300);
+        assertThat(snapshot.meanBatchSize()).isEqualTo(200.0);
+        assertThat(snapshot.meanProcessingMs()).isEqualTo(30.0);
+        assertThat(snapshot.maxProcessingMs()).isEqualTo(40.0);
+        assertThat(snapshot.totalLag()).isEqualTo(15);
+        assertThat(snapshot.lagByPartition()).isEqualTo(Map.of("job.confirmed-0", 12L, "job.confirmed-1", 3L));
+    }
+
+    @Test
+    @DisplayName("Should drop the lag of partitions revoked or lost in a rebalance")
+    void givenRevokedAndLostPartitions_whenSnapshot_thenReportOnlyOwnedPartitions() {
+        // given
+        TopicPartition kept = new TopicPartition("job.confirmed", 0);
+        TopicPartition revoked = new TopicPartition("job.confirmed", 1);
+        TopicPartition lost = new TopicPartition("job.confirmed", 2);
+        jobEventConsumerMetrics.recordLag(kept, 4);
+        jobEventConsumerMetrics.recordLag(revoked, 50);
+        jobEventConsumerMetrics.recordLag(lost, 70);
+
+        // when
+        jobEventConsumerMetrics.onPartitionsRevokedAfterCommit(null, List.of(revoked));
+        jobEventConsumerMetrics.onPartitionsLost(null, List.of(lost));
+        JobEventConsumerMetrics.Snapshot snapshot = jobEventConsumerMetrics.snapshot();
+
+        // then
+        assertThat(snapshot.totalLag()).isEqualTo(4);
+        assertThat(snapshot.lagByPartition()).isEqualTo(Map.of("job.confirmed-0", 4L));
+    }
+
+    @Test
+    @DisplayName("Should report zeros before the first poll")
+    void givenNoBatches_whenSnapshot_thenReturnZeros() {
+        // when
+        JobEventConsumerMetrics.Snapshot snapshot = jobEventConsumerMetrics.snapshot();
+
+        // then
+        assertThat(snapshot.batches()).isZero();
+        assertThat(snapshot.meanBatchSize()).isZero();
+        assertThat(snapshot.lagByPartition()).isEmpty();
+    }
+}
@@ -0,0 +1,215 @@
+package com.deharri.ums.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProcessedJobEventLedger Unit Tests")
+class ProcessedJobEventLedgerTest {
+
+    @Mock
+    private ProcessedJobEventRepository processedJobEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProcessedJobEventLedger processedJobEventLedger;
+
+    @BeforeEach
+    void setUp() {
+        processedJobEventLedger = new ProcessedJobEventLedger(processedJobEventRepository, jdbcTemplate,
+                transactionTemplate, 100, Duration.ofDays(30), 2);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private void rollback() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Nested
+    @DisplayName("claim()")
+    class ClaimTests {
+
+        @Test
+        @DisplayName("Should claim unseen jobs once each and drop them from memory after commit")
+        @SuppressWarnings("unchecked")
+        void givenCommittedClaim_whenClaimAgain_thenDropWithoutQuery() {
+            // given
+            UUID jobId = UUID.randomUUID();
+            when(processedJobEventRepository.findProcessedJobIds(Set.of(jobId))).thenReturn(List.of());
+
+            // when
+            Set<UUID> first = processedJobEventLedger.claim(List.of(jobId, jobId));
+            commit();
+            Set<UUID> second = processedJobEventLedger.claim(List.of(jobId));
+
+            // then
+            assertThat(first).containsExactly(jobId);
+            assertThat(second).isEmpty();
+            verify(processedJobEventRepository, times(1)).findProcessedJobIds(any());
+            verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(jobId)), eq(1),
+                    any(ParameterizedPreparedStatementSetter.class));
+        }
+
+        @Test
+        @DisplayName("Should forget a claim whose transaction rolled back")
+        @SuppressWarnings("unchecked")
+        void givenRolledBackClaim_whenClaimAgain_thenClaimAgain() {
+            // given
+            UUID jobId = UUID.randomUUID();
+            when(processedJobEventRepository.findProcessedJobIds(Set.of(jobId))).thenReturn(List.of());
+
+            // when
+            processedJobEventLedger.claim(List.of(jobId));
+            rollback();
+            Set<UUID> retried = processedJobEventLedger.claim(List.of(jobId));
+
+            // then
+            assertThat(retried).containsExactly(jobId);
+            verify(jdbcTemplate, times(2)).batchUpdate(anyString(), eq(List.of(jobId)), eq(1),
+                    any(ParameterizedPreparedStatementSetter.class));
+        }
+
+        @Test
+        @DisplayName("Should drop jobs the ledger table already holds without writing")
+        @SuppressWarnings("unchecked")
+        void givenJobsInLedger_whenClaim_thenReturnOnlyNewJobs() {
+            // given
+            UUID processed = UUID.randomUUID();
+            UUID fresh = UUID.randomUUID();
+            when(processedJobEventRepository.findProcessedJobIds(Set.of(processed, fresh)))
+                    .thenReturn(List.of(processed));
+
+            // when
+            Set<UUID> claimed = processedJobEventLedger.claim(List.of(processed, fresh));
+            Set<UUID> again = processedJobEventLedger.claim(List.of(processed));
+
+            // then
+            assertThat(claimed).containsExactly(fresh);
+            assertThat(again).isEmpty();
+            verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(fresh)), eq(1),
+                    any(ParameterizedPreparedStatementSetter.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("cancel()")
+    class CancelTests {
+
+        @Test
+        @DisplayName("Should report a counted job so its increment is undone")
+        void givenCountedJob_whenCancel_thenReturnTrue() {
+            // given
+            UUID jobId = UUID.randomUUID();
+            when(jdbcTemplate.update(contains("SET cancelled_at"), any(), eq(jobId))).thenReturn(1);
+
+            // when
+            boolean counted = processedJobEventLedger.cancel(jobId);
+
+            // then
+            assertThat(counted).isTrue();
+            verify(processedJobEventRepository, never()).existsById(any());
+        }
+
+        @Test
+        @DisplayName("Should leave a marker for a job cancelled before its confirmation arrived")
+        void givenUnseenJob_whenCancel_thenInsertCancelledMarker() {
+            // given
+            UUID jobId = UUID.randomUUID();
+            when(jdbcTemplate.update(contains("SET cancelled_at"), any(), eq(jobId))).thenReturn(0);
+            when(processedJobEventRepository.existsById(jobId)).thenReturn(false);
+
+            // when
+            boolean counted = processedJobEventLedger.cancel(jobId);
+
+            // then
+            assertThat(counted).isFalse();
+            verify(jdbcTemplate).update(contains("INSERT INTO processed_job_events"), eq(jobId), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should change nothing when the job was already cancelled")
+        void givenCancelledJob_whenCancel_thenReturnFalse() {
+            // given
+            UUID jobId = UUID.randomUUID();
+            when(jdbcTemplate.update(contains("SET cancelled_at"), any(), eq(jobId))).thenReturn(0);
+            when(processedJobEventRepository.existsById(jobId)).thenReturn(true);
+
+            // when
+            boolean counted = processedJobEventLedger.cancel(jobId);
+
+            // then
+            assertThat(counted).isFalse();
+            verify(jdbcTemplate, never()).update(contains("INSERT"), any(), any(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("prune()")
+    class PruneTests {
+
+        @Test
+        @DisplayName("Should delete expired ledger rows chunk by chunk until none are left")
+        void givenExpiredRows_whenPrune_thenDeleteInChunks() {
+            // given
+            when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                    invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            List<UUID> chunk = List.of(UUID.randomUUID(), UUID.randomUUID());
+            when(processedJobEventRepository.findJobIdsProcessedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                    .thenReturn(chunk, List.of());
+            when(processedJobEventRepository.deleteByJobIds(chunk)).thenReturn(2);
+
+            // when
+            processedJobEventLedger.prune();
+
+            // then
+            verify(processedJobEventRepository, times(1)).deleteByJobIds(any());
+            verifyNoInteractions(jdbcTemplate);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.deharri.ums.events;
+
+import com.deharri.ums.sync.BulkStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RatingAggregator Unit Tests")
+class RatingAggregatorTest {
+
+    @Mock
+    private JobRatingRepository jobRatingRepository;
+
+    @Mock
+    private BulkStatsService bulkStatsService;
+
+    @InjectMocks
+    private RatingAggregator ratingAggregator;
+
+    private UUID jobId;
+    private UUID workerId;
+    private UUID agencyId;
+
+    @BeforeEach
+    void setUp() {
+        jobId = UUID.randomUUID();
+        workerId = UUID.randomUUID();
+        agencyId = UUID.randomUUID();
+    }
+
+    private JobReviewedEvent review(UUID agency, Integer rating) {
+        return JobReviewedEvent.builder()
+                .jobId(jobId)
+                .workerId(workerId)
+                .agencyId(agency)
+                .rating(rating)
+                .build();
+    }
+
+    private JobRating stored(int rating) {
+        return new JobRating(jobId, workerId, agencyId, rating, LocalDateTime.now().minusDays(1));
+    }
+
+    @Nested
+    @DisplayName("applyReview()")
+    class ApplyReviewTests {
+
+        @Test
+        @DisplayName("Should add a first rating to the worker and the agency and remember it")
+        void givenFirstRating_whenApplyReview_thenAddOneRatingToWorkerAndAgency() {
+            // given
+            when(jobRatingRepository.findById(jobId)).thenReturn(Optional.empty());
+            when(bulkStatsService.adjustWorkerRating(workerId, 1, 4)).thenReturn(true);
+            when(bulkStatsService.adjustAgencyRating(agencyId, 1, 4)).thenReturn(true);
+
+            // when
+            ratingAggregator.applyReview(review(agencyId, 4));
+
+            // then
+            ArgumentCaptor<JobRating> saved = ArgumentCaptor.forClass(JobRating.class);
+            verify(jobRatingRepository).save(saved.capture());
+            assertThat(saved.getValue().getRating()).isEqualTo(4);
+            assertThat(saved.getValue().getAgencyId()).isEqualTo(agencyId);
+            verify(bulkStatsService).adjustWorkerRating(workerId, 1, 4);
+            verify(bulkStatsService).adjustAgencyRating(agencyId, 1, 4);
+        }
+
+        @Test
+        @DisplayName("Should apply only the difference when a rating is edited")
+        void givenEditedRating_whenApplyReview_thenApplyDifferenceWithoutNewRating() {
+            // given
+            JobRating current = stored(5);
+            when(jobRatingRepository.findById(jobId)).thenReturn(Optional.of(current));
+            when(bulkStatsService.adjustWorkerRating(workerId, 0, -3)).thenReturn(true);
+            when(bulkStatsService.adjustAgencyRating(agencyId, 0, -3)).thenReturn(true);
+
+            // when
+            ratingAggregator.applyReview(review(null, 2));
+
+            // then
+            assertThat(current.getRating()).isEqualTo(2);
+            verify(bulkStatsService).adjustWorkerRating(workerId, 0, -3);
+            verify(bulkStatsService).adjustAgencyRating(agencyId, 0, -3);
+        }
+
+        @Test
+        @DisplayName("Should change nothing when a review is redelivered")
+        void givenSameRatingAgain_whenApplyReview_thenSkip() {
+            // given
+            when(jobRatingRepository.findById(jobId)).thenReturn(Optional.of(stored(3)));
+
+            // when
+            ratingAggregator.applyReview(review(agencyId, 3));
+
+            // then
+            verifyNoInteractions(bulkStatsService);
+            verify(jobRatingRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should ignore ratings outside one to five stars")
+        void givenOutOfRangeRating_whenApplyReview_thenIgnore() {
+            // when
+            ratingAggregator.applyReview(review(agencyId, 6));
+
+            // then
+            verifyNoInteractions(jobRatingRepository, bulkStatsService);
+        }
+    }
+
+    @Nested
+    @DisplayName("withdraw()")
+    class WithdrawTests {
+
+        @Test
+        @DisplayName("Should take a cancelled job's rating back out of the worker and the agency")
+        void givenRatedJob_whenWithdraw_thenRemoveRating() {
+            // given
+            JobRating current = stored(4);
+            when(jobRatingRepository.findById(jobId)).thenReturn(Optional.of(current));
+            when(bulkStatsService.adjustWorkerRating(workerId, -1, -4)).thenReturn(true);
+            when(bulkStatsService.adjustAgencyRating(agencyId, -1, -4)).thenReturn(true);
+
+            // when
+            ratingAggregator.withdraw(jobId);
+
+            // then
+            verify(jobRatingRepository).delete(current);
+            verify(bulkStatsService).adjustWorkerRating(workerId, -1, -4);
+            verify(bulkStatsService).adjustAgencyRating(agencyId, -1, -4);
+        }
+
+        @Test
+        @DisplayName("Should do nothing for a job that was never rated")
+        void givenUnratedJob_whenWithdraw_thenSkip() {
+            // given
+            when(jobRatingRepository.findById(jobId)).thenReturn(Optional.empty());
+
+            // when
+            ratingAggregator.withdraw(jobId);
+
+            // then
+            verifyNoInteractions(bulkStatsService);
+        }
+    }
+}
@@ -1,8 +1,22 @@
 package com.deharri.ums.integration;
 
+import com.deharri.ums.agency.AgencyMemberRepository;
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.AgencyWorkerCountReconciler;
+import com.deharri.ums.agency.WorkerAgencyInvitationRepository;
+import com.deharri.ums.agency.dto.request.BulkInviteWorkersDto;
 import com.deharri.ums.agency.dto.request.CreateAgencyDto;
+import com.deharri.ums.agency.entity.Agency;
+import com.deharri.ums.agency.entity.AgencyMember;
+import com.deharri.ums.agency.entity.WorkerAgencyInvitation;
+import com.deharri.ums.enums.AgencyRole;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
 import com.deharri.ums.auth.dto.request.RegisterRequestDto;
 import com.deharri.ums.enums.PakistanCity;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.entity.Worker;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,15 +24,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +57,27 @@ class AgencyIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AgencyRepository agencyRepository;
+
+    @Autowired
+    private AgencyMemberRepository agencyMemberRepository;
+
+    @Autowired
+    private WorkerAgencyInvitationRepository invitationRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AgencyWorkerCountReconciler workerCountReconciler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private static final String AGENCIES_BASE_URL = "/api/v1/agencies";
     private static final String AUTH_BASE_URL = "/api/v1/auth";
     private static final String VALID_PASSWORD = "Test@1234";
@@ -76,6 +120,46 @@ class AgencyIntegrationTest {
                 .build();
     }
 
+    private void saveAgency(String name, PakistanCity city, String latitude, String longitude,
+                            AgencySubscriptionStatus status, List<PakistanCity> serviceCities) {
+        agencyRepository.save(Agency.builder()
+                .agencyName(name)
+                .city(city)
+                .latitude(new BigDecimal(latitude))
+                .longitude(new BigDecimal(longitude))
+                .subscriptionStatus(status)
+                .subscriptionExpiresAt(LocalDateTime.now().plusDays(30))
+                .serviceCities(serviceCities)
+                .build());
+    }
+
+    // Registers a worker who joined the agency after accepting its invitation
+    private void addWorkerMember(Agency agency, String username, String phone) throws Exception {
+        registerAndGetAccessToken(username, phone);
+        CoreUser user = userRepository.findByUsername(username).orElseThrow();
+        Worker worker = workerRepository.save(Worker.builder()
+                .coreUser(user)
+                .workerType(Worker.WorkerType.PLUMBER)
+                .agency(agency)
+                .build());
+        invitationRepository.save(WorkerAgencyInvitation.builder()
+                .worker(worker)
+                .agency(agency)
+                .status(WorkerAgencyInvitation.Status.ACCEPTED)
+                .build());
+        agencyMemberRepository.save(AgencyMember.builder()
+                .agency(agency)
+                .coreUser(user)
+                .agencyRole(AgencyRole.AGENCY_WORKER)
+                .build());
+    }
+
+    private int statementsFor(RequestBuilder request) throws Exception {
+        StatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return StatementCounter.count();
+    }
+
     // -----------------------------------------------------------------------
     // Tests
     // -----------------------------------------------------------------------
@@ -221,4 +305,195 @@ class AgencyIntegrationTest {
                         .header("Authorization", "Bearer " + token))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void givenActiveAgencies_whenSearchAgenciesNearby_thenReturnThoseInRadiusNearestFirst() throws Exception {
+        String token = registerAndGetAccessToken("agencysearch", "+3333333333");
+        saveAgency("Gulberg Agency", PakistanCity.LAHORE, "31.520400", "74.358700",
+                AgencySubscriptionStatus.ACTIVE, List.of(PakistanCity.LAHORE, PakistanCity.ISLAMABAD));
+        saveAgency("Model Town Agency", PakistanCity.LAHORE, "31.560400", "74.358700",
+                AgencySubscriptionStatus.ACTIVE, List.of(PakistanCity.LAHORE));
+        saveAgency("Lapsed Agency", PakistanCity.LAHORE, "31.520400", "74.358700",
+                AgencySubscriptionStatus.EXPIRED, List.of(PakistanCity.LAHORE));
+        saveAgency("Capital Agency", PakistanCity.ISLAMABAD, "33.684400", "73.047900",
+                AgencySubscriptionStatus.ACTIVE, List.of(PakistanCity.ISLAMABAD));
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/search")
+                        .header("Authorization", "Bearer " + token)
+                        .param("lat", "31.5204")
+                        .param("lng", "74.3587")
+                        .param("radiusKm", "10")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].agencyName").value("Gulberg Agency"))
+                .andExpect(jsonPath("$.items[0].distanceKm").value(0.0))
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.totalPages").value(2));
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/search")
+                        .header("Authorization", "Bearer " + token)
+                        .param("lat", "31.5204")
+                        .param("lng", "74.3587")
+                        .param("radiusKm", "10")
+                        .param("size", "1")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].agencyName").value("Model Town Agency"))
+                .andExpect(jsonPath("$.items[0].distanceKm").value(4.4));
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/search")
+                        .header("Authorization", "Bearer " + token)
+                        .param("serviceCity", "ISLAMABAD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.items[*].agencyName")
+                        .value(org.hamcrest.Matchers.containsInAnyOrder("Gulberg Agency", "Capital Agency")));
+    }
+
+    @Test
+    void givenGrowingAgency_whenGetMembersHistoryAndInvitations_thenQueryCountStaysConstant() throws Exception {
+        String token = registerAndGetAccessToken("historyowner", "+8888888888");
+        Agency agency = agencyRepository.save(Agency.builder()
+                .agencyName("History Agency")
+                .city(PakistanCity.LAHORE)
+                .coreUser(userRepository.findByUsername("historyowner").orElseThrow())
+                .subscriptionStatus(AgencySubscriptionStatus.ACTIVE)
+                .subscriptionExpiresAt(LocalDateTime.now().plusDays(30))
+                .serviceCities(List.of(PakistanCity.LAHORE))
+                .build());
+        addWorkerMember(agency, "historyworker1", "+8888888801");
+
+        RequestBuilder history = get(AGENCIES_BASE_URL + "/me/members/history")
+                .header("Authorization", "Bearer " + token);
+        RequestBuilder invitations = get(AGENCIES_BASE_URL + "/me/invitations")
+                .header("Authorization", "Bearer " + token);
+        statementsFor(history);
+        int historyStatements = statementsFor(history);
+        int invitationStatements = statementsFor(invitations);
+        assertThat(historyStatements).isPositive();
+
+        addWorkerMember(agency, "historyworker2", "+8888888802");
+        addWorkerMember(agency, "historyworker3", "+8888888803");
+        addWorkerMember(agency, "historyworker4", "+8888888804");
+
+        assertThat(statementsFor(history)).isEqualTo(historyStatements);
+        assertThat(statementsFor(invitations)).isEqualTo(invitationStatements);
+
+        MvcResult firstPage = mockMvc.perform(get(AGENCIES_BASE_URL + "/me/members/history")
+                        .header("Authorization", "Bearer " + token)
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].workerType").value("PLUMBER"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString())
+                .get("nextCursor").asText();
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/me/members/history")
+                        .header("Authorization", "Bearer " + token)
+                        .param("size", "3")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].username").value("historyworker1"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/me/invitations")
+                        .header("Authorization", "Bearer " + token)
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].workerUsername").value("historyworker4"))
+                .andExpect(jsonPath("$.items[0].status").value("ACCEPTED"));
+    }
+
+    @Test
+    void givenDriftedWorkerCount_whenReconcile_thenCountMatchesActiveMembers() throws Exception {
+        registerAndGetAccessToken("countowner", "+9999999999");
+        Agency agency = agencyRepository.save(Agency.builder()
+                .agencyName("Count Agency")
+                .city(PakistanCity.LAHORE)
+                .coreUser(userRepository.findByUsername("countowner").orElseThrow())
+                .totalWorkers(7)
+                .build());
+        // Activation adds the owner as an AGENCY_ADMIN member, which is not a worker
+        mockMvc.perform(put(AGENCIES_BASE_URL + "/internal/" + agency.getAgencyId() + "/subscription/activate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("expiresAt", LocalDateTime.now().plusDays(30).toString()))))
+                .andExpect(status().isOk());
+        addWorkerMember(agency, "countworker1", "+9999999901");
+        addWorkerMember(agency, "countworker2", "+9999999902");
+        addWorkerMember(agency, "countworker3", "+9999999903");
+        AgencyMember left = agencyMemberRepository.findByCoreUser(
+                userRepository.findByUsername("countworker3").orElseThrow()).get(0);
+        left.setMembershipStatus(AgencyMember.MembershipStatus.LEFT);
+        agencyMemberRepository.save(left);
+
+        assertThat(agencyMemberRepository.findByAgency(agency))
+                .anyMatch(member -> member.getAgencyRole() == AgencyRole.AGENCY_ADMIN);
+
+        workerCountReconciler.reconcile();
+        assertThat(agencyRepository.findById(agency.getAgencyId()).orElseThrow().getTotalWorkers()).isEqualTo(2);
+
+        // A count kept by deltas from here on is not drifted, so another run leaves it alone
+        assertThat(agencyRepository.findIdsWithDriftedTotalWorkers(PageRequest.of(0, 10)))
+                .doesNotContain(agency.getAgencyId());
+
+        // Deltas are relative and never take the count below zero
+        transactionTemplate.executeWithoutResult(status -> {
+            agencyRepository.adjustTotalWorkers(agency.getAgencyId(), 1, LocalDateTime.now());
+            agencyRepository.adjustTotalWorkers(agency.getAgencyId(), -5, LocalDateTime.now());
+        });
+        assertThat(agencyRepository.findById(agency.getAgencyId()).orElseThrow().getTotalWorkers()).isZero();
+    }
+
+    @Test
+    void givenCrew_whenBulkInviteWorkers_thenInviteEligibleWorkersAndReportTheRest() throws Exception {
+        String token = registerAndGetAccessToken("crewowner", "+1212121212");
+        Agency agency = agencyRepository.save(Agency.builder()
+                .agencyName("Crew Agency")
+                .city(PakistanCity.LAHORE)
+                .coreUser(userRepository.findByUsername("crewowner").orElseThrow())
+                .subscriptionStatus(AgencySubscriptionStatus.ACTIVE)
+                .subscriptionExpiresAt(LocalDateTime.now().plusDays(30))
+                .build());
+        addWorkerMember(agency, "crewmember", "+1212121201");
+        registerAndGetAccessToken("crewfree", "+1212121202");
+        Worker free = workerRepository.save(Worker.builder()
+                .coreUser(userRepository.findByUsername("crewfree").orElseThrow())
+                .workerType(Worker.WorkerType.MASON)
+                .build());
+        UUID member = workerRepository.findByCoreUser_UserId(
+                userRepository.findByUsername("crewmember").orElseThrow().getUserId()).orElseThrow().getWorkerId();
+        BulkInviteWorkersDto request = BulkInviteWorkersDto.builder()
+                .workerIds(List.of(free.getWorkerId(), member, UUID.randomUUID()))
+                .build();
+
+        mockMvc.perform(post(AGENCIES_BASE_URL + "/workers/invite")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.invited").value(1))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.workers[*].outcome")
+                        .value(org.hamcrest.Matchers.contains("INVITED", "ALREADY_MEMBER", "NOT_FOUND")));
+
+        // A repeat reports the invitation as pending instead of sending another
+        mockMvc.perform(post(AGENCIES_BASE_URL + "/workers/invite")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.invited").value(0))
+                .andExpect(jsonPath("$.workers[0].outcome").value("ALREADY_PENDING"));
+
+        mockMvc.perform(get(AGENCIES_BASE_URL + "/me/invitations")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].workerUsername").value("crewfree"))
+                .andExpect(jsonPath("$.items[0].status").value("PENDING"));
+    }
 }
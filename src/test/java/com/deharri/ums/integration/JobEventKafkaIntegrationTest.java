@@ -0,0 +1,262 @@
+package com.deharri.ums.integration;
+
+import com.deharri.ums.auth.dto.request.RegisterRequestDto;
+import com.deharri.ums.events.JobEventConsumerMetrics;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.worker.WorkerRepository;
+import com.deharri.ums.worker.dto.request.CreateWorkerAccountDto;
+import com.deharri.ums.worker.entity.Worker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the job event listeners through an embedded broker and logs job.confirmed throughput.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"job-events.listener.concurrency=3", "spring.kafka.admin.auto-create=true"})
+@AutoConfigureMockMvc
+@Import(TestConfig.class)
+@EmbeddedKafka(partitions = 3, topics = {"job.confirmed", "job.reviewed", "job.cancelled"},
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Slf4j
+class JobEventKafkaIntegrationTest {
+
+    private static final int EVENTS = 2_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private JobEventConsumerMetrics jobEventConsumerMetrics;
+
+    private UUID registerAndCreateWorker(String username, String phone) throws Exception {
+        RegisterRequestDto request = RegisterRequestDto.builder()
+                .username(username)
+                .password("Test@1234")
+                .phoneNumber(phone)
+                .firstName("John")
+                .lastName("Doe")
+                .rememberMe(false)
+                .build();
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String token = objectMapper.readTree(result.getResponse().getContentAsString()).get("accessToken").asText();
+
+        CreateWorkerAccountDto workerDto = CreateWorkerAccountDto.builder()
+                .workerType(Worker.WorkerType.PLUMBER)
+                .skills(List.of("Pipe fitting"))
+                .cnic("12345-1234567-1")
+                .experienceYears(3)
+                .build();
+        mockMvc.perform(post("/api/v1/workers/create")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(workerDto)))
+                .andExpect(status().isCreated());
+
+        return userRepository.findByUsername(username).orElseThrow().getUserId();
+    }
+
+    private int jobsCompleted(UUID userId) {
+        Integer total = workerRepository.findByWorkerIdOrUserId(userId).orElseThrow().getTotalJobsCompleted();
+        return total == null ? 0 : total;
+    }
+
+    // Keyed by worker, as job-service does, so each worker's events share a partition
+    private void sendConfirmed(String json) {
+        UUID workerId = UUID.fromString(readTree(json).get("assignedWorkerId").asText());
+        kafkaTemplate.send("job.confirmed", workerId.toString(), json);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String confirmedJson(UUID jobId, UUID workerId) {
+        return "{\"type\":\"CONFIRMED\",\"jobId\":\"" + jobId + "\",\"assignedWorkerId\":\"" + workerId + "\"}";
+    }
+
+    private void awaitTotal(UUID first, UUID second, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (jobsCompleted(first) + jobsCompleted(second) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void givenConfirmedJobsForTwoWorkers_whenConsumed_thenCountEveryJobExactlyOnce() throws Exception {
+        UUID first = registerAndCreateWorker("kafkaworker1", "+1212121212");
+        UUID second = registerAndCreateWorker("kafkaworker2", "+3434343434");
+        JobEventConsumerMetrics.Snapshot before = jobEventConsumerMetrics.snapshot();
+        List<String> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(confirmedJson(UUID.randomUUID(), i % 4 == 0 ? second : first));
+        }
+
+        long start = System.nanoTime();
+        events.forEach(this::sendConfirmed);
+        kafkaTemplate.flush();
+        awaitTotal(first, second, EVENTS);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Consumed {} job.confirmed events in {} ms ({} events/s)",
+                EVENTS, elapsedMs, EVENTS * 1000L / Math.max(elapsedMs, 1));
+
+        // Redeliver part of the stream, then one new job per worker. Each partition is consumed in
+        // order, so once both new jobs land the duplicates ahead of them were consumed too.
+        events.subList(0, EVENTS / 10).forEach(this::sendConfirmed);
+        sendConfirmed(confirmedJson(UUID.randomUUID(), first));
+        sendConfirmed(confirmedJson(UUID.randomUUID(), second));
+        kafkaTemplate.flush();
+        awaitTotal(first, second, EVENTS + 2);
+
+        assertThat(jobsCompleted(first)).isEqualTo(EVENTS * 3 / 4 + 1);
+        assertThat(jobsCompleted(second)).isEqualTo(EVENTS / 4 + 1);
+
+        mockMvc.perform(get("/api/v1/internal/events/job-confirmed/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records").value(before.records() + EVENTS + EVENTS / 10 + 2))
+                .andExpect(jsonPath("$.appliedRecords").value(before.appliedRecords() + EVENTS + 2))
+                .andExpect(jsonPath("$.totalLag").value(0));
+    }
+
+    private Worker worker(UUID userId) {
+        return workerRepository.findByWorkerIdOrUserId(userId).orElseThrow();
+    }
+
+    private void awaitWorker(UUID userId, Predicate<Worker> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (!condition.test(worker(userId)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static boolean hasAverage(Worker worker, String average) {
+        return worker.getAverageRating() != null && worker.getAverageRating().compareTo(new BigDecimal(average)) == 0;
+    }
+
+    private void sendReviewed(UUID jobId, UUID workerId, int rating) {
+        kafkaTemplate.send("job.reviewed", workerId.toString(),
+                "{\"jobId\":\"" + jobId + "\",\"workerId\":\"" + workerId + "\",\"rating\":" + rating + "}");
+    }
+
+    @Test
+    void givenReviewsEditsAndCancellation_whenConsumed_thenMaintainRatingAverageIncrementally() throws Exception {
+        UUID workerId = registerAndCreateWorker("ratingworker", "+5656565656");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID cancelled = UUID.randomUUID();
+
+        sendReviewed(first, workerId, 5);
+        sendReviewed(second, workerId, 4);
+        sendReviewed(second, workerId, 4);
+        awaitWorker(workerId, worker -> hasAverage(worker, "4.50"));
+        assertThat(worker(workerId).getRatingCount()).isEqualTo(2);
+
+        // An edit replaces the job's earlier rating
+        sendReviewed(first, workerId, 3);
+        awaitWorker(workerId, worker -> hasAverage(worker, "3.50"));
+
+        kafkaTemplate.send("job.confirmed", workerId.toString(), confirmedJson(cancelled, workerId));
+        sendReviewed(cancelled, workerId, 2);
+        awaitWorker(workerId, worker -> hasAverage(worker, "3.00") && worker.getTotalJobsCompleted() == 1);
+
+        // Cancelling takes back both the rating and the completed job, once
+        String cancellation = "{\"type\":\"CANCELLED\",\"jobId\":\"" + cancelled + "\",\"assignedWorkerId\":\"" + workerId + "\"}";
+        kafkaTemplate.send("job.cancelled", workerId.toString(), cancellation);
+        kafkaTemplate.send("job.cancelled", workerId.toString(), cancellation);
+        awaitWorker(workerId, worker -> hasAverage(worker, "3.50") && worker.getTotalJobsCompleted() == 0);
+
+        Worker rated = worker(workerId);
+        assertThat(rated.getRatingCount()).isEqualTo(2);
+        assertThat(rated.getRatingSum()).isEqualTo(7L);
+        assertThat(rated.getTotalJobsCompleted()).isZero();
+    }
+
+    private int awaitReplayed(String deadLetterTopic) throws Exception {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        int replayed = 0;
+        while (replayed == 0 && System.nanoTime() < deadline) {
+            MvcResult result = mockMvc.perform(post("/api/v1/internal/events/dead-letters/" + deadLetterTopic + "/replay"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            replayed = objectMapper.readTree(result.getResponse().getContentAsString()).get("replayed").asInt();
+        }
+        return replayed;
+    }
+
+    @Test
+    void givenUndeserializableEvents_whenConsumed_thenDeadLetterThemAndKeepConsuming() throws Exception {
+        UUID workerId = registerAndCreateWorker("poisonworker", "+7878787878");
+
+        kafkaTemplate.send("job.confirmed", workerId.toString(), "{not json");
+        kafkaTemplate.send("job.reviewed", workerId.toString(), "{not json");
+        // Keyed alike, so these sit behind the poison records on the same partitions
+        kafkaTemplate.send("job.confirmed", workerId.toString(), confirmedJson(UUID.randomUUID(), workerId));
+        sendReviewed(UUID.randomUUID(), workerId, 4);
+        awaitWorker(workerId, worker -> hasAverage(worker, "4.00") && jobsCompleted(workerId) == 1);
+        assertThat(jobsCompleted(workerId)).isEqualTo(1);
+
+        // Dead-lettered before the events behind them were applied, so already waiting for replay
+        mockMvc.perform(post("/api/v1/internal/events/dead-letters/job.confirmed.failed-dlt/replay")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.targetTopic").value("job.confirmed"))
+                .andExpect(jsonPath("$.replayed").value(1));
+        mockMvc.perform(post("/api/v1/internal/events/dead-letters/job.reviewed-dlt/replay")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.targetTopic").value("job.reviewed"))
+                .andExpect(jsonPath("$.replayed").value(1));
+
+        // Still undeserializable, so each replayed record comes back to its dead-letter topic
+        assertThat(awaitReplayed("job.confirmed.failed-dlt")).isEqualTo(1);
+        assertThat(awaitReplayed("job.reviewed-dlt")).isEqualTo(1);
+
+        mockMvc.perform(post("/api/v1/internal/events/dead-letters/user.updated/replay"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,6 +1,11 @@
 package com.deharri.ums.integration;
 
 import com.deharri.ums.auth.dto.request.RegisterRequestDto;
+import com.deharri.ums.outbox.EventTypes;
+import com.deharri.ums.outbox.OutboxEvent;
+import com.deharri.ums.outbox.OutboxEventRepository;
+import com.deharri.ums.subscription.SubscriptionExpirer;
+import com.deharri.ums.sync.BulkStatsService;
 import com.deharri.ums.worker.dto.request.CreateWorkerAccountDto;
 import com.deharri.ums.worker.entity.Worker;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -10,15 +15,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +46,21 @@ class WorkerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BulkStatsService bulkStatsService;
+
+    @Autowired
+    private SubscriptionExpirer subscriptionExpirer;
+
     private static final String WORKERS_BASE_URL = "/api/v1/workers";
     private static final String WORKERS_PUBLIC_URL = "/public/api/v1/workers";
     private static final String AUTH_BASE_URL = "/api/v1/auth";
@@ -74,7 +101,7 @@ class WorkerIntegrationTest {
                 .build();
     }
 
-    private void registerAndCreateWorker(String username, String phone) throws Exception {
+    private String registerAndCreateWorker(String username, String phone) throws Exception {
         String token = registerAndGetAccessToken(username, phone);
         CreateWorkerAccountDto workerDto = buildCreateWorkerDto();
 
@@ -83,6 +110,7 @@ class WorkerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(workerDto)))
                 .andExpect(status().isCreated());
+        return token;
     }
 
     // -----------------------------------------------------------------------
@@ -225,4 +253,252 @@ class WorkerIntegrationTest {
                 .andExpect(jsonPath("$.workerId").value(workerId))
                 .andExpect(jsonPath("$.workerType").value("ELECTRICIAN"));
     }
+
+    @Test
+    void givenWorkersExist_whenStreamInternalWorkers_thenReturnOneNdjsonLinePerWorker() throws Exception {
+        registerAndCreateWorker("streamworker1", "+7777777777");
+        registerAndCreateWorker("streamworker2", "+8888888888");
+
+        MvcResult result = mockMvc.perform(get("/api/v1/internal/workers/stream"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(List.of(lines).stream()
+                .map(line -> readTree(line).get("username").asText())
+                .toList())
+                .containsExactlyInAnyOrder("streamworker1", "streamworker2");
+        assertThat(readTree(lines[0]).get("workerType").asText()).isEqualTo("ELECTRICIAN");
+    }
+
+    @Test
+    void givenWorkersExist_whenGetInternalWorkerChanges_thenPageThroughWithCursor() throws Exception {
+        registerAndCreateWorker("deltaworker1", "+7777777777");
+        registerAndCreateWorker("deltaworker2", "+8888888888");
+
+        MvcResult first = mockMvc.perform(get("/api/v1/internal/workers/changes").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/internal/workers/changes").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.tombstones.length()").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void givenAvailabilityChanged_whenGetInternalWorkerChanges_thenWorkerInNextPage() throws Exception {
+        String token = registerAndCreateWorker("availworker", "+7777777777");
+
+        MvcResult first = mockMvc.perform(get("/api/v1/internal/workers/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andReturn();
+        String cursor = readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(put(WORKERS_BASE_URL + "/me/availability")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"BUSY\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/internal/workers/changes").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].availabilityStatus").value("BUSY"));
+    }
+
+    @Test
+    void givenMalformedCursor_whenGetInternalWorkerChanges_thenReturn400() throws Exception {
+        mockMvc.perform(get("/api/v1/internal/workers/changes").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void givenWorkerExists_whenBatchLookupByWorkerAndUserIds_thenReturnBothKeys() throws Exception {
+        registerAndCreateWorker("batchworker", "+7777777777");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode worker = readTree(all.getResponse().getContentAsString()).get(0);
+        String workerId = worker.get("workerId").asText();
+        String userId = worker.get("userId").asText();
+        String body = "{\"ids\":[\"" + workerId + "\",\"" + userId + "\"]}";
+
+        mockMvc.perform(post("/api/v1/internal/workers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + workerId + "'].username").value("batchworker"))
+                .andExpect(jsonPath("$['" + userId + "'].workerType").value("ELECTRICIAN"));
+
+        mockMvc.perform(post("/api/v1/internal/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + workerId + "'].userId").value(userId))
+                .andExpect(jsonPath("$['" + userId + "'].username").value("batchworker"));
+    }
+
+    @Test
+    void givenWorkersExist_whenBulkUpdateStats_thenApplyByWorkerOrUserIdAndReportOutcomes() throws Exception {
+        registerAndCreateWorker("statsworker1", "+7777777777");
+        registerAndCreateWorker("statsworker2", "+8888888888");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode workers = readTree(all.getResponse().getContentAsString());
+        String byWorkerId = workers.get(0).get("workerId").asText();
+        String byUserId = workers.get(1).get("userId").asText();
+        String unknownId = UUID.randomUUID().toString();
+        String body = "{\"rows\":[" +
+                "{\"id\":\"" + byWorkerId + "\",\"ratingCount\":2,\"ratingSum\":9,\"totalJobsCompleted\":12}," +
+                "{\"id\":\"" + byUserId + "\",\"totalJobsCompleted\":7}," +
+                "{\"id\":\"" + unknownId + "\",\"ratingCount\":1,\"ratingSum\":3}]}";
+
+        mockMvc.perform(post("/api/v1/internal/workers/stats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.notFound").value(1))
+                .andExpect(jsonPath("$.rows[2].outcome").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/v1/internal/workers/{workerId}", byWorkerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageRating").value(4.5))
+                .andExpect(jsonPath("$.totalJobsCompleted").value(12));
+        mockMvc.perform(get("/api/v1/internal/workers/{workerId}", byUserId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalJobsCompleted").value(7));
+    }
+
+    @Test
+    void givenDeprecatedAverageRating_whenBulkUpdateStats_thenApplyItOrRejectItWithTotals() throws Exception {
+        registerAndCreateWorker("deprecatedrated", "+5555555555");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String workerId = readTree(all.getResponse().getContentAsString()).get(0).get("workerId").asText();
+
+        mockMvc.perform(post("/api/v1/internal/workers/stats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rows\":[{\"id\":\"" + workerId + "\",\"averageRating\":4.2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        mockMvc.perform(get("/api/v1/internal/workers/{workerId}", workerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageRating").value(4.2));
+
+        mockMvc.perform(post("/api/v1/internal/workers/stats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"rows\":[{\"id\":\"" + workerId
+                                + "\",\"averageRating\":4.2,\"ratingCount\":1,\"ratingSum\":4}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void givenLegacyAverageWithoutTotals_whenRatingDeltaThenStatsUpdate_thenKeepAverageUntilSeeded() throws Exception {
+        registerAndCreateWorker("legacyrated", "+6666666666");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        UUID workerId = UUID.fromString(readTree(all.getResponse().getContentAsString()).get(0).get("workerId").asText());
+        // As left by ddl-auto: update on a row rated before count and sum existed
+        jdbcTemplate.update("UPDATE worker SET average_rating = 4.20, rating_count = NULL, rating_sum = NULL "
+                + "WHERE worker_id = ?", workerId);
+
+        assertThat(bulkStatsService.adjustWorkerRating(workerId, 1, 1)).isTrue();
+        mockMvc.perform(get("/api/v1/internal/workers/{workerId}", workerId))
+                .andExpect(jsonPath("$.averageRating").value(4.2));
+
+        String body = "{\"rows\":[{\"id\":\"" + workerId + "\",\"ratingCount\":5,\"ratingSum\":21}]}";
+        mockMvc.perform(post("/api/v1/internal/workers/stats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        assertThat(bulkStatsService.adjustWorkerRating(workerId, 1, 3)).isTrue();
+
+        mockMvc.perform(get("/api/v1/internal/workers/{workerId}", workerId))
+                .andExpect(jsonPath("$.averageRating").value(4.0));
+    }
+
+    @Test
+    void givenAuthenticatedUser_whenCreateWorkerAccount_thenQueueWorkerUpdatedEvent() throws Exception {
+        registerAndCreateWorker("outboxworker", "+9999999999");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        UUID workerId = UUID.fromString(readTree(all.getResponse().getContentAsString()).get(0).get("workerId").asText());
+
+        // Read the way the relay does, under its row lock
+        List<OutboxEvent> workerEvents = transactionTemplate.execute(status ->
+                        outboxEventRepository.lockOldest(PageRequest.of(0, 100))).stream()
+                .filter(event -> EventTypes.WORKER_UPDATED.equals(event.getEventType()))
+                .toList();
+        assertThat(workerEvents).isNotEmpty().allSatisfy(event -> {
+            assertThat(event.getAggregateId()).isEqualTo(workerId);
+            JsonNode envelope = readTree(event.getPayload());
+            assertThat(envelope.get("eventId").asText()).isEqualTo(event.getEventId().toString());
+            assertThat(envelope.get("data").get("workerId").asText()).isEqualTo(workerId.toString());
+            assertThat(envelope.get("data").has("averageRating")).isFalse();
+        });
+    }
+
+    @Test
+    void givenAvailabilityChanged_whenUpdateAvailability_thenQueueWorkerUpdatedEventWithNewStatus() throws Exception {
+        String token = registerAndCreateWorker("availoutbox", "+9999999999");
+
+        mockMvc.perform(put(WORKERS_BASE_URL + "/me/availability")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"UNAVAILABLE\"}"))
+                .andExpect(status().isOk());
+
+        List<String> statuses = transactionTemplate.execute(status ->
+                        outboxEventRepository.lockOldest(PageRequest.of(0, 100))).stream()
+                .filter(event -> EventTypes.WORKER_UPDATED.equals(event.getEventType()))
+                .map(event -> readTree(event.getPayload()).get("data").get("availabilityStatus").asText())
+                .toList();
+        assertThat(statuses).last().isEqualTo("UNAVAILABLE");
+    }
+
+    @Test
+    void givenLapsedAndActiveWorkers_whenSweep_thenQueueSubscriptionExpiredOnlyForLapsed() throws Exception {
+        registerAndCreateWorker("lapsedworker", "+7777777777");
+        registerAndCreateWorker("activeworker", "+8888888888");
+        MvcResult all = mockMvc.perform(get("/api/v1/internal/workers"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode workers = readTree(all.getResponse().getContentAsString());
+        UUID lapsed = UUID.fromString(workers.get(0).get("workerId").asText());
+        UUID active = UUID.fromString(workers.get(1).get("workerId").asText());
+        jdbcTemplate.update("UPDATE worker SET subscription_active = true, subscription_expires_at = ? "
+                + "WHERE worker_id = ?", LocalDateTime.now().minusDays(1), lapsed);
+        jdbcTemplate.update("UPDATE worker SET subscription_active = true, subscription_expires_at = ? "
+                + "WHERE worker_id = ?", LocalDateTime.now().plusDays(30), active);
+
+        subscriptionExpirer.expireStaleSubscriptions();
+
+        List<UUID> expired = transactionTemplate.execute(status ->
+                        outboxEventRepository.lockOldest(PageRequest.of(0, 100))).stream()
+                .filter(event -> EventTypes.SUBSCRIPTION_EXPIRED.equals(event.getEventType()))
+                .map(OutboxEvent::getAggregateId)
+                .toList();
+        assertThat(expired).containsExactly(lapsed);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
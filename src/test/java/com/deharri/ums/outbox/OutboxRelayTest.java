@@ -0,0 +1,134 @@
+package com.deharri.ums.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 3);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeout", Duration.ofSeconds(1));
+    }
+
+    private OutboxEvent event(long sequenceId, UUID aggregateId) {
+        return OutboxEvent.builder()
+                .sequenceId(sequenceId)
+                .eventId(UUID.randomUUID())
+                .eventType(EventTypes.WORKER_UPDATED)
+                .aggregateId(aggregateId)
+                .payload("{\"seq\":" + sequenceId + "}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void acknowledge(OutboxEvent event) {
+        when(kafkaTemplate.send(event.getEventType(), event.getAggregateId().toString(), event.getPayload()))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    private void reject(OutboxEvent event) {
+        when(kafkaTemplate.send(event.getEventType(), event.getAggregateId().toString(), event.getPayload()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should keep every later event of an aggregate whose send failed, and delete the rest")
+    void givenFailedSend_whenRelayBatch_thenHoldBackThatAggregateOnly() {
+        // given
+        UUID failing = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        OutboxEvent first = event(1L, failing);
+        OutboxEvent second = event(2L, healthy);
+        OutboxEvent third = event(3L, failing);
+        when(outboxEventRepository.lockOldest(any(Pageable.class))).thenReturn(List.of(first, second, third));
+        reject(first);
+        acknowledge(second);
+        acknowledge(third);
+
+        // when
+        boolean more = outboxRelay.relayBatch();
+
+        // then
+        assertThat(more).isFalse();
+        verify(kafkaTemplate).flush();
+        verify(outboxEventRepository).deleteBySequenceIdIn(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("Should keep relaying while batches come back full")
+    void givenFullThenPartialBatch_whenRelay_thenRunTwoBatches() {
+        // given
+        runTransactionsInline();
+        UUID aggregateId = UUID.randomUUID();
+        List<OutboxEvent> full = List.of(event(1L, aggregateId), event(2L, aggregateId), event(3L, aggregateId));
+        List<OutboxEvent> partial = List.of(event(4L, aggregateId));
+        when(outboxEventRepository.lockOldest(any(Pageable.class))).thenReturn(full, partial);
+        full.forEach(this::acknowledge);
+        partial.forEach(this::acknowledge);
+
+        // when
+        outboxRelay.relay();
+
+        // then
+        verify(outboxEventRepository).deleteBySequenceIdIn(List.of(1L, 2L, 3L));
+        verify(outboxEventRepository).deleteBySequenceIdIn(List.of(4L));
+        verify(kafkaTemplate, times(2)).flush();
+    }
+
+    @Test
+    @DisplayName("Should not touch Kafka when the outbox is empty")
+    void givenEmptyOutbox_whenRelay_thenSendNothing() {
+        // given
+        runTransactionsInline();
+        when(outboxEventRepository.lockOldest(any(Pageable.class))).thenReturn(List.of());
+
+        // when
+        outboxRelay.relay();
+
+        // then
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).deleteBySequenceIdIn(anyCollection());
+    }
+}
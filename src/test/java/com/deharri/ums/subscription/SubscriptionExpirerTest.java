@@ -0,0 +1,132 @@
+package com.deharri.ums.subscription;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
+import com.deharri.ums.events.SubscriptionExpiredEvent;
+import com.deharri.ums.worker.WorkerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriptionExpirer Unit Tests")
+class SubscriptionExpirerTest {
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private AgencyRepository agencyRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SubscriptionExpirer subscriptionExpirer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(subscriptionExpirer, "chunkSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should expire lapsed workers chunk by chunk and publish one event per chunk")
+    void givenLapsedWorkers_whenSweep_thenExpireInChunksAndPublishEvents() {
+        // given
+        List<UUID> firstChunk = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> secondChunk = List.of(UUID.randomUUID());
+        when(workerRepository.findIdsWithExpiredSubscription(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(firstChunk, secondChunk, List.of());
+        when(workerRepository.expireSubscriptions(anyList(), any(LocalDateTime.class)))
+                .thenReturn(2, 1);
+        when(workerRepository.findIdsExpiredAt(anyList(), any(LocalDateTime.class)))
+                .thenReturn(firstChunk, secondChunk);
+        when(agencyRepository.findIdsBySubscriptionStatusAndSubscriptionExpiresAtBefore(
+                eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // when
+        subscriptionExpirer.expireStaleSubscriptions();
+
+        // then
+        verify(workerRepository).expireSubscriptions(eq(firstChunk), any(LocalDateTime.class));
+        verify(workerRepository).expireSubscriptions(eq(secondChunk), any(LocalDateTime.class));
+        verify(agencyRepository, never()).expireSubscriptions(anyList(), any(LocalDateTime.class));
+
+        ArgumentCaptor<SubscriptionExpiredEvent> captor = ArgumentCaptor.forClass(SubscriptionExpiredEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(SubscriptionExpiredEvent::getAccountType)
+                .containsOnly(SubscriptionExpiredEvent.AccountType.WORKER);
+        assertThat(captor.getAllValues().get(0).getAccountIds()).isEqualTo(firstChunk);
+    }
+
+    @Test
+    @DisplayName("Should stop when a chunk updates nothing instead of rescanning the same rows")
+    void givenChunkRenewedConcurrently_whenSweep_thenStopLoop() {
+        // given
+        List<UUID> agencies = List.of(UUID.randomUUID());
+        when(workerRepository.findIdsWithExpiredSubscription(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(agencyRepository.findIdsBySubscriptionStatusAndSubscriptionExpiresAtBefore(
+                eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(agencies);
+        when(agencyRepository.expireSubscriptions(anyList(), any(LocalDateTime.class))).thenReturn(0);
+
+        // when
+        subscriptionExpirer.expireStaleSubscriptions();
+
+        // then
+        verify(agencyRepository, times(1)).expireSubscriptions(eq(agencies), any(LocalDateTime.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should publish only the accounts the update expired, not every scanned id")
+    void givenOneOfChunkRenewedConcurrently_whenSweep_thenPublishOnlyExpiredIds() {
+        // given
+        UUID expired = UUID.randomUUID();
+        UUID renewed = UUID.randomUUID();
+        List<UUID> chunk = List.of(expired, renewed);
+        when(workerRepository.findIdsWithExpiredSubscription(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(chunk, List.of());
+        when(workerRepository.expireSubscriptions(eq(chunk), any(LocalDateTime.class))).thenReturn(1);
+        when(workerRepository.findIdsExpiredAt(eq(chunk), any(LocalDateTime.class))).thenReturn(List.of(expired));
+        when(agencyRepository.findIdsBySubscriptionStatusAndSubscriptionExpiresAtBefore(
+                eq(AgencySubscriptionStatus.ACTIVE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // when
+        subscriptionExpirer.expireStaleSubscriptions();
+
+        // then
+        ArgumentCaptor<SubscriptionExpiredEvent> captor = ArgumentCaptor.forClass(SubscriptionExpiredEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getAccountIds()).containsExactly(expired);
+    }
+}
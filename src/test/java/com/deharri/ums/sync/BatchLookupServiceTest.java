@@ -0,0 +1,155 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.dto.response.InternalAgencyDto;
+import com.deharri.ums.enums.AgencySubscriptionStatus;
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.user.dto.response.InternalUserDto;
+import com.deharri.ums.worker.WorkerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchLookupService Unit Tests")
+class BatchLookupServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private AgencyRepository agencyRepository;
+
+    private BatchLookupService batchLookupService;
+
+    @BeforeEach
+    void setUp() {
+        batchLookupService = new BatchLookupService(userRepository, workerRepository, agencyRepository, 3);
+    }
+
+    private UserRepository.IdentityRow identity(UUID userId, UUID workerId, String username) {
+        return new UserRepository.IdentityRow() {
+            public UUID getUserId() { return userId; }
+            public UUID getWorkerId() { return workerId; }
+            public String getUsername() { return username; }
+            public String getFirstName() { return "First"; }
+            public String getLastName() { return "Last"; }
+        };
+    }
+
+    @Nested
+    @DisplayName("findUsers()")
+    class FindUsersTests {
+
+        @Test
+        @DisplayName("Should key each user by the id asked for, whether user id or worker id")
+        void givenMixedIds_whenFindUsers_thenKeyByRequestedId() {
+            // given
+            UUID plainUserId = UUID.randomUUID();
+            UUID workerUserId = UUID.randomUUID();
+            UUID workerId = UUID.randomUUID();
+            UUID unknownId = UUID.randomUUID();
+            when(userRepository.findIdentitiesByUserOrWorkerIds(Set.of(plainUserId, workerId, unknownId)))
+                    .thenReturn(List.of(identity(plainUserId, null, "customer"),
+                            identity(workerUserId, workerId, "worker")));
+
+            // when
+            Map<UUID, InternalUserDto> users = batchLookupService.findUsers(List.of(plainUserId, workerId, unknownId));
+
+            // then
+            assertThat(users).containsOnlyKeys(plainUserId, workerId);
+            assertThat(users.get(plainUserId).getUsername()).isEqualTo("customer");
+            assertThat(users.get(workerId).getUserId()).isEqualTo(workerUserId);
+        }
+
+        @Test
+        @DisplayName("Should ignore duplicate and null ids when counting against the cap")
+        void givenDuplicateIds_whenFindUsers_thenQueryDistinctIds() {
+            // given
+            UUID userId = UUID.randomUUID();
+            when(userRepository.findIdentitiesByUserOrWorkerIds(Set.of(userId)))
+                    .thenReturn(List.of(identity(userId, null, "customer")));
+
+            // when
+            Map<UUID, InternalUserDto> users = batchLookupService.findUsers(
+                    Arrays.asList(userId, userId, null, userId, userId));
+
+            // then
+            assertThat(users).containsOnlyKeys(userId);
+        }
+
+        @Test
+        @DisplayName("Should not query when no ids are given")
+        void givenNoIds_whenFindUsers_thenReturnEmptyMap() {
+            // when
+            Map<UUID, InternalUserDto> users = batchLookupService.findUsers(List.of());
+
+            // then
+            assertThat(users).isEmpty();
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject more ids than the configured maximum")
+        void givenTooManyIds_whenFindUsers_thenThrowCustomDataIntegrityViolation() {
+            // given
+            List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+            // when / then
+            assertThatThrownBy(() -> batchLookupService.findUsers(ids))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("At most 3 ids can be looked up per request");
+            verifyNoInteractions(userRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("findAgencies()")
+    class FindAgenciesTests {
+
+        @Test
+        @DisplayName("Should derive the subscription flag from the projected status and expiry")
+        void givenAgencyRow_whenFindAgencies_thenMapSubscriptionActive() {
+            // given
+            UUID agencyId = UUID.randomUUID();
+            UUID ownerId = UUID.randomUUID();
+            AgencyRepository.SummaryRow row = new AgencyRepository.SummaryRow() {
+                public UUID getAgencyId() { return agencyId; }
+                public String getAgencyName() { return "Rapid Repairs"; }
+                public UUID getOwnerUserId() { return ownerId; }
+                public String getOwnerUsername() { return "owner"; }
+                public AgencySubscriptionStatus getSubscriptionStatus() { return AgencySubscriptionStatus.ACTIVE; }
+                public LocalDateTime getSubscriptionExpiresAt() { return LocalDateTime.now().plusDays(1); }
+            };
+            when(agencyRepository.findSummariesByAgencyOrOwnerIds(Set.of(ownerId))).thenReturn(List.of(row));
+
+            // when
+            Map<UUID, InternalAgencyDto> agencies = batchLookupService.findAgencies(List.of(ownerId));
+
+            // then
+            assertThat(agencies).containsOnlyKeys(ownerId);
+            assertThat(agencies.get(ownerId).getAgencyId()).isEqualTo(agencyId);
+            assertThat(agencies.get(ownerId).isSubscriptionActive()).isTrue();
+        }
+    }
+}
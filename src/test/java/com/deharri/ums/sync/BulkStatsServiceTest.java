@@ -0,0 +1,134 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto.Outcome;
+import com.deharri.ums.sync.dto.BulkStatsUpdateResultDto.RowOutcome;
+import com.deharri.ums.sync.dto.StatsUpdateRowDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BulkStatsService Unit Tests")
+class BulkStatsServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private BulkStatsService bulkStatsService;
+
+    @BeforeEach
+    void setUp() {
+        bulkStatsService = new BulkStatsService(jdbcTemplate, 4, 2);
+    }
+
+    private StatsUpdateRowDto row(Integer ratingCount, Long ratingSum, Integer jobs) {
+        return new StatsUpdateRowDto(UUID.randomUUID(), null, ratingCount, ratingSum, jobs);
+    }
+
+    @Nested
+    @DisplayName("updateWorkerStats()")
+    class UpdateWorkerStatsTests {
+
+        @Test
+        @DisplayName("Should map update counts across JDBC batches back to rows in request order")
+        @SuppressWarnings("unchecked")
+        void givenRowsSpanningBatches_whenUpdateWorkerStats_thenReportPerRowOutcomes() {
+            // given
+            StatsUpdateRowDto found = row(2, 9L, 10);
+            StatsUpdateRowDto empty = row(null, null, null);
+            StatsUpdateRowDto missing = row(null, null, 3);
+            StatsUpdateRowDto noInfo = row(1, 3L, null);
+            when(jdbcTemplate.batchUpdate(anyString(), eq(List.of(found, missing, noInfo)), eq(2),
+                    any(ParameterizedPreparedStatementSetter.class)))
+                    .thenReturn(new int[][]{{1, 0}, {Statement.SUCCESS_NO_INFO}});
+
+            // when
+            BulkStatsUpdateResultDto result = bulkStatsService.updateWorkerStats(List.of(found, empty, missing, noInfo));
+
+            // then
+            assertThat(result.getRows()).extracting(RowOutcome::getOutcome)
+                    .containsExactly(Outcome.UPDATED, Outcome.SKIPPED, Outcome.NOT_FOUND, Outcome.UPDATED);
+            assertThat(result.getRows()).extracting(RowOutcome::getId)
+                    .containsExactly(found.getId(), empty.getId(), missing.getId(), noInfo.getId());
+            assertThat(result.getUpdated()).isEqualTo(2);
+            assertThat(result.getNotFound()).isEqualTo(1);
+            assertThat(result.getSkipped()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should reject more rows than the configured maximum")
+        void givenTooManyRows_whenUpdateWorkerStats_thenThrowCustomDataIntegrityViolation() {
+            // given
+            List<StatsUpdateRowDto> rows = Collections.nCopies(5, row(1, 1L, 1));
+
+            // when / then
+            assertThatThrownBy(() -> bulkStatsService.updateWorkerStats(rows))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("At most 4 stats rows can be applied per request");
+            verifyNoInteractions(jdbcTemplate);
+        }
+    }
+
+    @Nested
+    @DisplayName("incrementWorkerJobsCompleted()")
+    class IncrementWorkerJobsCompletedTests {
+
+        @Test
+        @DisplayName("Should apply one relative update per worker and report ids that matched nothing")
+        @SuppressWarnings("unchecked")
+        void givenIncrements_whenIncrementWorkerJobsCompleted_thenReturnUnmatchedIds() {
+            // given
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            UUID missing = UUID.randomUUID();
+            Map<UUID, Integer> increments = new LinkedHashMap<>();
+            increments.put(first, 3);
+            increments.put(missing, 1);
+            increments.put(second, 2);
+            when(jdbcTemplate.batchUpdate(contains("total_jobs_completed = COALESCE(total_jobs_completed, 0) + ?"),
+                    eq(List.copyOf(increments.entrySet())), eq(2), any(ParameterizedPreparedStatementSetter.class)))
+                    .thenReturn(new int[][]{{1, 0}, {Statement.SUCCESS_NO_INFO}});
+
+            // when
+            List<UUID> unmatched = bulkStatsService.incrementWorkerJobsCompleted(increments);
+
+            // then
+            assertThat(unmatched).containsExactly(missing);
+        }
+
+        @Test
+        @DisplayName("Should not touch the database when there is nothing to add")
+        void givenNoIncrements_whenIncrementWorkerJobsCompleted_thenSkipUpdate() {
+            // when
+            List<UUID> unmatched = bulkStatsService.incrementWorkerJobsCompleted(Map.of());
+
+            // then
+            assertThat(unmatched).isEmpty();
+            verifyNoInteractions(jdbcTemplate);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.deharri.ums.sync;
+
+import com.deharri.ums.agency.AgencyRepository;
+import com.deharri.ums.agency.dto.response.InternalAgencyDto;
+import com.deharri.ums.agency.entity.Agency;
+import com.deharri.ums.error.exception.CustomDataIntegrityViolationException;
+import com.deharri.ums.sync.dto.DeltaPageDto;
+import com.deharri.ums.user.UserRepository;
+import com.deharri.ums.worker.WorkerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeltaSyncService Unit Tests")
+class DeltaSyncServiceTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private AgencyRepository agencyRepository;
+
+    @Mock
+    private SyncTombstoneRepository syncTombstoneRepository;
+
+    private DeltaSyncService deltaSyncService;
+
+    @BeforeEach
+    void setUp() {
+        deltaSyncService = new DeltaSyncService(userRepository, workerRepository, agencyRepository,
+                syncTombstoneRepository, 5, 2, 500);
+    }
+
+    private Agency agency(String name, LocalDateTime lastUpdatedAt) {
+        Agency agency = Agency.builder()
+                .agencyId(UUID.randomUUID())
+                .agencyName(name)
+                .build();
+        agency.setLastUpdatedAt(lastUpdatedAt);
+        return agency;
+    }
+
+    @Nested
+    @DisplayName("agencyChanges()")
+    class AgencyChangesTests {
+
+        @Test
+        @DisplayName("Should return changes and tombstones with a cursor positioned after the last of each")
+        void givenChangesAndDeletions_whenAgencyChanges_thenAdvanceCursor() {
+            // given
+            Agency first = agency("First", SINCE.plusMinutes(1));
+            Agency second = agency("Second", SINCE.plusMinutes(2));
+            SyncTombstone tombstone = new SyncTombstone(7L, SyncEntityType.AGENCY, UUID.randomUUID(), SINCE.plusMinutes(3));
+            when(agencyRepository.findChangedAfter(eq(SINCE), eq(DeltaCursor.MIN_ID), any(), any(Pageable.class)))
+                    .thenReturn(List.of(first, second));
+            when(syncTombstoneRepository.findPage(eq(SyncEntityType.AGENCY), eq(SINCE), eq(0L), any(), any(Pageable.class)))
+                    .thenReturn(List.of(tombstone));
+
+            // when
+            DeltaPageDto<InternalAgencyDto> page = deltaSyncService.agencyChanges(SINCE, null, null);
+
+            // then
+            assertThat(page.getItems()).extracting(InternalAgencyDto::getAgencyName).containsExactly("First", "Second");
+            assertThat(page.getTombstones()).singleElement()
+                    .satisfies(t -> assertThat(t.getId()).isEqualTo(tombstone.getEntityId()));
+            assertThat(page.isHasMore()).isTrue();
+
+            DeltaCursor next = DeltaCursor.decode(page.getNextCursor());
+            assertThat(next.getChangedAt()).isEqualTo(second.getLastUpdatedAt());
+            assertThat(next.getChangedId()).isEqualTo(second.getAgencyId());
+            assertThat(next.getDeletedAt()).isEqualTo(tombstone.getDeletedAt());
+            assertThat(next.getTombstoneId()).isEqualTo(7L);
+        }
+
+        @Test
+        @DisplayName("Should resume from the cursor and keep its position when nothing changed")
+        void givenCursorAndNoChanges_whenAgencyChanges_thenKeepPosition() {
+            // given
+            UUID lastId = UUID.randomUUID();
+            String cursor = new DeltaCursor(SINCE, lastId, SINCE, 3L).encode();
+            when(agencyRepository.findChangedAfter(eq(SINCE), eq(lastId), any(), any(Pageable.class)))
+                    .thenReturn(List.of());
+            when(syncTombstoneRepository.findPage(eq(SyncEntityType.AGENCY), eq(SINCE), eq(3L), any(), any(Pageable.class)))
+                    .thenReturn(List.of());
+
+            // when
+            DeltaPageDto<InternalAgencyDto> page = deltaSyncService.agencyChanges(null, cursor, 10);
+
+            // then
+            assertThat(page.getItems()).isEmpty();
+            assertThat(page.isHasMore()).isFalse();
+            assertThat(page.getNextCursor()).isEqualTo(cursor);
+        }
+
+        @Test
+        @DisplayName("Should hold back rows inside the settle window")
+        void givenRequest_whenAgencyChanges_thenQueryUpToSettledTime() {
+            // given
+            LocalDateTime before = LocalDateTime.now().minusSeconds(5);
+            when(agencyRepository.findChangedAfter(any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+            when(syncTombstoneRepository.findPage(any(), any(), anyLong(), any(), any(Pageable.class))).thenReturn(List.of());
+
+            // when
+            deltaSyncService.agencyChanges(SINCE, null, null);
+
+            // then
+            verify(agencyRepository).findChangedAfter(eq(SINCE), eq(DeltaCursor.MIN_ID),
+                    argThat(until -> !until.isBefore(before)
+                            && !until.isAfter(LocalDateTime.now().minusSeconds(5))),
+                    any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor")
+        void givenMalformedCursor_whenAgencyChanges_thenThrowCustomDataIntegrityViolation() {
+            // when / then
+            assertThatThrownBy(() -> deltaSyncService.agencyChanges(null, "not-a-cursor", null))
+                    .isInstanceOf(CustomDataIntegrityViolationException.class)
+                    .hasMessage("Invalid sync cursor");
+            verifyNoInteractions(agencyRepository, syncTombstoneRepository);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.deharri.ums.user;
 
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.image.ImageDerivativeService;
+import com.deharri.ums.amazon.image.ImageVariant;
+import com.deharri.ums.amazon.upload.MediaUploadService;
 import com.deharri.ums.amazon.dto.SignedUrlDto;
 import com.deharri.ums.enums.UserRole;
 import com.deharri.ums.permission.PermissionService;
@@ -12,6 +16,7 @@ import com.deharri.ums.user.dto.response.UserProfileDto;
 import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.user.entity.UserData;
 import com.deharri.ums.user.mapper.UserMapper;
+import com.deharri.ums.worker.WorkerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -28,8 +33,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +44,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -49,6 +57,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private WorkerRepository workerRepository;
+
     @Mock
     private PermissionService permissionService;
 
@@ -61,9 +72,26 @@ class UserServiceTest {
     @Mock
     private S3Service s3Service;
 
+    @Mock
+    private MediaUploadService mediaUploadService;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
     @InjectMocks
     private UserService userService;
 
+    // Commit runs the attach callback in the real service; do the same here
+    private void runCommitsInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(mediaUploadService).commit(any(), any());
+    }
+
     private CoreUser coreUser;
     private UserData userData;
     private UserProfileDto userProfileDto;
@@ -210,8 +238,8 @@ class UserServiceTest {
                     .build();
 
             when(userRepository.findAll()).thenReturn(List.of(coreUser, secondUser));
-            when(userMapper.coreUserToUserProfileDto(coreUser)).thenReturn(userProfileDto);
-            when(userMapper.coreUserToUserProfileDto(secondUser)).thenReturn(secondProfileDto);
+            when(userMapper.coreUserToUserProfileListItemDto(coreUser)).thenReturn(userProfileDto);
+            when(userMapper.coreUserToUserProfileListItemDto(secondUser)).thenReturn(secondProfileDto);
 
             // when
             List<UserProfileDto> result = userService.getAllUserProfiles();
@@ -222,8 +250,8 @@ class UserServiceTest {
             assertThat(result.get(1).getFirstName()).isEqualTo("Jane");
 
             verify(userRepository).findAll();
-            verify(userMapper).coreUserToUserProfileDto(coreUser);
-            verify(userMapper).coreUserToUserProfileDto(secondUser);
+            verify(userMapper).coreUserToUserProfileListItemDto(coreUser);
+            verify(userMapper).coreUserToUserProfileListItemDto(secondUser);
         }
 
         @Test
@@ -364,6 +392,10 @@ class UserServiceTest {
 
             when(permissionService.getLoggedInUser()).thenReturn(coreUser);
             when(s3Service.generateFileKey(eq(userId), eq("new-avatar.png"))).thenReturn(generatedKey);
+            runCommitsInline();
+            when(imageDerivativeService.generateVariants(generatedKey))
+                    .thenReturn(CompletableFuture.completedFuture(Map.of(ImageVariant.THUMBNAIL, "thumb-key")));
+            when(userRepository.setProfilePictureThumbnail(generatedKey, "thumb-key")).thenReturn(1);
             when(userRepository.save(coreUser)).thenReturn(coreUser);
 
             // when
@@ -374,9 +406,11 @@ class UserServiceTest {
             assertThat(result.getMessage()).isEqualTo("Profile Picture Updated Successfully!");
             assertThat(coreUser.getUserData().getProfilePicturePath()).isEqualTo(generatedKey);
 
-            verify(s3Service).deleteFile("deharri/users/old-pic.jpg");
+            verify(storageDeletionQueue).enqueue("deharri/users/old-pic.jpg");
+            verify(imageDerivativeService).deleteVariants("deharri/users/old-pic.jpg");
+            verify(userRepository).setProfilePictureThumbnail(generatedKey, "thumb-key");
             verify(s3Service).generateFileKey(userId, "new-avatar.png");
-            verify(s3Service).uploadFile(picture, generatedKey);
+            verify(mediaUploadService).uploadAll(userId, Map.of(generatedKey, picture));
             verify(userRepository).save(coreUser);
         }
 
@@ -393,6 +427,10 @@ class UserServiceTest {
 
             when(permissionService.getLoggedInUser()).thenReturn(coreUser);
             when(s3Service.generateFileKey(eq(userId), eq("avatar.jpg"))).thenReturn(generatedKey);
+            runCommitsInline();
+            when(imageDerivativeService.generateVariants(generatedKey))
+                    .thenReturn(CompletableFuture.completedFuture(Map.of(ImageVariant.THUMBNAIL, "thumb-key")));
+            when(userRepository.setProfilePictureThumbnail(generatedKey, "thumb-key")).thenReturn(1);
             when(userRepository.save(coreUser)).thenReturn(coreUser);
 
             // when
@@ -403,10 +441,10 @@ class UserServiceTest {
             assertThat(result.getMessage()).isEqualTo("Profile Picture Updated Successfully!");
             assertThat(coreUser.getUserData().getProfilePicturePath()).isEqualTo(generatedKey);
 
-            verify(s3Service, never()).deleteFile(anyString());
             verify(s3Service).generateFileKey(userId, "avatar.jpg");
-            verify(s3Service).uploadFile(picture, generatedKey);
+            verify(mediaUploadService).uploadAll(userId, Map.of(generatedKey, picture));
             verify(userRepository).save(coreUser);
+            verify(storageDeletionQueue, never()).enqueue(anyString());
         }
     }
 
@@ -1,18 +1,26 @@
 package com.deharri.ums.worker;
 
 import com.deharri.ums.config.security.jwt.JwtService;
+import com.deharri.ums.config.web.CborConfig;
 import com.deharri.ums.enums.Language;
 import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.error.exception.ResourceNotFoundException;
 import com.deharri.ums.error.handler.GlobalExceptionHandler;
+import com.deharri.ums.sync.BatchLookupService;
+import com.deharri.ums.sync.BulkStatsService;
+import com.deharri.ums.sync.DeltaSyncService;
+import com.deharri.ums.sync.dto.BatchLookupRequestDto;
 import com.deharri.ums.user.entity.CoreUser;
 import com.deharri.ums.user.entity.UserData;
 import com.deharri.ums.worker.controller.internal.InternalWorkerController;
 import com.deharri.ums.worker.dto.request.UpdateWorkerStatsDto;
+import com.deharri.ums.worker.dto.response.InternalWorkerProfileDto;
+import com.deharri.ums.worker.dto.response.InternalWorkerSummaryDto;
 import com.deharri.ums.worker.entity.AvailabilityStatus;
 import com.deharri.ums.worker.entity.CnicVerification;
 import com.deharri.ums.worker.entity.Worker;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -25,22 +33,26 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(InternalWorkerController.class)
 @AutoConfigureMockMvc(addFilters = false)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, CborConfig.class})
 @DisplayName("InternalWorkerController Unit Tests")
 class InternalWorkerControllerTest {
 
@@ -53,6 +65,21 @@ class InternalWorkerControllerTest {
     @MockBean
     private WorkerRepository workerRepository;
 
+    @MockBean
+    private WorkerIdentityResolver workerIdentityResolver;
+
+    @MockBean
+    private WorkerSyncExporter workerSyncExporter;
+
+    @MockBean
+    private DeltaSyncService deltaSyncService;
+
+    @MockBean
+    private BatchLookupService batchLookupService;
+
+    @MockBean
+    private BulkStatsService bulkStatsService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -67,8 +94,6 @@ class InternalWorkerControllerTest {
     @BeforeEach
     @SuppressWarnings("unchecked")
     void setUp() {
-        // By default, findByCoreUser_UserId returns empty so fallback to findById works
-        when(workerRepository.findByCoreUser_UserId(any(UUID.class))).thenReturn(Optional.empty());
         worker1Id = UUID.randomUUID();
         worker2Id = UUID.randomUUID();
 
@@ -190,10 +215,75 @@ class InternalWorkerControllerTest {
         }
     }
 
+    // ========================================================================
+    // GET /api/v1/internal/workers/stream
+    // ========================================================================
+
+    @Nested
+    @DisplayName("GET /api/v1/internal/workers/stream")
+    class StreamAllWorkersTests {
+
+        @Test
+        @DisplayName("Should return 200 with the exporter's NDJSON body")
+        void givenWorkersExist_whenStreamAllWorkers_thenReturn200WithNdjson() throws Exception {
+            // given
+            when(workerSyncExporter.writeAll(any())).thenAnswer(invocation -> {
+                OutputStream out = invocation.getArgument(0);
+                out.write("{\"username\":\"john_doe\"}\n{\"username\":\"jane_smith\"}\n".getBytes());
+                return 2L;
+            });
+
+            // when / then
+            mockMvc.perform(get("/api/v1/internal/workers/stream"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                    .andExpect(content().string("{\"username\":\"john_doe\"}\n{\"username\":\"jane_smith\"}\n"));
+
+            verify(workerRepository, never()).findAll();
+        }
+    }
+
     // ========================================================================
     // GET /api/v1/internal/workers/{workerId}
     // ========================================================================
 
+    @Nested
+    @DisplayName("POST /api/v1/internal/workers/batch")
+    class GetWorkersByIdsTests {
+
+        @Test
+        @DisplayName("Should return summaries keyed by the ids asked for")
+        void givenIds_whenGetWorkersByIds_thenReturnMap() throws Exception {
+            // given
+            InternalWorkerSummaryDto summary = InternalWorkerSummaryDto.builder()
+                    .workerId(worker1Id)
+                    .username("john_doe")
+                    .build();
+            when(batchLookupService.findWorkers(List.of(worker1Id, worker2Id)))
+                    .thenReturn(Map.of(worker1Id, summary));
+
+            // when / then
+            mockMvc.perform(post("/api/v1/internal/workers/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new BatchLookupRequestDto(List.of(worker1Id, worker2Id)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$['" + worker1Id + "'].username").value("john_doe"))
+                    .andExpect(jsonPath("$['" + worker2Id + "']").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Should return 400 when ids are missing")
+        void givenNoIds_whenGetWorkersByIds_thenReturn400() throws Exception {
+            // when / then
+            mockMvc.perform(post("/api/v1/internal/workers/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(batchLookupService);
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/v1/internal/workers/{workerId}")
     class GetWorkerByIdTests {
@@ -202,7 +292,7 @@ class InternalWorkerControllerTest {
         @DisplayName("Should return 200 with worker profile when worker exists")
         void givenValidWorkerId_whenGetWorkerById_thenReturn200() throws Exception {
             // given
-            when(workerRepository.findById(worker1Id)).thenReturn(Optional.of(worker1));
+            when(workerIdentityResolver.findWorker(worker1Id)).thenReturn(Optional.of(worker1));
 
             // when / then
             mockMvc.perform(get("/api/v1/internal/workers/{workerId}", worker1Id))
@@ -224,7 +314,7 @@ class InternalWorkerControllerTest {
                     .andExpect(jsonPath("$.averageRating").value(4.50))
                     .andExpect(jsonPath("$.totalJobsCompleted").value(25));
 
-            verify(workerRepository).findById(worker1Id);
+            verify(workerIdentityResolver).findWorker(worker1Id);
         }
 
         @Test
@@ -232,13 +322,36 @@ class InternalWorkerControllerTest {
         void givenInvalidWorkerId_whenGetWorkerById_thenReturn404() throws Exception {
             // given
             UUID invalidId = UUID.randomUUID();
-            when(workerRepository.findById(invalidId)).thenReturn(Optional.empty());
+            when(workerIdentityResolver.findWorker(invalidId)).thenReturn(Optional.empty());
 
             // when / then
             mockMvc.perform(get("/api/v1/internal/workers/{workerId}", invalidId))
                     .andExpect(status().isInternalServerError());
 
-            verify(workerRepository).findById(invalidId);
+            verify(workerIdentityResolver).findWorker(invalidId);
+        }
+
+        @Test
+        @DisplayName("Should return a smaller CBOR body when the caller accepts application/cbor")
+        void givenCborAccept_whenGetWorkerById_thenReturnCbor() throws Exception {
+            // given
+            when(workerIdentityResolver.findWorker(worker1Id)).thenReturn(Optional.of(worker1));
+
+            // when
+            byte[] cbor = mockMvc.perform(get("/api/v1/internal/workers/{workerId}", worker1Id)
+                            .accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn().getResponse().getContentAsByteArray();
+            byte[] json = mockMvc.perform(get("/api/v1/internal/workers/{workerId}", worker1Id))
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            // then
+            InternalWorkerProfileDto profile = new CBORMapper().readValue(cbor, InternalWorkerProfileDto.class);
+            assertThat(profile.getWorkerId()).isEqualTo(worker1Id);
+            assertThat(profile.getUsername()).isEqualTo("john_doe");
+            assertThat(cbor.length).isLessThan(json.length);
         }
     }
 
@@ -254,9 +367,9 @@ class InternalWorkerControllerTest {
         @DisplayName("Should return 200 when valid stats are provided for existing worker")
         void givenValidStats_whenUpdateWorkerStats_thenReturn200() throws Exception {
             // given
-            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(new BigDecimal("4.75"), 30);
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(null, 4, 19L, 30);
 
-            when(workerRepository.findById(worker1Id)).thenReturn(Optional.of(worker1));
+            when(workerIdentityResolver.findWorker(worker1Id)).thenReturn(Optional.of(worker1));
             when(workerRepository.save(any(Worker.class))).thenReturn(worker1);
 
             // when / then
@@ -265,7 +378,7 @@ class InternalWorkerControllerTest {
                             .content(objectMapper.writeValueAsString(statsDto)))
                     .andExpect(status().isOk());
 
-            verify(workerRepository).findById(worker1Id);
+            verify(workerIdentityResolver).findWorker(worker1Id);
             verify(workerRepository).save(worker1);
         }
 
@@ -274,9 +387,9 @@ class InternalWorkerControllerTest {
         void givenInvalidWorkerId_whenUpdateWorkerStats_thenReturn404() throws Exception {
             // given
             UUID invalidId = UUID.randomUUID();
-            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(new BigDecimal("4.00"), 15);
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(null, 2, 8L, 15);
 
-            when(workerRepository.findById(invalidId)).thenReturn(Optional.empty());
+            when(workerIdentityResolver.findWorker(invalidId)).thenReturn(Optional.empty());
 
             // when / then
             mockMvc.perform(put("/api/v1/internal/workers/{workerId}/stats", invalidId)
@@ -284,7 +397,78 @@ class InternalWorkerControllerTest {
                             .content(objectMapper.writeValueAsString(statsDto)))
                     .andExpect(status().isInternalServerError());
 
-            verify(workerRepository).findById(invalidId);
+            verify(workerIdentityResolver).findWorker(invalidId);
+            verify(workerRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should accept a CBOR request body")
+        void givenCborBody_whenUpdateWorkerStats_thenReturn200() throws Exception {
+            // given
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(null, 4, 19L, 30);
+
+            when(workerIdentityResolver.findWorker(worker1Id)).thenReturn(Optional.of(worker1));
+            when(workerRepository.save(any(Worker.class))).thenReturn(worker1);
+
+            // when / then
+            mockMvc.perform(put("/api/v1/internal/workers/{workerId}/stats", worker1Id)
+                            .contentType(MediaType.APPLICATION_CBOR)
+                            .content(new CBORMapper().writeValueAsBytes(statsDto)))
+                    .andExpect(status().isOk());
+
+            assertThat(worker1.getAverageRating()).isEqualByComparingTo("4.75");
+            assertThat(worker1.getRatingCount()).isEqualTo(4);
+            assertThat(worker1.getRatingSum()).isEqualTo(19L);
+            assertThat(worker1.getTotalJobsCompleted()).isEqualTo(30);
+        }
+
+        @Test
+        @DisplayName("Should return 400 when a rating count arrives without its sum")
+        void givenRatingCountWithoutSum_whenUpdateWorkerStats_thenReturn400() throws Exception {
+            // given
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(null, 4, null, 30);
+
+            // when / then
+            mockMvc.perform(put("/api/v1/internal/workers/{workerId}/stats", worker1Id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(statsDto)))
+                    .andExpect(status().isBadRequest());
+
+            verify(workerRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should still apply a deprecated bare averageRating and clear the totals")
+        void givenDeprecatedAverageRating_whenUpdateWorkerStats_thenApplyAverageAsLegacy() throws Exception {
+            // given
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(new BigDecimal("4.20"), null, null, null);
+
+            when(workerIdentityResolver.findWorker(worker1Id)).thenReturn(Optional.of(worker1));
+            when(workerRepository.save(any(Worker.class))).thenReturn(worker1);
+
+            // when / then
+            mockMvc.perform(put("/api/v1/internal/workers/{workerId}/stats", worker1Id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(statsDto)))
+                    .andExpect(status().isOk());
+
+            assertThat(worker1.getAverageRating()).isEqualByComparingTo("4.20");
+            assertThat(worker1.getRatingCount()).isNull();
+            assertThat(worker1.getRatingSum()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return 400 when averageRating is combined with rating totals")
+        void givenAverageRatingWithTotals_whenUpdateWorkerStats_thenReturn400() throws Exception {
+            // given
+            UpdateWorkerStatsDto statsDto = new UpdateWorkerStatsDto(new BigDecimal("4.20"), 4, 19L, null);
+
+            // when / then
+            mockMvc.perform(put("/api/v1/internal/workers/{workerId}/stats", worker1Id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(statsDto)))
+                    .andExpect(status().isBadRequest());
+
             verify(workerRepository, never()).save(any());
         }
     }
@@ -0,0 +1,84 @@
+package com.deharri.ums.worker;
+
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.entity.Worker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkerIdentityResolver Unit Tests")
+class WorkerIdentityResolverTest {
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    private WorkerIdentityResolver workerIdentityResolver;
+
+    private UUID workerId;
+    private UUID userId;
+    private Worker worker;
+
+    @BeforeEach
+    void setUp() {
+        workerIdentityResolver = new WorkerIdentityResolver(workerRepository);
+        workerId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        worker = Worker.builder()
+                .workerId(workerId)
+                .coreUser(CoreUser.builder().userId(userId).username("john_doe").build())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("findWorker()")
+    class FindWorkerTests {
+
+        @Test
+        @DisplayName("Should resolve a user id or a worker id with the same single query")
+        void givenEitherId_whenFindWorker_thenResolveInOneQuery() {
+            // given
+            when(workerRepository.findByWorkerIdOrUserId(userId)).thenReturn(Optional.of(worker));
+            when(workerRepository.findByWorkerIdOrUserId(workerId)).thenReturn(Optional.of(worker));
+
+            // when
+            Optional<Worker> byUserId = workerIdentityResolver.findWorker(userId);
+            Optional<Worker> byWorkerId = workerIdentityResolver.findWorker(workerId);
+
+            // then
+            assertThat(byUserId).contains(worker);
+            assertThat(byWorkerId).contains(worker);
+            verify(workerRepository, times(1)).findByWorkerIdOrUserId(userId);
+            verify(workerRepository, times(1)).findByWorkerIdOrUserId(workerId);
+            verify(workerRepository, never()).findById(workerId);
+            verify(workerRepository, never()).findByCoreUser_UserId(userId);
+        }
+
+        @Test
+        @DisplayName("Should return empty when the id matches no worker")
+        void givenUnknownId_whenFindWorker_thenReturnEmpty() {
+            // given
+            UUID unknownId = UUID.randomUUID();
+            when(workerRepository.findByWorkerIdOrUserId(unknownId)).thenReturn(Optional.empty());
+
+            // when
+            Optional<Worker> result = workerIdentityResolver.findWorker(unknownId);
+
+            // then
+            assertThat(result).isEmpty();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.deharri.ums.worker;
 
 import com.deharri.ums.amazon.S3Service;
+import com.deharri.ums.amazon.deletion.StorageDeletionQueue;
+import com.deharri.ums.amazon.image.ImageDerivativeService;
+import com.deharri.ums.amazon.upload.MediaUploadService;
 import com.deharri.ums.enums.Language;
 import com.deharri.ums.enums.PakistanCity;
 import com.deharri.ums.enums.UserRole;
@@ -30,8 +33,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -57,9 +62,26 @@ class WorkerServiceTest {
     @Mock
     private S3Service s3Service;
 
+    @Mock
+    private MediaUploadService mediaUploadService;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private StorageDeletionQueue storageDeletionQueue;
+
     @InjectMocks
     private WorkerService workerService;
 
+    // Commit runs the attach callback in the real service; do the same here
+    private void runCommitsInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(mediaUploadService).commit(any(), any());
+    }
+
     private CoreUser coreUser;
     private Worker worker;
     private UUID workerId;
@@ -211,6 +233,7 @@ class WorkerServiceTest {
             when(s3Service.generateFileKey(eq(userId), eq("cnic_back.jpg"))).thenReturn(backPath);
             when(workerRepository.findByCoreUser(coreUser)).thenReturn(Optional.of(worker));
             when(workerRepository.save(worker)).thenReturn(worker);
+            runCommitsInline();
 
             // when
             String result = workerService.submitCnicForVerification(cnicFront, cnicBack);
@@ -220,8 +243,8 @@ class WorkerServiceTest {
             assertThat(worker.getCnicVerification().getCnicFrontPath()).isEqualTo(frontPath);
             assertThat(worker.getCnicVerification().getCnicBackPath()).isEqualTo(backPath);
 
-            verify(s3Service).uploadFile(cnicFront, frontPath);
-            verify(s3Service).uploadFile(cnicBack, backPath);
+            verify(mediaUploadService).uploadAll(userId, Map.of(frontPath, cnicFront, backPath, cnicBack));
+            verify(mediaUploadService).commit(eq(List.of(frontPath, backPath)), any());
             verify(workerRepository).save(worker);
         }
 
@@ -289,7 +312,7 @@ class WorkerServiceTest {
                     .workerType(Worker.WorkerType.PLUMBER)
                     .build();
 
-            when(workerRepository.findAll()).thenReturn(List.of(worker, worker2));
+            when(workerRepository.findAllWithActiveSubscription(any(LocalDateTime.class))).thenReturn(List.of(worker, worker2));
             when(workerMapper.workerToListItemDto(worker)).thenReturn(listItem1);
             when(workerMapper.workerToListItemDto(worker2)).thenReturn(listItem2);
 
@@ -301,7 +324,7 @@ class WorkerServiceTest {
             assertThat(result.get(0).getFirstName()).isEqualTo("John");
             assertThat(result.get(1).getFirstName()).isEqualTo("Jane");
 
-            verify(workerRepository).findAll();
+            verify(workerRepository).findAllWithActiveSubscription(any(LocalDateTime.class));
             verify(workerMapper, times(2)).workerToListItemDto(any(Worker.class));
         }
 
@@ -309,7 +332,7 @@ class WorkerServiceTest {
         @DisplayName("Should return empty list when no workers exist")
         void givenNoWorkers_whenGetAllWorkers_thenReturnEmptyList() {
             // given
-            when(workerRepository.findAll()).thenReturn(List.of());
+            when(workerRepository.findAllWithActiveSubscription(any(LocalDateTime.class))).thenReturn(List.of());
 
             // when
             List<WorkerListItemDto> result = workerService.getAllWorkers();
@@ -317,7 +340,7 @@ class WorkerServiceTest {
             // then
             assertThat(result).isEmpty();
 
-            verify(workerRepository).findAll();
+            verify(workerRepository).findAllWithActiveSubscription(any(LocalDateTime.class));
             verify(workerMapper, never()).workerToListItemDto(any(Worker.class));
         }
     }
@@ -519,6 +542,7 @@ class WorkerServiceTest {
             when(workerRepository.findByCoreUser(coreUser)).thenReturn(Optional.of(worker));
             when(s3Service.generateFileKey(eq(userId), eq("portfolio_1.jpg"))).thenReturn(imagePath);
             when(workerRepository.save(worker)).thenReturn(worker);
+            runCommitsInline();
 
             // when
             ResponseMessageDto result = workerService.uploadPortfolioImage(portfolioImage);
@@ -529,7 +553,8 @@ class WorkerServiceTest {
             assertThat(worker.getPortfolioImagePaths()).contains(imagePath);
 
             verify(s3Service).generateFileKey(userId, "portfolio_1.jpg");
-            verify(s3Service).uploadFile(portfolioImage, imagePath);
+            verify(mediaUploadService).uploadAll(userId, Map.of(imagePath, portfolioImage));
+            verify(imageDerivativeService).generateVariants(imagePath);
             verify(workerRepository).save(worker);
         }
 
@@ -547,7 +572,7 @@ class WorkerServiceTest {
                     .isInstanceOf(AuthorizationException.class)
                     .hasMessage("Worker account not found for current user");
 
-            verify(s3Service, never()).uploadFile(any(), any());
+            verify(mediaUploadService, never()).uploadAll(any(), any());
             verify(workerRepository, never()).save(any());
         }
     }
@@ -579,7 +604,8 @@ class WorkerServiceTest {
             assertThat(result.getMessage()).isEqualTo("Portfolio image deleted successfully");
             assertThat(worker.getPortfolioImagePaths()).doesNotContain(imagePath);
 
-            verify(s3Service).deleteFile(imagePath);
+            verify(storageDeletionQueue).enqueue(imagePath);
+            verify(imageDerivativeService).deleteVariants(imagePath);
             verify(workerRepository).save(worker);
         }
 
@@ -597,7 +623,7 @@ class WorkerServiceTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessage("Portfolio image not found in worker's portfolio");
 
-            verify(s3Service, never()).deleteFile(any());
+            verifyNoInteractions(storageDeletionQueue);
             verify(workerRepository, never()).save(any());
         }
 
@@ -615,7 +641,7 @@ class WorkerServiceTest {
                     .isInstanceOf(AuthorizationException.class)
                     .hasMessage("Worker account not found for current user");
 
-            verify(s3Service, never()).deleteFile(any());
+            verifyNoInteractions(storageDeletionQueue);
             verify(workerRepository, never()).save(any());
         }
     }
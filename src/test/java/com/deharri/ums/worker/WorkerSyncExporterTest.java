@@ -0,0 +1,110 @@
+package com.deharri.ums.worker;
+
+import com.deharri.ums.enums.Language;
+import com.deharri.ums.enums.PakistanCity;
+import com.deharri.ums.user.entity.CoreUser;
+import com.deharri.ums.worker.dto.response.InternalWorkerProfileDto;
+import com.deharri.ums.worker.entity.Worker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WorkerSyncExporter Unit Tests")
+class WorkerSyncExporterTest {
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WorkerSyncExporter workerSyncExporter;
+
+    @BeforeEach
+    void setUp() {
+        workerSyncExporter = new WorkerSyncExporter(workerRepository, entityManager, objectMapper);
+    }
+
+    private Worker worker(String username) {
+        return Worker.builder()
+                .workerId(UUID.randomUUID())
+                .coreUser(CoreUser.builder()
+                        .userId(UUID.randomUUID())
+                        .username(username)
+                        .firstName("First")
+                        .lastName("Last")
+                        .build())
+                .workerType(Worker.WorkerType.PLUMBER)
+                .city(PakistanCity.LAHORE)
+                .serviceCities(new ArrayList<>(List.of(PakistanCity.LAHORE)))
+                .languages(new ArrayList<>(List.of(Language.URDU)))
+                .build();
+    }
+
+    @Nested
+    @DisplayName("writeAll()")
+    class WriteAllTests {
+
+        @Test
+        @DisplayName("Should write one JSON profile per line")
+        void givenWorkers_whenWriteAll_thenWriteNdjson() throws Exception {
+            // given
+            when(workerRepository.streamAllForSync()).thenReturn(Stream.of(worker("john_doe"), worker("jane_smith")));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // when
+            long written = workerSyncExporter.writeAll(out);
+
+            // then
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(written).isEqualTo(2);
+            assertThat(lines).hasSize(2);
+            InternalWorkerProfileDto first = objectMapper.readValue(lines[0], InternalWorkerProfileDto.class);
+            assertThat(first.getUsername()).isEqualTo("john_doe");
+            assertThat(first.getServiceCities()).containsExactly("LAHORE");
+            assertThat(first.getLanguages()).containsExactly("URDU");
+            assertThat(objectMapper.readValue(lines[1], InternalWorkerProfileDto.class).getUsername())
+                    .isEqualTo("jane_smith");
+        }
+
+        @Test
+        @DisplayName("Should detach each full chunk so memory does not grow with the worker count")
+        void givenMoreWorkersThanOneChunk_whenWriteAll_thenClearPerChunk() throws Exception {
+            // given
+            int total = WorkerRepository.SYNC_FETCH_SIZE * 2 + 1;
+            when(workerRepository.streamAllForSync())
+                    .thenReturn(IntStream.range(0, total).mapToObj(i -> worker("worker_" + i)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // when
+            long written = workerSyncExporter.writeAll(out);
+
+            // then
+            assertThat(written).isEqualTo(total);
+            assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(total);
+            verify(entityManager, times(3)).clear();
+        }
+    }
+}